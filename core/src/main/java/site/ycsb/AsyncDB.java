@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2023 YCSB contributors. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.Vector;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * A DB layer whose operations complete asynchronously. Bindings built on a non-blocking client
+ * extend this class so that one client thread can keep several operations in flight, see the
+ * "outstandingops" property of {@link ClientThread}.
+ *
+ * The futures complete with the result of the operation. A future completing exceptionally is
+ * counted as an {@link Status#ERROR}. The result maps and vectors passed to an operation are
+ * only filled in once its future has completed, and must not be touched by the binding after
+ * that.
+ *
+ * The synchronous methods of {@link DB} wait for the asynchronous ones, so an AsyncDB can be
+ * used everywhere a DB can. Synchronous bindings are turned into an AsyncDB by
+ * {@link #wrap(DB)}.
+ */
+public abstract class AsyncDB extends DB {
+
+  /**
+   * Adapt {@code db} to the asynchronous API.
+   *
+   * @return {@code db} itself if it is already an AsyncDB, otherwise an {@link AsyncDBAdapter}
+   * running its operations in the calling thread.
+   */
+  public static AsyncDB wrap(DB db) {
+    return db instanceof AsyncDB ? (AsyncDB) db : new AsyncDBAdapter(db);
+  }
+
+  /**
+   * Read a record from the database. Each field/value pair from the result will be stored in a HashMap.
+   *
+   * @param table The name of the table
+   * @param key The record key of the record to read.
+   * @param fields The list of fields to read, or null for all of them
+   * @param result A HashMap of field/value pairs for the result
+   * @return A future completing with the result of the operation.
+   */
+  public abstract CompletableFuture<Status> readAsync(String table, String key, Set<String> fields,
+                                                      Map<String, ByteIterator> result);
+
+  /**
+   * Perform a range scan for a set of records in the database. Each field/value pair from the result will be stored
+   * in a HashMap.
+   *
+   * @param table The name of the table
+   * @param startkey The record key of the first record to read.
+   * @param recordcount The number of records to read
+   * @param fields The list of fields to read, or null for all of them
+   * @param result A Vector of HashMaps, where each HashMap is a set field/value pairs for one record
+   * @return A future completing with the result of the operation.
+   */
+  public abstract CompletableFuture<Status> scanAsync(String table, String startkey, int recordcount,
+                                                      Set<String> fields,
+                                                      Vector<HashMap<String, ByteIterator>> result);
+
+  /**
+   * Update a record in the database. Any field/value pairs in the specified values HashMap will be written into the
+   * record with the specified record key, overwriting any existing values with the same field name.
+   *
+   * @param table The name of the table
+   * @param key The record key of the record to write.
+   * @param values A HashMap of field/value pairs to update in the record
+   * @return A future completing with the result of the operation.
+   */
+  public abstract CompletableFuture<Status> updateAsync(String table, String key, Map<String, ByteIterator> values);
+
+  /**
+   * Insert a record in the database. Any field/value pairs in the specified values HashMap will be written into the
+   * record with the specified record key.
+   *
+   * @param table The name of the table
+   * @param key The record key of the record to insert.
+   * @param values A HashMap of field/value pairs to insert in the record
+   * @return A future completing with the result of the operation.
+   */
+  public abstract CompletableFuture<Status> insertAsync(String table, String key, Map<String, ByteIterator> values);
+
+  /**
+   * Delete a record from the database.
+   *
+   * @param table The name of the table
+   * @param key The record key of the record to delete.
+   * @return A future completing with the result of the operation.
+   */
+  public abstract CompletableFuture<Status> deleteAsync(String table, String key);
+
+  @Override
+  public Status read(String table, String key, Set<String> fields, Map<String, ByteIterator> result) {
+    return await(readAsync(table, key, fields, result));
+  }
+
+  @Override
+  public Status scan(String table, String startkey, int recordcount, Set<String> fields,
+                     Vector<HashMap<String, ByteIterator>> result) {
+    return await(scanAsync(table, startkey, recordcount, fields, result));
+  }
+
+  @Override
+  public Status update(String table, String key, Map<String, ByteIterator> values) {
+    return await(updateAsync(table, key, values));
+  }
+
+  @Override
+  public Status insert(String table, String key, Map<String, ByteIterator> values) {
+    return await(insertAsync(table, key, values));
+  }
+
+  @Override
+  public Status delete(String table, String key) {
+    return await(deleteAsync(table, key));
+  }
+
+  /**
+   * Wait for {@code future}, an exceptional completion or a cancellation being reported as
+   * {@link Status#ERROR}.
+   */
+  protected static Status await(CompletableFuture<Status> future) {
+    try {
+      Status status = future.join();
+      return status == null ? Status.ERROR : status;
+    } catch (CompletionException | CancellationException e) {
+      return Status.ERROR;
+    }
+  }
+}
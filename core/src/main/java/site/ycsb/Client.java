@@ -31,6 +31,7 @@ import java.io.OutputStream;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -149,6 +150,26 @@ public final class Client {
    */
   public static final String LABEL_PROPERTY = "label";
 
+  /**
+   * Whether to run the client threads on virtual threads, which needs Java 21 or later.
+   */
+  public static final String VIRTUAL_THREADS_PROPERTY = "virtualthreads";
+
+  /**
+   * Whether the virtual client threads share DB instances instead of having their own. There are as
+   * many instances as carrier threads, at most one per client thread, and the client threads are
+   * assigned to them round-robin by thread id. Only for bindings whose DB class is thread safe.
+   */
+  public static final String VIRTUAL_THREADS_SHARE_DB_PROPERTY = "virtualthreads.sharedb";
+
+  /**
+   * Whether to report the virtual client threads pinned to their carrier thread, for instance by a
+   * binding blocking inside a synchronized block, and from which duration in milliseconds.
+   */
+  public static final String VIRTUAL_THREADS_PINNING_PROPERTY = "virtualthreads.pinning";
+  public static final String VIRTUAL_THREADS_PINNING_THRESHOLD_PROPERTY = "virtualthreads.pinning.threshold";
+  public static final String VIRTUAL_THREADS_PINNING_THRESHOLD_PROPERTY_DEFAULT = "20";
+
   /**
    * An optional thread used to track progress and measure JVM stats.
    */
@@ -215,27 +236,7 @@ public final class Client {
       throws IOException {
     MeasurementsExporter exporter = null;
     try {
-      // if no destination file is provided the results will be written to stdout
-      OutputStream out;
-      String exportFile = props.getProperty(EXPORT_FILE_PROPERTY);
-      if (exportFile == null) {
-        out = System.out;
-      } else {
-        out = new FileOutputStream(exportFile);
-      }
-
-      // if no exporter is provided the default text one will be used
-      String exporterStr = props.getProperty(EXPORTER_PROPERTY,
-          "site.ycsb.measurements.exporter.TextMeasurementsExporter");
-      try {
-        exporter = (MeasurementsExporter) Class.forName(exporterStr).getConstructor(OutputStream.class)
-            .newInstance(out);
-      } catch (Exception e) {
-        System.err.println("Could not find exporter " + exporterStr
-            + ", will use default text reporter.");
-        e.printStackTrace();
-        exporter = new TextMeasurementsExporter(out);
-      }
+      exporter = openExporter(props);
 
       exporter.write("OVERALL", "RunTime(ms)", runtime);
       double throughput = 1000.0 * (opcount) / (runtime);
@@ -273,11 +274,40 @@ public final class Client {
     }
   }
 
+  /**
+   * @return the exporter loaded from conf, writing to either sysout or a file.
+   */
+  static MeasurementsExporter openExporter(Properties props) throws IOException {
+    // if no destination file is provided the results will be written to stdout
+    OutputStream out;
+    String exportFile = props.getProperty(EXPORT_FILE_PROPERTY);
+    if (exportFile == null) {
+      out = System.out;
+    } else {
+      out = new FileOutputStream(exportFile);
+    }
+
+    // if no exporter is provided the default text one will be used
+    String exporterStr = props.getProperty(EXPORTER_PROPERTY,
+        "site.ycsb.measurements.exporter.TextMeasurementsExporter");
+    try {
+      return (MeasurementsExporter) Class.forName(exporterStr).getConstructor(OutputStream.class)
+          .newInstance(out);
+    } catch (Exception e) {
+      System.err.println("Could not find exporter " + exporterStr
+          + ", will use default text reporter.");
+      e.printStackTrace();
+      return new TextMeasurementsExporter(out);
+    }
+  }
+
   @SuppressWarnings("unchecked")
   public static void main(String[] args) {
     Properties props = parseArguments(args);
 
-    boolean status = Boolean.valueOf(props.getProperty(STATUS_PROPERTY, String.valueOf(false)));
+    // the status thread also publishes the latencies of each interval to the metrics server
+    boolean status = Boolean.valueOf(props.getProperty(STATUS_PROPERTY, String.valueOf(false)))
+        || props.containsKey(MetricsServer.PORT_PROPERTY);
     String label = props.getProperty(LABEL_PROPERTY, "");
 
     long maxExecutionTime = Integer.parseInt(props.getProperty(MAX_EXECUTION_TIME, "0"));
@@ -286,13 +316,19 @@ public final class Client {
     int threadcount = Integer.parseInt(props.getProperty(THREAD_COUNT_PROPERTY, "1"));
     String dbname = props.getProperty(DB_PROPERTY, "site.ycsb.BasicDB");
     int target = Integer.parseInt(props.getProperty(TARGET_PROPERTY, "0"));
+    boolean openloop = Boolean.parseBoolean(props.getProperty(OpenLoopScheduler.OPEN_LOOP_PROPERTY,
+        OpenLoopScheduler.OPEN_LOOP_PROPERTY_DEFAULT));
+    final TargetProfile profile = getTargetProfile(props);
+    if (profile != null) {
+      // report the achieved throughput against the profile, which by default sets the length of the run
+      status = true;
+      if (maxExecutionTime == 0) {
+        maxExecutionTime = (long) Math.ceil(profile.getDuration());
+      }
+    }
 
     //compute the target throughput
-    double targetperthreadperms = -1;
-    if (target > 0) {
-      double targetperthread = ((double) target) / ((double) threadcount);
-      targetperthreadperms = targetperthread / 1000.0;
-    }
+    double targetperthreadperms = getTargetPerThreadPerMs(props, openloop, profile, target, threadcount);
 
     Thread warningthread = setupWarningThread();
     warningthread.start();
@@ -306,24 +342,24 @@ public final class Client {
     initWorkload(props, warningthread, workload, tracer);
 
     System.err.println("Starting test.");
+    if (props.containsKey(ThroughputSearch.LATENCY_PROPERTY)) {
+      searchThroughput(props, workload, tracer);
+    }
     final CountDownLatch completeLatch = new CountDownLatch(threadcount);
 
     final List<ClientThread> clients = initDb(dbname, props, threadcount, targetperthreadperms,
         workload, tracer, completeLatch);
 
+    final OpenLoopScheduler scheduler = initPacing(props, openloop, profile, target, workload, clients);
+
+    startMetricsServer(props, clients);
     if (status) {
-      boolean standardstatus = false;
-      if (props.getProperty(Measurements.MEASUREMENT_TYPE_PROPERTY, "").compareTo("timeseries") == 0) {
-        standardstatus = true;
-      }
-      int statusIntervalSeconds = Integer.parseInt(props.getProperty("status.interval", "10"));
-      boolean trackJVMStats = props.getProperty(Measurements.MEASUREMENT_TRACK_JVM_PROPERTY,
-          Measurements.MEASUREMENT_TRACK_JVM_PROPERTY_DEFAULT).equals("true");
-      statusthread = new StatusThread(completeLatch, clients, label, standardstatus, statusIntervalSeconds,
-          trackJVMStats);
-      statusthread.start();
+      startStatusThread(props, completeLatch, clients, label, profile);
     }
 
+    final ThreadFactory threadFactory = getThreadFactory(props);
+    final Runnable pinningReport = monitorPinning(props);
+
     Thread terminator = null;
     long st;
     long en;
@@ -333,7 +369,7 @@ public final class Client {
 
       final Map<Thread, ClientThread> threads = new HashMap<>(threadcount);
       for (ClientThread client : clients) {
-        threads.put(new Thread(tracer.wrap(client, "ClientThread")), client);
+        threads.put(threadFactory.newThread(tracer.wrap(client, "ClientThread")), client);
       }
 
       st = System.currentTimeMillis();
@@ -342,6 +378,10 @@ public final class Client {
         t.start();
       }
 
+      if (scheduler != null) {
+        scheduler.start();
+      }
+
       if (maxExecutionTime > 0) {
         terminator = new TerminatorThread(maxExecutionTime, threads.keySet(), workload);
         terminator.start();
@@ -359,6 +399,12 @@ public final class Client {
       }
 
       en = System.currentTimeMillis();
+
+      if (scheduler != null) {
+        scheduler.finish();
+        System.err.println("Open loop: " + scheduler.getDropped() + " operations dropped, " +
+            scheduler.getLate() + " operations started late.");
+      }
     }
 
     try {
@@ -368,6 +414,10 @@ public final class Client {
           terminator.interrupt();
         }
 
+        if (pinningReport != null) {
+          pinningReport.run();
+        }
+
         if (status) {
           // wake up status thread if it's asleep
           statusthread.interrupt();
@@ -408,24 +458,26 @@ public final class Client {
 
     final List<ClientThread> clients = new ArrayList<>(threadcount);
     try (final TraceScope span = tracer.newScope(CLIENT_INIT_SPAN)) {
-      int opcount;
-      if (dotransactions) {
-        opcount = Integer.parseInt(props.getProperty(OPERATION_COUNT_PROPERTY, "0"));
-      } else {
-        if (props.containsKey(INSERT_COUNT_PROPERTY)) {
-          opcount = Integer.parseInt(props.getProperty(INSERT_COUNT_PROPERTY, "0"));
-        } else {
-          opcount = Integer.parseInt(props.getProperty(RECORD_COUNT_PROPERTY, DEFAULT_RECORD_COUNT));
-        }
-      }
+      int opcount = getOperationCount(props, dotransactions);
       if (threadcount > opcount && opcount > 0){
         threadcount = opcount;
         System.out.println("Warning: the threadcount is bigger than recordcount, the threadcount will be recordcount!");
       }
+      SharedDB[] shared = new SharedDB[useVirtualThreads(props)
+          && Boolean.parseBoolean(props.getProperty(VIRTUAL_THREADS_SHARE_DB_PROPERTY, "false"))
+          ? Math.min(threadcount, getCarrierCount()) : 0];
       for (int threadid = 0; threadid < threadcount; threadid++) {
         DB db;
         try {
-          db = DBFactory.newDB(dbname, props, tracer);
+          if (shared.length == 0) {
+            db = DBFactory.newDB(dbname, props, tracer);
+          } else {
+            if (shared[threadid % shared.length] == null) {
+              shared[threadid % shared.length] = new SharedDB(DBFactory.newDB(dbname, props, tracer));
+            }
+            shared[threadid % shared.length].addUser();
+            db = shared[threadid % shared.length];
+          }
         } catch (UnknownDBException e) {
           System.out.println("Unknown DB " + dbname);
           initFailed = true;
@@ -454,6 +506,256 @@ public final class Client {
     return clients;
   }
 
+  /**
+   * @return whether the client threads are virtual threads, warning when they cannot be.
+   */
+  private static boolean useVirtualThreads(Properties props) {
+    if (!Boolean.parseBoolean(props.getProperty(VIRTUAL_THREADS_PROPERTY, "false"))) {
+      return false;
+    }
+    if (!VirtualThreads.isSupported()) {
+      System.err.println("Warning: virtual threads need Java 21 or later, running platform threads.");
+      // only warn once
+      props.setProperty(VIRTUAL_THREADS_PROPERTY, "false");
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * @return the number of carrier threads running the virtual threads.
+   */
+  private static int getCarrierCount() {
+    return Integer.getInteger("jdk.virtualThreadScheduler.parallelism", Runtime.getRuntime().availableProcessors());
+  }
+
+  private static ThreadFactory getThreadFactory(Properties props) {
+    if (useVirtualThreads(props)) {
+      return VirtualThreads.newFactory("ClientThread-");
+    }
+    return Thread::new;
+  }
+
+  /**
+   * @return the action printing the pinning report at the end of the run, or null if the pinned
+   * threads are not monitored.
+   */
+  private static Runnable monitorPinning(Properties props) {
+    if (!Boolean.parseBoolean(props.getProperty(VIRTUAL_THREADS_PINNING_PROPERTY, "false"))
+        || !useVirtualThreads(props)) {
+      return null;
+    }
+    return VirtualThreads.monitorPinning(Long.parseLong(props.getProperty(
+        VIRTUAL_THREADS_PINNING_THRESHOLD_PROPERTY, VIRTUAL_THREADS_PINNING_THRESHOLD_PROPERTY_DEFAULT)));
+  }
+
+  /**
+   * @return the constant target of each client thread in operations per millisecond, or -1 if the
+   * client threads are not throttled by a constant target.
+   */
+  private static double getTargetPerThreadPerMs(Properties props, boolean openloop, TargetProfile profile,
+                                                int target, int threadcount) {
+    if (props.containsKey(ThroughputSearch.LATENCY_PROPERTY)) {
+      // each trial of the search has its own target, from which its operations are measured
+      if (!props.containsKey(Measurements.MEASUREMENT_INTERVAL)) {
+        props.setProperty(Measurements.MEASUREMENT_INTERVAL, "intended");
+      }
+    } else if (openloop) {
+      if (target <= 0 && profile == null) {
+        System.out.println("The open loop needs the \"" + TARGET_PROPERTY + "\" or \"" +
+            TargetProfile.TARGET_PROFILE_PROPERTY + "\" property.");
+        System.exit(0);
+      }
+      // the operations are measured from their arrival, the client threads being free running
+      if (!props.containsKey(Measurements.MEASUREMENT_INTERVAL)) {
+        props.setProperty(Measurements.MEASUREMENT_INTERVAL, "intended");
+      }
+    } else if (target > 0 && profile == null) {
+      double targetperthread = ((double) target) / ((double) threadcount);
+      return targetperthread / 1000.0;
+    }
+    return -1;
+  }
+
+  /**
+   * Search the highest throughput sustaining the latency objective instead of running the workload,
+   * export the result of the search and exit.
+   */
+  private static void searchThroughput(Properties props, Workload workload, Tracer tracer) {
+    ThroughputSearch search = new ThroughputSearch(props, Measurements.getMeasurements());
+    try (final TraceScope span = tracer.newScope(CLIENT_WORKLOAD_SPAN)) {
+      search.search(target -> runTrial(props, workload, tracer, target, search.getTrialTimeMs()));
+    }
+
+    try (final TraceScope span = tracer.newScope(CLIENT_CLEANUP_SPAN)) {
+      workload.cleanup();
+    } catch (WorkloadException e) {
+      e.printStackTrace();
+      e.printStackTrace(System.out);
+      System.exit(0);
+    }
+
+    try (final TraceScope span = tracer.newScope(CLIENT_EXPORT_MEASUREMENTS_SPAN)) {
+      MeasurementsExporter exporter = openExporter(props);
+      try {
+        search.exportMeasurements(exporter);
+      } finally {
+        exporter.close();
+      }
+    } catch (IOException e) {
+      System.err.println("Could not export measurements, error: " + e.getMessage());
+      e.printStackTrace();
+      System.exit(-1);
+    }
+    System.exit(0);
+  }
+
+  /**
+   * Run the workload at {@code target} for a trial of the throughput search, in client threads
+   * stopped at the end of the trial.
+   *
+   * @return the throughput of the trial in operations per second.
+   */
+  private static double runTrial(Properties props, Workload workload, Tracer tracer, double target,
+                                 long trialTimeMs) {
+    String dbname = props.getProperty(DB_PROPERTY, "site.ycsb.BasicDB");
+    int threadcount = Integer.parseInt(props.getProperty(THREAD_COUNT_PROPERTY, "1"));
+    boolean openloop = Boolean.parseBoolean(props.getProperty(OpenLoopScheduler.OPEN_LOOP_PROPERTY,
+        OpenLoopScheduler.OPEN_LOOP_PROPERTY_DEFAULT));
+    // the trials are bounded by their time rather than by the operation count
+    Properties trialProps = (Properties) props.clone();
+    trialProps.setProperty(OPERATION_COUNT_PROPERTY, "0");
+    Workload trialWorkload = new ThroughputSearch.TrialWorkload(workload);
+    CountDownLatch completeLatch = new CountDownLatch(threadcount);
+    double targetperthreadperms = target > 0 && !openloop ? target / threadcount / 1000.0 : -1;
+    List<ClientThread> clients = initDb(dbname, trialProps, threadcount, targetperthreadperms, trialWorkload,
+        tracer, completeLatch);
+    OpenLoopScheduler scheduler = target > 0 && openloop
+        ? initPacing(trialProps, true, TargetProfile.constant(target), 0, trialWorkload, clients)
+        : null;
+
+    ThreadFactory threadFactory = getThreadFactory(props);
+    List<Thread> threads = new ArrayList<>(clients.size());
+    for (ClientThread client : clients) {
+      threads.add(threadFactory.newThread(tracer.wrap(client, "ClientThread")));
+    }
+    long st = System.nanoTime();
+    for (Thread t : threads) {
+      t.start();
+    }
+    if (scheduler != null) {
+      scheduler.start();
+    }
+    try {
+      completeLatch.await(trialTimeMs, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException ignored) {
+      // ignored
+    }
+    trialWorkload.requestStop();
+    long en = System.nanoTime();
+
+    int opsDone = 0;
+    for (int i = 0; i < threads.size(); i++) {
+      try {
+        threads.get(i).join();
+      } catch (InterruptedException ignored) {
+        // ignored
+      }
+      opsDone += clients.get(i).getOpsDone();
+    }
+    if (scheduler != null) {
+      scheduler.finish();
+    }
+    return opsDone * (double) TimeUnit.SECONDS.toNanos(1) / (en - st);
+  }
+
+  /**
+   * @return the target profile of the run, or null if the target does not vary.
+   */
+  private static TargetProfile getTargetProfile(Properties props) {
+    String spec = props.getProperty(TargetProfile.TARGET_PROFILE_PROPERTY);
+    if (spec == null) {
+      return null;
+    }
+    try {
+      return TargetProfile.parse(spec);
+    } catch (IOException e) {
+      System.err.println("Could not read " + TargetProfile.TARGET_PROFILE_PROPERTY + "=" + spec + ": " +
+          e.getMessage());
+      System.exit(0);
+      return null;
+    }
+  }
+
+  /**
+   * Pace the client threads by the target profile, or feed them from an open loop scheduler.
+   *
+   * @return the scheduler of the open loop, or null.
+   */
+  private static OpenLoopScheduler initPacing(Properties props, boolean openloop, TargetProfile profile, int target,
+                                              Workload workload, List<ClientThread> clients) {
+    if (!openloop) {
+      for (ClientThread client : clients) {
+        client.setTargetProfile(profile);
+      }
+      return null;
+    }
+    boolean dotransactions = Boolean.valueOf(props.getProperty(DO_TRANSACTIONS_PROPERTY, String.valueOf(true)));
+    OpenLoopScheduler scheduler = new OpenLoopScheduler(props,
+        profile != null ? profile : TargetProfile.constant(target), getOperationCount(props, dotransactions),
+        workload);
+    for (ClientThread client : clients) {
+      client.setScheduler(scheduler);
+    }
+    return scheduler;
+  }
+
+  /**
+   * @return the number of operations of the run, or of the load when {@code dotransactions} is false.
+   */
+  private static int getOperationCount(Properties props, boolean dotransactions) {
+    if (dotransactions) {
+      return Integer.parseInt(props.getProperty(OPERATION_COUNT_PROPERTY, "0"));
+    }
+    if (props.containsKey(INSERT_COUNT_PROPERTY)) {
+      return Integer.parseInt(props.getProperty(INSERT_COUNT_PROPERTY, "0"));
+    }
+    return Integer.parseInt(props.getProperty(RECORD_COUNT_PROPERTY, DEFAULT_RECORD_COUNT));
+  }
+
+  /**
+   * Expose the measurements while running, until the process exits.
+   */
+  private static void startMetricsServer(Properties props, List<ClientThread> clients) {
+    if (!props.containsKey(MetricsServer.PORT_PROPERTY)) {
+      return;
+    }
+    try {
+      MetricsServer server = new MetricsServer(props, Measurements.getMeasurements(), clients);
+      server.start();
+      System.err.println("Exposing metrics at port " + server.getPort() + ", path /metrics");
+    } catch (IOException e) {
+      System.err.println("Could not start the metrics server, error: " + e.getMessage());
+      e.printStackTrace();
+      System.exit(0);
+    }
+  }
+
+  private static void startStatusThread(Properties props, CountDownLatch completeLatch, List<ClientThread> clients,
+                                        String label, TargetProfile profile) {
+    boolean standardstatus = false;
+    if (props.getProperty(Measurements.MEASUREMENT_TYPE_PROPERTY, "").compareTo("timeseries") == 0) {
+      standardstatus = true;
+    }
+    int statusIntervalSeconds = Integer.parseInt(props.getProperty("status.interval", "10"));
+    boolean trackJVMStats = props.getProperty(Measurements.MEASUREMENT_TRACK_JVM_PROPERTY,
+        Measurements.MEASUREMENT_TRACK_JVM_PROPERTY_DEFAULT).equals("true");
+    statusthread = new StatusThread(completeLatch, clients, label, standardstatus, statusIntervalSeconds,
+        trackJVMStats);
+    statusthread.setTargetProfile(profile);
+    statusthread.start();
+  }
+
   private static Tracer getTracer(Properties props, Workload workload) {
     return new Tracer.Builder("YCSB " + workload.getClass().getSimpleName())
         .conf(getHTraceConfiguration(props))
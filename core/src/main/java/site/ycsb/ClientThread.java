@@ -19,14 +19,28 @@ package site.ycsb;
 
 import site.ycsb.measurements.Measurements;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.LockSupport;
 
 /**
  * A thread for executing transactions or data inserts to the database.
  */
 public class ClientThread implements Runnable {
+  /**
+   * The number of operations a thread keeps in flight. Above 1 the operations are issued through
+   * the asynchronous DB API, see {@link AsyncDB}; synchronous bindings still do one at a time.
+   */
+  public static final String OUTSTANDING_OPS_PROPERTY = "outstandingops";
+  public static final String OUTSTANDING_OPS_PROPERTY_DEFAULT = "1";
+
+  private static final long MAX_SLEEP_NS = TimeUnit.MILLISECONDS.toNanos(100);
+
   // Counts down each of the clients completing.
   private final CountDownLatch completeLatch;
 
@@ -37,12 +51,16 @@ public class ClientThread implements Runnable {
   private int opcount;
   private double targetOpsPerMs;
 
-  private int opsdone;
+  private final int outstandingOps;
+  private final AtomicInteger opsdone = new AtomicInteger();
   private int threadid;
   private int threadcount;
   private Object workloadstate;
   private Properties props;
   private long targetOpsTickNs;
+  private OpenLoopScheduler scheduler;
+  private TargetProfile targetProfile;
+  private long lastArrivalNs;
   private final Measurements measurements;
 
   /**
@@ -62,7 +80,6 @@ public class ClientThread implements Runnable {
     this.dotransactions = dotransactions;
     this.workload = workload;
     this.opcount = opcount;
-    opsdone = 0;
     if (targetperthreadperms > 0) {
       targetOpsPerMs = targetperthreadperms;
       targetOpsTickNs = (long) (1000000 / targetOpsPerMs);
@@ -70,6 +87,7 @@ public class ClientThread implements Runnable {
     this.props = props;
     measurements = Measurements.getMeasurements();
     spinSleep = Boolean.valueOf(this.props.getProperty("spin.sleep", "false"));
+    outstandingOps = Integer.parseInt(props.getProperty(OUTSTANDING_OPS_PROPERTY, OUTSTANDING_OPS_PROPERTY_DEFAULT));
     this.completeLatch = completeLatch;
   }
 
@@ -81,8 +99,24 @@ public class ClientThread implements Runnable {
     threadcount = threadCount;
   }
 
+  /**
+   * Run the operations at the arrivals of {@code openLoopScheduler} instead of pacing them in this
+   * thread, the operation count then being the one of the scheduler.
+   */
+  public void setScheduler(final OpenLoopScheduler openLoopScheduler) {
+    scheduler = openLoopScheduler;
+  }
+
+  /**
+   * Pace the operations by {@code profile} instead of a constant target, this thread taking one
+   * in threadcount of its operations.
+   */
+  public void setTargetProfile(final TargetProfile profile) {
+    targetProfile = profile;
+  }
+
   public int getOpsDone() {
-    return opsdone;
+    return opsdone.get();
   }
 
   @Override
@@ -114,31 +148,35 @@ public class ClientThread implements Runnable {
       sleepUntil(System.nanoTime() + randomMinorDelay);
     }
     try {
-      if (dotransactions) {
-        long startTimeNanos = System.nanoTime();
+      long startTimeNanos = System.nanoTime();
+      if (targetProfile != null) {
+        // interleave the arrivals of the threads
+        lastArrivalNs = targetProfile.advanceNs(startTimeNanos, startTimeNanos, threadid);
+        sleepUntil(lastArrivalNs);
+        measurements.setIntendedStartTimeNs(lastArrivalNs);
+      }
 
-        while (((opcount == 0) || (opsdone < opcount)) && !workload.isStopRequested()) {
+      if (outstandingOps > 1) {
+        runOutstanding(startTimeNanos);
+      } else if (scheduler != null) {
+        runOpenLoop();
+      } else if (dotransactions) {
+        while (((opcount == 0) || (opsdone.get() < opcount)) && !workload.isStopRequested()) {
 
           if (!workload.doTransaction(db, workloadstate)) {
             break;
           }
 
-          opsdone++;
-
-          throttleNanos(startTimeNanos);
+          throttleNanos(startTimeNanos, opsdone.incrementAndGet());
         }
       } else {
-        long startTimeNanos = System.nanoTime();
-
-        while (((opcount == 0) || (opsdone < opcount)) && !workload.isStopRequested()) {
+        while (((opcount == 0) || (opsdone.get() < opcount)) && !workload.isStopRequested()) {
 
           if (!workload.doInsert(db, workloadstate)) {
             break;
           }
 
-          opsdone++;
-
-          throttleNanos(startTimeNanos);
+          throttleNanos(startTimeNanos, opsdone.incrementAndGet());
         }
       }
     } catch (Exception e) {
@@ -158,19 +196,97 @@ public class ClientThread implements Runnable {
     }
   }
 
-  private static void sleepUntil(long deadline) {
-    while (System.nanoTime() < deadline) {
+  private void sleepUntil(long deadline) {
+    // wake up regularly to stop during the long pauses of a target profile
+    while (System.nanoTime() < deadline && !workload.isStopRequested()) {
       if (!spinSleep) {
-        LockSupport.parkNanos(deadline - System.nanoTime());
+        LockSupport.parkNanos(Math.min(deadline - System.nanoTime(), MAX_SLEEP_NS));
       }
     }
   }
 
-  private void throttleNanos(long startTimeNanos) {
+  /**
+   * Run each operation emitted by the scheduler, measuring it from its arrival.
+   */
+  private void runOpenLoop() throws InterruptedException {
+    while (!workload.isStopRequested()) {
+      long arrival = scheduler.nextArrival();
+      if (arrival == OpenLoopScheduler.NO_MORE_OPERATIONS) {
+        break;
+      }
+      measurements.setIntendedStartTimeNs(arrival);
+
+      boolean more = dotransactions
+          ? workload.doTransaction(db, workloadstate)
+          : workload.doInsert(db, workloadstate);
+      if (!more) {
+        scheduler.finish();
+        break;
+      }
+
+      opsdone.incrementAndGet();
+    }
+  }
+
+  /**
+   * Issue the operations through the asynchronous API, keeping up to outstandingOps of them in
+   * flight. The throttling or the open loop scheduler paces the issuing of the operations, and the
+   * thread stops issuing as soon as one of them reports the workload is done or fails.
+   */
+  private void runOutstanding(long startTimeNanos) throws InterruptedException {
+    AsyncDB asyncDb = AsyncDB.wrap(db);
+    Semaphore inflight = new Semaphore(outstandingOps);
+    AtomicBoolean done = new AtomicBoolean(false);
+    int opsissued = 0;
+
+    while ((scheduler != null || opcount == 0 || opsissued < opcount) && !workload.isStopRequested()
+        && !done.get()) {
+      inflight.acquire();
+      if (scheduler != null) {
+        long arrival = scheduler.nextArrival();
+        if (arrival == OpenLoopScheduler.NO_MORE_OPERATIONS) {
+          inflight.release();
+          break;
+        }
+        measurements.setIntendedStartTimeNs(arrival);
+      }
+      CompletableFuture<Boolean> op = dotransactions
+          ? workload.doTransactionAsync(asyncDb, workloadstate)
+          : workload.doInsertAsync(asyncDb, workloadstate);
+      op.whenComplete((more, error) -> completed(more, error, done, inflight));
+
+      throttleNanos(startTimeNanos, ++opsissued);
+    }
+
+    // wait for the operations still in flight
+    inflight.acquire(outstandingOps);
+    if (done.get() && scheduler != null) {
+      scheduler.finish();
+    }
+  }
+
+  private void completed(Boolean more, Throwable error, AtomicBoolean done, Semaphore inflight) {
+    if (error != null) {
+      error.printStackTrace();
+      error.printStackTrace(System.out);
+      done.set(true);
+    } else if (!more) {
+      done.set(true);
+    } else {
+      opsdone.incrementAndGet();
+    }
+    inflight.release();
+  }
+
+  private void throttleNanos(long startTimeNanos, int opsissued) {
     //throttle the operations
-    if (targetOpsPerMs > 0) {
+    if (targetProfile != null) {
+      lastArrivalNs = targetProfile.advanceNs(startTimeNanos, lastArrivalNs, Math.max(1, threadcount));
+      sleepUntil(lastArrivalNs);
+      measurements.setIntendedStartTimeNs(lastArrivalNs);
+    } else if (targetOpsPerMs > 0) {
       // delay until next tick
-      long deadline = startTimeNanos + opsdone * targetOpsTickNs;
+      long deadline = startTimeNanos + opsissued * targetOpsTickNs;
       sleepUntil(deadline);
       measurements.setIntendedStartTimeNs(deadline);
     }
@@ -180,7 +296,7 @@ public class ClientThread implements Runnable {
    * The total amount of work this thread is still expected to do.
    */
   int getOpsTodo() {
-    int todo = opcount - opsdone;
+    int todo = opcount - opsdone.get();
     return todo < 0 ? 0 : todo;
   }
 }
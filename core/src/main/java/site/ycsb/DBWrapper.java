@@ -20,18 +20,29 @@ package site.ycsb;
 import java.util.Map;
 
 import site.ycsb.measurements.Measurements;
+import site.ycsb.measurements.OperationRecorder;
 import org.apache.htrace.core.TraceScope;
 import org.apache.htrace.core.Tracer;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Wrapper around a "real" DB that measures latencies and counts return codes.
  * Also reports latency separately between OK and failed operations.
+ *
+ * The asynchronous operations are measured when their future completes, from the time they were
+ * issued. Synchronous DBs are run through an {@link AsyncDBAdapter} for them.
+ *
+ * The measurements of each operation are resolved once per instance, see
+ * {@link Measurements#newOperationRecorder(String)}, as an instance serves one client thread, or the
+ * few sharing a {@link SharedDB}.
  */
-public class DBWrapper extends DB {
+public class DBWrapper extends AsyncDB {
   private final DB db;
+  private final AsyncDB asyncDb;
   private final Measurements measurements;
   private final Tracer tracer;
 
@@ -45,6 +56,13 @@ public class DBWrapper extends DB {
 
   private static final AtomicBoolean LOG_REPORT_CONFIG = new AtomicBoolean(false);
 
+  private final OpRecorders cleanupRecorders;
+  private final OpRecorders deleteRecorders;
+  private final OpRecorders insertRecorders;
+  private final OpRecorders readRecorders;
+  private final OpRecorders scanRecorders;
+  private final OpRecorders updateRecorders;
+
   private final String scopeStringCleanup;
   private final String scopeStringDelete;
   private final String scopeStringInit;
@@ -55,8 +73,15 @@ public class DBWrapper extends DB {
 
   public DBWrapper(final DB db, final Tracer tracer) {
     this.db = db;
+    asyncDb = AsyncDB.wrap(db);
     measurements = Measurements.getMeasurements();
     this.tracer = tracer;
+    cleanupRecorders = new OpRecorders("CLEANUP");
+    deleteRecorders = new OpRecorders("DELETE");
+    insertRecorders = new OpRecorders("INSERT");
+    readRecorders = new OpRecorders("READ");
+    scanRecorders = new OpRecorders("SCAN");
+    updateRecorders = new OpRecorders("UPDATE");
     final String simple = db.getClass().getSimpleName();
     scopeStringCleanup = simple + "#cleanup";
     scopeStringDelete = simple + "#delete";
@@ -119,7 +144,7 @@ public class DBWrapper extends DB {
       long st = System.nanoTime();
       db.cleanup();
       long en = System.nanoTime();
-      measure("CLEANUP", Status.OK, ist, st, en);
+      measure(cleanupRecorders, Status.OK, ist, st, en);
     }
   }
 
@@ -140,8 +165,8 @@ public class DBWrapper extends DB {
       long st = System.nanoTime();
       Status res = db.read(table, key, fields, result);
       long en = System.nanoTime();
-      measure("READ", res, ist, st, en);
-      measurements.reportStatus("READ", res);
+      measure(readRecorders, res, ist, st, en);
+      readRecorders.reportStatus(res);
       return res;
     }
   }
@@ -164,27 +189,124 @@ public class DBWrapper extends DB {
       long st = System.nanoTime();
       Status res = db.scan(table, startkey, recordcount, fields, result);
       long en = System.nanoTime();
-      measure("SCAN", res, ist, st, en);
-      measurements.reportStatus("SCAN", res);
+      measure(scanRecorders, res, ist, st, en);
+      scanRecorders.reportStatus(res);
       return res;
     }
   }
 
-  private void measure(String op, Status result, long intendedStartTimeNanos,
+  /**
+   * Asynchronous version of {@link #read(String, String, Set, Map)}.
+   */
+  public CompletableFuture<Status> readAsync(String table, String key, Set<String> fields,
+                                             Map<String, ByteIterator> result) {
+    try (final TraceScope span = tracer.newScope(scopeStringRead)) {
+      long ist = measurements.getIntendedStartTimeNs();
+      long st = System.nanoTime();
+      return measureOnCompletion(readRecorders, asyncDb.readAsync(table, key, fields, result), ist, st);
+    }
+  }
+
+  /**
+   * Asynchronous version of {@link #scan(String, String, int, Set, Vector)}.
+   */
+  public CompletableFuture<Status> scanAsync(String table, String startkey, int recordcount,
+                                             Set<String> fields, Vector<HashMap<String, ByteIterator>> result) {
+    try (final TraceScope span = tracer.newScope(scopeStringScan)) {
+      long ist = measurements.getIntendedStartTimeNs();
+      long st = System.nanoTime();
+      return measureOnCompletion(scanRecorders, asyncDb.scanAsync(table, startkey, recordcount, fields, result),
+          ist, st);
+    }
+  }
+
+  /**
+   * Asynchronous version of {@link #update(String, String, Map)}.
+   */
+  public CompletableFuture<Status> updateAsync(String table, String key, Map<String, ByteIterator> values) {
+    try (final TraceScope span = tracer.newScope(scopeStringUpdate)) {
+      long ist = measurements.getIntendedStartTimeNs();
+      long st = System.nanoTime();
+      return measureOnCompletion(updateRecorders, asyncDb.updateAsync(table, key, values), ist, st);
+    }
+  }
+
+  /**
+   * Asynchronous version of {@link #insert(String, String, Map)}.
+   */
+  public CompletableFuture<Status> insertAsync(String table, String key, Map<String, ByteIterator> values) {
+    try (final TraceScope span = tracer.newScope(scopeStringInsert)) {
+      long ist = measurements.getIntendedStartTimeNs();
+      long st = System.nanoTime();
+      return measureOnCompletion(insertRecorders, asyncDb.insertAsync(table, key, values), ist, st);
+    }
+  }
+
+  /**
+   * Asynchronous version of {@link #delete(String, String)}.
+   */
+  public CompletableFuture<Status> deleteAsync(String table, String key) {
+    try (final TraceScope span = tracer.newScope(scopeStringDelete)) {
+      long ist = measurements.getIntendedStartTimeNs();
+      long st = System.nanoTime();
+      return measureOnCompletion(deleteRecorders, asyncDb.deleteAsync(table, key), ist, st);
+    }
+  }
+
+  /**
+   * Measure and count the result of {@code future} once it completes, an exceptional completion
+   * being turned into {@link Status#ERROR}.
+   */
+  private CompletableFuture<Status> measureOnCompletion(OpRecorders op, CompletableFuture<Status> future,
+                                                        long intendedStartTimeNanos, long startTimeNanos) {
+    return future.handle((res, error) -> completed(op, res, error, intendedStartTimeNanos, startTimeNanos));
+  }
+
+  private Status completed(OpRecorders op, Status res, Throwable error, long intendedStartTimeNanos,
+                           long startTimeNanos) {
+    long en = System.nanoTime();
+    Status status = error != null || res == null ? Status.ERROR : res;
+    measure(op, status, intendedStartTimeNanos, startTimeNanos, en);
+    op.reportStatus(status);
+    return status;
+  }
+
+  private void measure(OpRecorders op, Status result, long intendedStartTimeNanos,
                        long startTimeNanos, long endTimeNanos) {
-    String measurementName = op;
-    if (result == null || !result.isOk()) {
-      if (this.reportLatencyForEachError ||
-          this.latencyTrackedErrors.contains(result.getName())) {
-        measurementName = op + "-" + result.getName();
-      } else {
-        measurementName = op + "-FAILED";
+    OperationRecorder recorder = op.forResult(result);
+    recorder.measure((int) ((endTimeNanos - startTimeNanos) / 1000));
+    recorder.measureIntended((int) ((endTimeNanos - intendedStartTimeNanos) / 1000));
+  }
+
+  /**
+   * The recorders of an operation, resolved once per DB instance rather than at each operation.
+   */
+  private final class OpRecorders {
+    private final String op;
+    private final OperationRecorder ok;
+    private final OperationRecorder failed;
+    // the errors whose latency is reported separately, by name
+    private final Map<String, OperationRecorder> errors = new ConcurrentHashMap<>();
+
+    private OpRecorders(String op) {
+      this.op = op;
+      ok = measurements.newOperationRecorder(op);
+      failed = measurements.newOperationRecorder(op + "-FAILED");
+    }
+
+    private OperationRecorder forResult(Status result) {
+      if (result != null && result.isOk()) {
+        return ok;
       }
+      if (result != null && (reportLatencyForEachError || latencyTrackedErrors.contains(result.getName()))) {
+        return errors.computeIfAbsent(result.getName(), name -> measurements.newOperationRecorder(op + "-" + name));
+      }
+      return failed;
+    }
+
+    private void reportStatus(Status status) {
+      ok.reportStatus(status);
     }
-    measurements.measure(measurementName,
-        (int) ((endTimeNanos - startTimeNanos) / 1000));
-    measurements.measureIntended(measurementName,
-        (int) ((endTimeNanos - intendedStartTimeNanos) / 1000));
   }
 
   /**
@@ -203,8 +325,8 @@ public class DBWrapper extends DB {
       long st = System.nanoTime();
       Status res = db.update(table, key, values);
       long en = System.nanoTime();
-      measure("UPDATE", res, ist, st, en);
-      measurements.reportStatus("UPDATE", res);
+      measure(updateRecorders, res, ist, st, en);
+      updateRecorders.reportStatus(res);
       return res;
     }
   }
@@ -226,8 +348,8 @@ public class DBWrapper extends DB {
       long st = System.nanoTime();
       Status res = db.insert(table, key, values);
       long en = System.nanoTime();
-      measure("INSERT", res, ist, st, en);
-      measurements.reportStatus("INSERT", res);
+      measure(insertRecorders, res, ist, st, en);
+      insertRecorders.reportStatus(res);
       return res;
     }
   }
@@ -245,8 +367,8 @@ public class DBWrapper extends DB {
       long st = System.nanoTime();
       Status res = db.delete(table, key);
       long en = System.nanoTime();
-      measure("DELETE", res, ist, st, en);
-      measurements.reportStatus("DELETE", res);
+      measure(deleteRecorders, res, ist, st, en);
+      deleteRecorders.reportStatus(res);
       return res;
     }
   }
@@ -0,0 +1,307 @@
+/**
+ * Copyright (c) 2023 YCSB contributors. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb;
+
+import org.HdrHistogram.Histogram;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jackson.map.ObjectMapper;
+import site.ycsb.measurements.HistogramLog;
+import site.ycsb.measurements.OneMeasurementHdrHistogram;
+import site.ycsb.measurements.exporter.MeasurementsExporter;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.BinaryOperator;
+
+/**
+ * Merge the measurements of the clients of a distributed run into the ones of the whole cluster.
+ * The percentiles of the cluster are computed from the merged histograms of the clients, rather
+ * than averaged from their summaries.
+ *
+ * Usage: java -cp ycsb-core.jar site.ycsb.HistogramLogMerger [-p name=value]... FILE...
+ *
+ * The files are the logs the clients write with "hdrhistogram.fileoutput", one per operation of
+ * each client, and optionally the results the clients export with a JSON exporter. The logs of an
+ * operation are merged into windows of "status.interval" seconds, aligned on the clock since the
+ * clients start at different times, and into the total of the run. The summary of the cluster is
+ * exported like the one of a client, with the "hdrhistogram.percentiles" of each operation, by
+ * "exporter" to "exportfile". The JSON results add the return codes of each operation, the longest
+ * run time and the sum of the throughputs of the clients; their other values cannot be merged.
+ * When "hdrhistogram.fileoutput" is set, the windows are also logged to
+ * "[hdrhistogram.output.path]OPERATION.hdr".
+ */
+public final class HistogramLogMerger {
+  private static final String OVERALL = "OVERALL";
+  private static final String RUN_TIME = "RunTime(ms)";
+  private static final String THROUGHPUT = "Throughput(ops/sec)";
+  private static final String OPERATIONS = "Operations";
+  private static final String RETURN = "Return=";
+
+  private final long windowMs;
+  private final List<Double> percentiles;
+  private final String outputPath;
+  // the logs of each operation, in the order found
+  private final Map<String, List<String>> logs = new LinkedHashMap<>();
+  // the values of the JSON results which can be merged, by metric then measurement
+  private final Map<String, Map<String, Number>> results = new LinkedHashMap<>();
+
+  HistogramLogMerger(Properties props) {
+    windowMs = 1000L * Integer.parseInt(props.getProperty("status.interval", "10"));
+    percentiles = OneMeasurementHdrHistogram.getPercentileValues(props.getProperty(
+        OneMeasurementHdrHistogram.PERCENTILES_PROPERTY, OneMeasurementHdrHistogram.PERCENTILES_PROPERTY_DEFAULT));
+    outputPath = Boolean.parseBoolean(props.getProperty("hdrhistogram.fileoutput", "false")) ?
+        props.getProperty("hdrhistogram.output.path", "") :
+        null;
+  }
+
+  /**
+   * Add the histogram log or the JSON results of a client.
+   */
+  void add(String file) throws IOException {
+    if (isJSON(file)) {
+      addResults(file);
+      return;
+    }
+    String name;
+    try (HistogramLog.Reader reader = new HistogramLog.Reader(file)) {
+      name = reader.getName();
+    }
+    if (name == null) {
+      name = new File(file).getName().replaceFirst("\\.hdr$", "");
+    }
+    logs.computeIfAbsent(name, n -> new ArrayList<>()).add(file);
+  }
+
+  private static boolean isJSON(String file) throws IOException {
+    try (Reader in = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+      int c = in.read();
+      while (c >= 0 && Character.isWhitespace(c)) {
+        c = in.read();
+      }
+      return c == '{' || c == '[';
+    }
+  }
+
+  /**
+   * Add the results of a JSON exporter, a sequence of rows or an array of them.
+   */
+  private void addResults(String file) throws IOException {
+    ObjectMapper mapper = new ObjectMapper();
+    try (JsonParser parser = mapper.getJsonFactory().createJsonParser(new File(file))) {
+      JsonToken token = parser.nextToken();
+      if (token == JsonToken.START_ARRAY) {
+        token = parser.nextToken();
+      }
+      while (token == JsonToken.START_OBJECT) {
+        JsonNode row = mapper.readTree(parser);
+        addResult(row.get("metric").getTextValue(), row.get("measurement").getTextValue(), row.get("value"));
+        token = parser.nextToken();
+      }
+    }
+  }
+
+  private void addResult(String metric, String measurement, JsonNode value) {
+    BinaryOperator<Number> merge;
+    if (OVERALL.equals(metric) && RUN_TIME.equals(measurement)) {
+      merge = HistogramLogMerger::max;
+    } else if ((OVERALL.equals(metric) && THROUGHPUT.equals(measurement)) || OPERATIONS.equals(measurement)
+        || measurement.startsWith(RETURN)) {
+      merge = HistogramLogMerger::sum;
+    } else {
+      return;
+    }
+    Number number = value.isIntegralNumber() ? (Number) value.getLongValue() : (Number) value.getDoubleValue();
+    results.computeIfAbsent(metric, m -> new LinkedHashMap<>()).merge(measurement, number, merge);
+  }
+
+  private static Number sum(Number a, Number b) {
+    if (a instanceof Long && b instanceof Long) {
+      return a.longValue() + b.longValue();
+    }
+    return a.doubleValue() + b.doubleValue();
+  }
+
+  private static Number max(Number a, Number b) {
+    return a.doubleValue() >= b.doubleValue() ? a : b;
+  }
+
+  /**
+   * Export the merged measurements of the cluster.
+   */
+  void export(MeasurementsExporter exporter) throws IOException {
+    for (Map.Entry<String, Number> entry : results.getOrDefault(OVERALL, Collections.emptyMap()).entrySet()) {
+      write(exporter, OVERALL, entry.getKey(), entry.getValue());
+    }
+    Set<String> names = new LinkedHashSet<>(logs.keySet());
+    names.addAll(results.keySet());
+    names.remove(OVERALL);
+    for (String name : names) {
+      Map<String, Number> rows = results.getOrDefault(name, Collections.emptyMap());
+      if (logs.containsKey(name)) {
+        exportHistogram(exporter, name, merge(name, logs.get(name)));
+      } else if (rows.containsKey(OPERATIONS)) {
+        write(exporter, name, OPERATIONS, rows.get(OPERATIONS));
+      }
+      for (Map.Entry<String, Number> entry : rows.entrySet()) {
+        if (entry.getKey().startsWith(RETURN)) {
+          write(exporter, name, entry.getKey(), entry.getValue());
+        }
+      }
+    }
+  }
+
+  private static void write(MeasurementsExporter exporter, String metric, String measurement, Number value)
+      throws IOException {
+    if (value instanceof Long) {
+      exporter.write(metric, measurement, value.longValue());
+    } else {
+      exporter.write(metric, measurement, value.doubleValue());
+    }
+  }
+
+  private void exportHistogram(MeasurementsExporter exporter, String name, Histogram total) throws IOException {
+    exporter.write(name, OPERATIONS, total.getTotalCount());
+    exporter.write(name, "AverageLatency(us)", total.getMean());
+    exporter.write(name, "MinLatency(us)", total.getMinValue());
+    exporter.write(name, "MaxLatency(us)", total.getMaxValue());
+    for (Double percentile : percentiles) {
+      exporter.write(name, OneMeasurementHdrHistogram.ordinal(percentile) + "PercentileLatency(us)",
+          total.getValueAtPercentile(percentile));
+    }
+  }
+
+  /**
+   * Merge the logs of an operation window by window, reading each log once and in step, so that
+   * only one interval of each log is in memory.
+   *
+   * @return the total of the logs.
+   */
+  private Histogram merge(String name, List<String> files) throws IOException {
+    List<HistogramLog.Reader> readers = new ArrayList<>();
+    Histogram[] next = new Histogram[files.size()];
+    Histogram total = new Histogram(3);
+    Histogram window = new Histogram(3);
+    HistogramLog output = null;
+    try {
+      for (int i = 0; i < next.length; i++) {
+        readers.add(new HistogramLog.Reader(files.get(i)));
+        next[i] = readers.get(i).next();
+      }
+      for (long start = firstWindow(next); start != Long.MAX_VALUE; start = firstWindow(next)) {
+        window.reset();
+        for (int i = 0; i < next.length; i++) {
+          while (next[i] != null && windowOf(next[i]) == start) {
+            window.add(next[i]);
+            next[i] = readers.get(i).next();
+          }
+        }
+        window.setStartTimeStamp(start);
+        window.setEndTimeStamp(start + windowMs);
+        total.add(window);
+        if (output == null && outputPath != null) {
+          output = new HistogramLog(outputPath + name + ".hdr", name, start);
+        }
+        if (output != null) {
+          output.write(window);
+        }
+      }
+    } finally {
+      for (HistogramLog.Reader reader : readers) {
+        reader.close();
+      }
+      if (output != null) {
+        output.close();
+      }
+    }
+    return total;
+  }
+
+  private long windowOf(Histogram interval) {
+    return interval.getStartTimeStamp() / windowMs * windowMs;
+  }
+
+  private long firstWindow(Histogram[] intervals) {
+    long first = Long.MAX_VALUE;
+    for (Histogram interval : intervals) {
+      if (interval != null) {
+        first = Math.min(first, windowOf(interval));
+      }
+    }
+    return first;
+  }
+
+  private static void usageMessage() {
+    System.err.println("Usage: java site.ycsb.HistogramLogMerger [-p name=value]... FILE...");
+    System.err.println("  FILE: a histogram log written with hdrhistogram.fileoutput, or JSON exporter results");
+    System.err.println("  -p status.interval=10: the seconds of the merged intervals");
+    System.err.println("  -p hdrhistogram.fileoutput=true: also log the merged intervals,");
+    System.err.println("     to [hdrhistogram.output.path]OPERATION.hdr");
+    System.err.println("  -p hdrhistogram.percentiles, exporter, exportfile: like for the client");
+  }
+
+  public static void main(String[] args) {
+    Properties props = new Properties();
+    List<String> files = new ArrayList<>();
+    for (int i = 0; i < args.length; i++) {
+      if (!"-p".equals(args[i])) {
+        files.add(args[i]);
+      } else if (i + 1 < args.length && args[i + 1].contains("=")) {
+        String[] property = args[++i].split("=", 2);
+        props.setProperty(property[0], property[1]);
+      } else {
+        usageMessage();
+        System.exit(1);
+      }
+    }
+    if (files.isEmpty()) {
+      usageMessage();
+      System.exit(1);
+    }
+
+    HistogramLogMerger merger = new HistogramLogMerger(props);
+    try {
+      for (String file : files) {
+        merger.add(file);
+      }
+      MeasurementsExporter exporter = Client.openExporter(props);
+      try {
+        merger.export(exporter);
+      } finally {
+        exporter.close();
+      }
+    } catch (IOException e) {
+      System.err.println("Could not merge the measurements, error: " + e.getMessage());
+      e.printStackTrace();
+      System.exit(1);
+    }
+  }
+}
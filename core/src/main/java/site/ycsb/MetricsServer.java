@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) 2023 YCSB contributors. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import site.ycsb.measurements.LatencySnapshot;
+import site.ycsb.measurements.Measurements;
+import site.ycsb.measurements.OneMeasurement;
+import site.ycsb.measurements.OneMeasurementHdrHistogram;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * An HTTP endpoint exposing the progress of the run at "/metrics" in the OpenMetrics text format,
+ * for Prometheus to scrape. It is started when "metrics.port" is set.
+ *
+ * The latency quantiles are the ones of the last status interval, which the HdrHistogram
+ * measurements publish when the status thread takes the interval. A scrape reads these and the
+ * counters of the measurements only, so it never holds up the client threads recording.
+ */
+public class MetricsServer {
+  /**
+   * The port to listen on, which enables the endpoint.
+   */
+  public static final String PORT_PROPERTY = "metrics.port";
+
+  /**
+   * The address to listen on, all of them by default.
+   */
+  public static final String HOST_PROPERTY = "metrics.host";
+
+  /**
+   * The latency percentiles exposed for each operation.
+   */
+  public static final String PERCENTILES_PROPERTY = "metrics.percentiles";
+  public static final String PERCENTILES_PROPERTY_DEFAULT = "50,90,99,99.9";
+
+  static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+  // measured by the status thread, exposed as JVM metrics rather than as operations
+  private static final Set<String> JVM_MEASUREMENTS = new HashSet<>(Arrays.asList(
+      "THREAD_COUNT", "USED_MEM_MB", "SYS_LOAD_AVG", "GCS", "GCS_TIME"));
+
+  private final HttpServer server;
+  private final Measurements measurements;
+  private final List<ClientThread> clients;
+  private final List<Double> percentiles;
+
+  public MetricsServer(Properties props, Measurements measurements, List<ClientThread> clients)
+      throws IOException {
+    int port = Integer.parseInt(props.getProperty(PORT_PROPERTY));
+    String host = props.getProperty(HOST_PROPERTY);
+    server = HttpServer.create(host == null ? new InetSocketAddress(port) : new InetSocketAddress(host, port), 0);
+    server.createContext("/metrics", this::handle);
+    this.measurements = measurements;
+    this.clients = clients;
+    percentiles = OneMeasurementHdrHistogram.getPercentileValues(
+        props.getProperty(PERCENTILES_PROPERTY, PERCENTILES_PROPERTY_DEFAULT));
+  }
+
+  public void start() {
+    server.start();
+  }
+
+  public void stop() {
+    server.stop(0);
+  }
+
+  /**
+   * @return the port listened on, chosen by the system when "metrics.port" is 0.
+   */
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+    exchange.sendResponseHeaders(200, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  /**
+   * @return the metrics, in the OpenMetrics text format.
+   */
+  String scrape() {
+    StringBuilder out = new StringBuilder();
+    List<OneMeasurement> operations = measurements.getAllMeasurements();
+    operations.removeIf(m -> JVM_MEASUREMENTS.contains(m.getName()));
+
+    long opsDone = 0;
+    for (ClientThread client : clients) {
+      opsDone += client.getOpsDone();
+    }
+    family(out, "ycsb_operations", "counter", null, "The operations done by the client threads.");
+    out.append("ycsb_operations_total ").append(opsDone).append('\n');
+
+    family(out, "ycsb_operation_latency_seconds", "summary", "seconds",
+        "The latency of the operations, with the quantiles of the last status interval.");
+    for (OneMeasurement measurement : operations) {
+      writeLatency(out, measurement);
+    }
+
+    family(out, "ycsb_operation_results", "counter", null, "The operations by return code.");
+    for (OneMeasurement measurement : operations) {
+      for (Map.Entry<Status, Long> entry : measurement.getStatusCounts().entrySet()) {
+        out.append("ycsb_operation_results_total{operation=\"").append(escape(measurement.getName()))
+            .append("\",status=\"").append(escape(entry.getKey().getName())).append("\"} ")
+            .append(entry.getValue()).append('\n');
+      }
+    }
+
+    writeJVM(out);
+    out.append("# EOF\n");
+    return out.toString();
+  }
+
+  private void writeLatency(StringBuilder out, OneMeasurement measurement) {
+    LatencySnapshot snapshot = measurement.getLatencySnapshot();
+    if (snapshot == null) {
+      return;
+    }
+    String operation = "operation=\"" + escape(measurement.getName()) + "\"";
+    for (Double percentile : percentiles) {
+      double value = snapshot.getIntervalOperations() == 0 ?
+          Double.NaN :
+          snapshot.getIntervalPercentile(percentile) / 1e6;
+      String quantile = BigDecimal.valueOf(percentile).movePointLeft(2).stripTrailingZeros().toPlainString();
+      out.append("ycsb_operation_latency_seconds{").append(operation).append(",quantile=\"").append(quantile)
+          .append("\"} ").append(value).append('\n');
+    }
+    out.append("ycsb_operation_latency_seconds_count{").append(operation).append("} ")
+        .append(snapshot.getOperations()).append('\n');
+    out.append("ycsb_operation_latency_seconds_sum{").append(operation).append("} ")
+        .append(snapshot.getTotalLatency() / 1e6).append('\n');
+  }
+
+  /**
+   * Write the JVM statistics the status thread tracks.
+   */
+  private static void writeJVM(StringBuilder out) {
+    family(out, "ycsb_jvm_threads", "gauge", null, "The active threads.");
+    out.append("ycsb_jvm_threads ").append(Utils.getActiveThreadCount()).append('\n');
+    family(out, "ycsb_jvm_memory_used_bytes", "gauge", "bytes", "The used heap memory.");
+    out.append("ycsb_jvm_memory_used_bytes ").append(Utils.getUsedMemoryBytes()).append('\n');
+    double systemLoad = Utils.getSystemLoadAverage();
+    if (systemLoad >= 0) {
+      family(out, "ycsb_system_load_average", "gauge", null, "The system load average.");
+      out.append("ycsb_system_load_average ").append(systemLoad).append('\n');
+    }
+    family(out, "ycsb_jvm_gc_collections", "counter", null, "The garbage collections.");
+    out.append("ycsb_jvm_gc_collections_total ").append(Utils.getGCTotalCollectionCount()).append('\n');
+    family(out, "ycsb_jvm_gc_time_seconds", "counter", "seconds", "The time spent collecting garbage.");
+    out.append("ycsb_jvm_gc_time_seconds_total ").append(Utils.getGCTotalTime() / 1e3).append('\n');
+  }
+
+  private static void family(StringBuilder out, String name, String type, String unit, String help) {
+    out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    if (unit != null) {
+      out.append("# UNIT ").append(name).append(' ').append(unit).append('\n');
+    }
+    out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+  }
+
+  private static String escape(String labelValue) {
+    return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+}
@@ -0,0 +1,218 @@
+/**
+ * Copyright (c) 2023 YCSB contributors. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb;
+
+import site.ycsb.measurements.Measurements;
+
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The arrival process of an open loop run. The client threads do not pace themselves: this thread
+ * emits the arrival times of the operations at the target rate, whatever the latency of the
+ * operations already running, and the client threads take them as they become free. Each
+ * operation is measured from its arrival time, its intended start time, so an operation stalled
+ * behind a slow one is not omitted from the latencies.
+ *
+ * Arrived operations wait in a bounded queue. An arrival finding the queue full is dropped, and
+ * an operation starting more than the late threshold after its arrival is counted as late. Both
+ * are reported as return codes of the SCHEDULE measurement, whose latencies are the delays between
+ * the arrival and the start of the operations.
+ */
+public class OpenLoopScheduler extends Thread {
+  /**
+   * Whether to run an open loop, the "target" property then being the arrival rate.
+   */
+  public static final String OPEN_LOOP_PROPERTY = "openloop";
+  public static final String OPEN_LOOP_PROPERTY_DEFAULT = "false";
+
+  /**
+   * The arrival process: "fixed" for evenly spaced arrivals or "poisson" for exponentially
+   * distributed inter-arrival times.
+   */
+  public static final String ARRIVAL_PROPERTY = "openloop.arrival";
+  public static final String ARRIVAL_PROPERTY_DEFAULT = "fixed";
+
+  /**
+   * The number of arrived operations that can wait for a client thread before arrivals are dropped.
+   */
+  public static final String MAX_QUEUE_PROPERTY = "openloop.maxqueue";
+  public static final String MAX_QUEUE_PROPERTY_DEFAULT = "10000";
+
+  /**
+   * The delay in microseconds between its arrival and its start after which an operation is late.
+   */
+  public static final String LATE_THRESHOLD_PROPERTY = "openloop.latethreshold";
+  public static final String LATE_THRESHOLD_PROPERTY_DEFAULT = "1000";
+
+  /**
+   * Returned by {@link #nextArrival()} once there are no more operations to run.
+   */
+  public static final long NO_MORE_OPERATIONS = Long.MIN_VALUE;
+
+  public static final Status LATE = new Status("LATE", "The operation started after the late threshold.");
+  public static final Status DROPPED = new Status("DROPPED", "The queue of arrived operations was full.");
+
+  private static final String SCHEDULE = "SCHEDULE";
+  private static final long POLL_INTERVAL_MS = 100;
+  private static final long MAX_PARK_NS = TimeUnit.MILLISECONDS.toNanos(POLL_INTERVAL_MS);
+
+  private final BlockingQueue<Long> arrivals;
+  private final TargetProfile profile;
+  private final boolean poisson;
+  private final long lateThresholdNs;
+  private final long opcount;
+  private final Workload workload;
+  private final Measurements measurements;
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong late = new AtomicLong();
+  private volatile boolean finished;
+
+  /**
+   * @param props    the properties of the run
+   * @param target   the arrival rate in operations per second
+   * @param opcount  the number of operations to emit, 0 for no limit
+   * @param workload the workload, whose stop requests end the arrivals
+   */
+  public OpenLoopScheduler(Properties props, double target, long opcount, Workload workload) {
+    this(props, checkTarget(target), opcount, workload);
+  }
+
+  /**
+   * @param props    the properties of the run
+   * @param profile  the arrival rate over the run
+   * @param opcount  the number of operations to emit, 0 for no limit
+   * @param workload the workload, whose stop requests end the arrivals
+   */
+  public OpenLoopScheduler(Properties props, TargetProfile profile, long opcount, Workload workload) {
+    super("OpenLoopScheduler");
+    setDaemon(true);
+    String arrival = props.getProperty(ARRIVAL_PROPERTY, ARRIVAL_PROPERTY_DEFAULT);
+    switch (arrival) {
+    case "fixed":
+      poisson = false;
+      break;
+    case "poisson":
+      poisson = true;
+      break;
+    default:
+      throw new IllegalArgumentException("unknown " + ARRIVAL_PROPERTY + "=" + arrival);
+    }
+    this.profile = profile;
+    arrivals = new ArrayBlockingQueue<>(Integer.parseInt(
+        props.getProperty(MAX_QUEUE_PROPERTY, MAX_QUEUE_PROPERTY_DEFAULT)));
+    lateThresholdNs = TimeUnit.MICROSECONDS.toNanos(Long.parseLong(
+        props.getProperty(LATE_THRESHOLD_PROPERTY, LATE_THRESHOLD_PROPERTY_DEFAULT)));
+    this.opcount = opcount;
+    this.workload = workload;
+    measurements = Measurements.getMeasurements();
+  }
+
+  private static TargetProfile checkTarget(double target) {
+    if (target <= 0) {
+      throw new IllegalArgumentException("An open loop needs a positive target, not " + target);
+    }
+    return TargetProfile.constant(target);
+  }
+
+  @Override
+  public void run() {
+    long start = System.nanoTime();
+    long arrival = start;
+    for (long i = 0; (opcount == 0 || i < opcount) && !workload.isStopRequested() && !finished; i++) {
+      if (poisson) {
+        // exponentially distributed amounts of operations make a Poisson process, even with a varying rate
+        arrival = profile.advanceNs(start, arrival, -Math.log(1 - ThreadLocalRandom.current().nextDouble()));
+      } else if (i > 0) {
+        arrival = profile.advanceNs(start, arrival, 1);
+      }
+      while (System.nanoTime() < arrival && !workload.isStopRequested() && !finished) {
+        LockSupport.parkNanos(Math.min(arrival - System.nanoTime(), MAX_PARK_NS));
+      }
+      if (System.nanoTime() < arrival) {
+        // stopped before the arrival
+        break;
+      }
+      if (!arrivals.offer(arrival)) {
+        dropped.incrementAndGet();
+        measurements.reportStatus(SCHEDULE, DROPPED);
+      }
+    }
+    finished = true;
+  }
+
+  /**
+   * Wait for the next arrived operation and account for its start.
+   *
+   * @return the arrival time of the operation, in {@link System#nanoTime()} units, or
+   * {@link #NO_MORE_OPERATIONS} once all of them have been taken.
+   */
+  public long nextArrival() throws InterruptedException {
+    while (true) {
+      Long arrival = arrivals.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+      if (arrival == null && finished) {
+        // the last arrivals may have been queued after the poll timed out
+        arrival = arrivals.poll();
+        if (arrival == null) {
+          return NO_MORE_OPERATIONS;
+        }
+      }
+      if (arrival != null) {
+        started(arrival);
+        return arrival;
+      }
+    }
+  }
+
+  private void started(long arrival) {
+    long delay = System.nanoTime() - arrival;
+    measurements.measureIntended(SCHEDULE, (int) (delay / 1000));
+    if (delay > lateThresholdNs) {
+      late.incrementAndGet();
+      measurements.reportStatus(SCHEDULE, LATE);
+    } else {
+      measurements.reportStatus(SCHEDULE, Status.OK);
+    }
+  }
+
+  /**
+   * Stop emitting arrivals, the queued ones are still run.
+   */
+  public void finish() {
+    finished = true;
+  }
+
+  /**
+   * @return the number of arrivals dropped because the queue was full.
+   */
+  public long getDropped() {
+    return dropped.get();
+  }
+
+  /**
+   * @return the number of operations started later than the late threshold after their arrival.
+   */
+  public long getLate() {
+    return late.get();
+  }
+}
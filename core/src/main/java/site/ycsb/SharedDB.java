@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2023 YCSB contributors. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.Vector;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A DB instance shared by several client threads, so that thousands of virtual client threads do
+ * not each open their own connections. Only bindings whose DB class is thread safe can be shared,
+ * see the "virtualthreads.sharedb" property of {@link Client}.
+ *
+ * The client threads sharing the DB are counted by {@link #addUser()} when they are assigned to it,
+ * before any of them starts. The first init() initializes the DB, and the cleanup() of the last of
+ * these threads cleans it up, even when some threads finish before others have initialized. They
+ * are guarded by a lock rather than synchronized, which would pin the virtual threads to their
+ * carrier while the DB connects.
+ */
+public class SharedDB extends AsyncDB {
+  private final AsyncDB db;
+  private final ReentrantLock lock = new ReentrantLock();
+  private int users;
+  private boolean initialized;
+
+  public SharedDB(DB db) {
+    this.db = AsyncDB.wrap(db);
+  }
+
+  @Override
+  public void setProperties(Properties p) {
+    db.setProperties(p);
+  }
+
+  @Override
+  public Properties getProperties() {
+    return db.getProperties();
+  }
+
+  /**
+   * Assign one more client thread to this DB, which will call init() and cleanup().
+   */
+  void addUser() {
+    lock.lock();
+    try {
+      users++;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void init() throws DBException {
+    lock.lock();
+    try {
+      if (!initialized) {
+        db.init();
+        initialized = true;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void cleanup() throws DBException {
+    lock.lock();
+    try {
+      if (--users == 0 && initialized) {
+        db.cleanup();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public CompletableFuture<Status> readAsync(String table, String key, Set<String> fields,
+                                             Map<String, ByteIterator> result) {
+    return db.readAsync(table, key, fields, result);
+  }
+
+  @Override
+  public CompletableFuture<Status> scanAsync(String table, String startkey, int recordcount, Set<String> fields,
+                                             Vector<HashMap<String, ByteIterator>> result) {
+    return db.scanAsync(table, startkey, recordcount, fields, result);
+  }
+
+  @Override
+  public CompletableFuture<Status> updateAsync(String table, String key, Map<String, ByteIterator> values) {
+    return db.updateAsync(table, key, values);
+  }
+
+  @Override
+  public CompletableFuture<Status> insertAsync(String table, String key, Map<String, ByteIterator> values) {
+    return db.insertAsync(table, key, values);
+  }
+
+  @Override
+  public CompletableFuture<Status> deleteAsync(String table, String key) {
+    return db.deleteAsync(table, key);
+  }
+
+  @Override
+  public Status read(String table, String key, Set<String> fields, Map<String, ByteIterator> result) {
+    return db.read(table, key, fields, result);
+  }
+
+  @Override
+  public Status scan(String table, String startkey, int recordcount, Set<String> fields,
+                     Vector<HashMap<String, ByteIterator>> result) {
+    return db.scan(table, startkey, recordcount, fields, result);
+  }
+
+  @Override
+  public Status update(String table, String key, Map<String, ByteIterator> values) {
+    return db.update(table, key, values);
+  }
+
+  @Override
+  public Status insert(String table, String key, Map<String, ByteIterator> values) {
+    return db.insert(table, key, values);
+  }
+
+  @Override
+  public Status delete(String table, String key) {
+    return db.delete(table, key);
+  }
+}
@@ -47,6 +47,9 @@ public class StatusThread extends Thread {
   // The interval for reporting status.
   private long sleeptimeNs;
 
+  // The target throughput over the run, if it varies.
+  private TargetProfile targetProfile;
+
   // JVM max/mins
   private int maxThreads;
   private int minThreads = Integer.MAX_VALUE;
@@ -95,6 +98,13 @@ public class StatusThread extends Thread {
     this.trackJVMStats = trackJVMStats;
   }
 
+  /**
+   * Report the target of each interval next to the achieved throughput.
+   */
+  public void setTargetProfile(TargetProfile profile) {
+    targetProfile = profile;
+  }
+
   /**
    * Run and periodically report status.
    */
@@ -170,6 +180,10 @@ public class StatusThread extends Thread {
     if (totalops != 0) {
       msg.append(d.format(curthroughput)).append(" current ops/sec; ");
     }
+    if (targetProfile != null) {
+      double target = targetProfile.getAverageRate((startIntervalMs - startTimeMs) / 1000.0, interval / 1000.0);
+      msg.append(d.format(target)).append(" target ops/sec; ");
+    }
     if (todoops != 0) {
       msg.append("est completion in ").append(RemainingFormatter.format(estremaining));
     }
@@ -0,0 +1,264 @@
+/**
+ * Copyright (c) 2023 YCSB contributors. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A target throughput varying over the run, set by the "targetprofile" property:
+ * <ul>
+ * <li>ramp:FROM:TO:SECONDS goes linearly from FROM to TO operations per second in SECONDS.</li>
+ * <li>steps:RATE:SECONDS,RATE:SECONDS,... holds each RATE for its SECONDS.</li>
+ * <li>sine:MEAN:AMPLITUDE:PERIOD oscillates around MEAN, with a period of PERIOD seconds.</li>
+ * <li>file:PATH replays the "seconds,ops/sec" lines of a CSV file, interpolating linearly between
+ * them. Lines starting with # are skipped.</li>
+ * </ul>
+ * The rate is held at its last value after the end of the profile.
+ */
+public abstract class TargetProfile {
+  public static final String TARGET_PROFILE_PROPERTY = "targetprofile";
+
+  private static final long STEP_NS = TimeUnit.MILLISECONDS.toNanos(10);
+  private static final double NS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+  // bounds the integration when the rate stays at 0
+  private static final long MAX_ADVANCE_NS = TimeUnit.DAYS.toNanos(1);
+
+  /**
+   * @return the target in operations per second, {@code seconds} after the start of the run.
+   */
+  public abstract double getRate(double seconds);
+
+  /**
+   * @return the length of the profile in seconds, or 0 if it does not end.
+   */
+  public abstract double getDuration();
+
+  /**
+   * Integrate the rate from {@code fromNs}, with a resolution of 10 ms.
+   *
+   * @param startNs    the start of the run, in {@link System#nanoTime()} units
+   * @param fromNs     the time from which to count the operations
+   * @param operations the number of operations, in units of the whole target
+   * @return the time at which {@code operations} more operations are due, at most a day after
+   * {@code fromNs}.
+   */
+  public long advanceNs(long startNs, long fromNs, double operations) {
+    long time = fromNs;
+    double remaining = operations;
+    while (time - fromNs < MAX_ADVANCE_NS) {
+      double perNs = getRate((time - startNs) / NS_PER_SECOND) / NS_PER_SECOND;
+      if (perNs > 0 && perNs * STEP_NS >= remaining) {
+        return time + (long) (remaining / perNs);
+      }
+      if (perNs > 0) {
+        remaining -= perNs * STEP_NS;
+      }
+      time += STEP_NS;
+    }
+    return time;
+  }
+
+  /**
+   * @return the average target in operations per second between {@code fromSeconds} and
+   * {@code toSeconds} after the start of the run.
+   */
+  public double getAverageRate(double fromSeconds, double toSeconds) {
+    if (toSeconds <= fromSeconds) {
+      return getRate(fromSeconds);
+    }
+    double step = STEP_NS / NS_PER_SECOND;
+    double operations = 0;
+    for (double t = fromSeconds; t < toSeconds; t += step) {
+      operations += getRate(t) * Math.min(step, toSeconds - t);
+    }
+    return operations / (toSeconds - fromSeconds);
+  }
+
+  /**
+   * @return the profile described by {@code spec}, see the class comment.
+   */
+  public static TargetProfile parse(String spec) throws IOException {
+    int colon = spec.indexOf(':');
+    String kind = colon < 0 ? spec : spec.substring(0, colon);
+    String[] args = colon < 0 ? new String[0] : spec.substring(colon + 1).split(":");
+    switch (kind) {
+    case "ramp":
+      checkArguments(spec, args, 3);
+      return new Points(new double[]{0, Double.parseDouble(args[2])},
+          new double[]{Double.parseDouble(args[0]), Double.parseDouble(args[1])});
+    case "steps":
+      return steps(spec, spec.substring(colon + 1).split(","));
+    case "sine":
+      checkArguments(spec, args, 3);
+      return new Sine(Double.parseDouble(args[0]), Double.parseDouble(args[1]), Double.parseDouble(args[2]));
+    case "file":
+      return file(spec.substring(colon + 1));
+    default:
+      throw new IllegalArgumentException("unknown " + TARGET_PROFILE_PROPERTY + "=" + spec);
+    }
+  }
+
+  /**
+   * @return a profile holding {@code rate} operations per second.
+   */
+  public static TargetProfile constant(double rate) {
+    return new Constant(rate);
+  }
+
+  private static void checkArguments(String spec, String[] args, int count) {
+    if (args.length != count) {
+      throw new IllegalArgumentException("expected " + count + " values in " + TARGET_PROFILE_PROPERTY + "=" + spec);
+    }
+  }
+
+  private static TargetProfile steps(String spec, String[] steps) {
+    double[] times = new double[2 * steps.length];
+    double[] rates = new double[2 * steps.length];
+    double time = 0;
+    for (int i = 0; i < steps.length; i++) {
+      String[] step = steps[i].trim().split(":");
+      checkArguments(spec, step, 2);
+      // two points per step, so that the interpolation keeps the rate flat until its end
+      times[2 * i] = time;
+      rates[2 * i] = Double.parseDouble(step[0]);
+      time += Double.parseDouble(step[1]);
+      times[2 * i + 1] = Math.nextDown(time);
+      rates[2 * i + 1] = rates[2 * i];
+    }
+    return new Points(times, rates);
+  }
+
+  private static TargetProfile file(String path) throws IOException {
+    List<double[]> points = new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(new FileReader(path))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        line = line.trim();
+        if (line.isEmpty() || line.startsWith("#")) {
+          continue;
+        }
+        String[] fields = line.split(",");
+        if (fields.length != 2) {
+          throw new IllegalArgumentException("expected seconds,ops/sec in " + path + ": " + line);
+        }
+        points.add(new double[]{Double.parseDouble(fields[0].trim()), Double.parseDouble(fields[1].trim())});
+      }
+    }
+    if (points.isEmpty()) {
+      throw new IllegalArgumentException("no target in " + path);
+    }
+    double[] times = new double[points.size()];
+    double[] rates = new double[points.size()];
+    for (int i = 0; i < times.length; i++) {
+      times[i] = points.get(i)[0];
+      rates[i] = points.get(i)[1];
+      if (i > 0 && times[i] < times[i - 1]) {
+        throw new IllegalArgumentException("the times of " + path + " are not increasing");
+      }
+    }
+    return new Points(times, rates);
+  }
+
+  /**
+   * A constant rate.
+   */
+  private static final class Constant extends TargetProfile {
+    private final double rate;
+
+    private Constant(double rate) {
+      this.rate = rate;
+    }
+
+    @Override
+    public double getRate(double seconds) {
+      return rate;
+    }
+
+    @Override
+    public double getDuration() {
+      return 0;
+    }
+
+    @Override
+    public long advanceNs(long startNs, long fromNs, double operations) {
+      return fromNs + (long) (operations * NS_PER_SECOND / rate);
+    }
+  }
+
+  /**
+   * Rates interpolated linearly between points.
+   */
+  private static final class Points extends TargetProfile {
+    private final double[] times;
+    private final double[] rates;
+
+    private Points(double[] times, double[] rates) {
+      this.times = times;
+      this.rates = rates;
+    }
+
+    @Override
+    public double getRate(double seconds) {
+      if (seconds <= times[0]) {
+        return rates[0];
+      }
+      for (int i = 1; i < times.length; i++) {
+        if (seconds < times[i]) {
+          double fraction = (seconds - times[i - 1]) / (times[i] - times[i - 1]);
+          return rates[i - 1] + fraction * (rates[i] - rates[i - 1]);
+        }
+      }
+      return rates[rates.length - 1];
+    }
+
+    @Override
+    public double getDuration() {
+      return times[times.length - 1];
+    }
+  }
+
+  /**
+   * A sine wave, for instance a diurnal load.
+   */
+  private static final class Sine extends TargetProfile {
+    private final double mean;
+    private final double amplitude;
+    private final double period;
+
+    private Sine(double mean, double amplitude, double period) {
+      this.mean = mean;
+      this.amplitude = amplitude;
+      this.period = period;
+    }
+
+    @Override
+    public double getRate(double seconds) {
+      return Math.max(0, mean + amplitude * Math.sin(2 * Math.PI * seconds / period));
+    }
+
+    @Override
+    public double getDuration() {
+      return 0;
+    }
+  }
+}
@@ -0,0 +1,319 @@
+/**
+ * Copyright (c) 2023 YCSB contributors. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb;
+
+import org.HdrHistogram.Histogram;
+import site.ycsb.measurements.Measurements;
+import site.ycsb.measurements.OneMeasurementHdrHistogram;
+import site.ycsb.measurements.exporter.MeasurementsExporter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The search for the highest throughput sustaining a latency objective, run instead of the
+ * workload when the "slo.latency" property is set. Each trial runs the workload at a target for
+ * "slo.trialtime" seconds, and the target is sustained when the "slo.percentile" percentile of the
+ * latencies of the trial is at most "slo.latency" and the trial reached "slo.throughputratio" of
+ * the target.
+ *
+ * A first trial runs at "slo.maxtarget", or unthrottled to measure the capacity of the DB. The
+ * target is then bisected between the highest sustained and the lowest unsustained targets, until
+ * they are within "slo.precision" of each other or "slo.maxtrials" trials have run.
+ *
+ * The latencies of a trial are the interval histograms of the measurements, which therefore have
+ * to be HdrHistograms. They are added into histograms reset before each trial, so the trials reuse
+ * the same histograms.
+ */
+public class ThroughputSearch {
+  /**
+   * The latency objective in microseconds, which enables the search.
+   */
+  public static final String LATENCY_PROPERTY = "slo.latency";
+
+  /**
+   * The percentile of the latencies of a trial that has to meet the objective.
+   */
+  public static final String PERCENTILE_PROPERTY = "slo.percentile";
+  public static final String PERCENTILE_PROPERTY_DEFAULT = "99";
+
+  /**
+   * The length of a trial in seconds.
+   */
+  public static final String TRIAL_TIME_PROPERTY = "slo.trialtime";
+  public static final String TRIAL_TIME_PROPERTY_DEFAULT = "10";
+
+  /**
+   * The target of the first trial in operations per second, 0 for an unthrottled first trial.
+   */
+  public static final String MAX_TARGET_PROPERTY = "slo.maxtarget";
+  public static final String MAX_TARGET_PROPERTY_DEFAULT = "0";
+
+  /**
+   * The relative gap between the sustained and unsustained targets at which the search ends.
+   */
+  public static final String PRECISION_PROPERTY = "slo.precision";
+  public static final String PRECISION_PROPERTY_DEFAULT = "0.02";
+
+  /**
+   * The maximum number of trials.
+   */
+  public static final String MAX_TRIALS_PROPERTY = "slo.maxtrials";
+  public static final String MAX_TRIALS_PROPERTY_DEFAULT = "20";
+
+  /**
+   * The fraction of its target a trial has to reach for the target to be sustained.
+   */
+  public static final String THROUGHPUT_RATIO_PROPERTY = "slo.throughputratio";
+  public static final String THROUGHPUT_RATIO_PROPERTY_DEFAULT = "0.95";
+
+  private static final String SLO = "SLO";
+  // measured during the trials, but not operations of the workload
+  private static final Set<String> EXCLUDED = new HashSet<>(Arrays.asList("CLEANUP", "SCHEDULE"));
+
+  /**
+   * A trial of the workload.
+   */
+  public interface Trial {
+    /**
+     * Run the workload for the length of a trial.
+     *
+     * @param target the target in operations per second, 0 to run unthrottled
+     * @return the throughput of the trial in operations per second.
+     */
+    double run(double target);
+  }
+
+  /**
+   * The workload of a trial, which can be stopped without stopping the workload of the next trials.
+   */
+  static final class TrialWorkload extends Workload {
+    private final Workload workload;
+
+    TrialWorkload(Workload workload) {
+      this.workload = workload;
+    }
+
+    @Override
+    public Object initThread(Properties p, int mythreadid, int threadcount) throws WorkloadException {
+      return workload.initThread(p, mythreadid, threadcount);
+    }
+
+    @Override
+    public boolean doInsert(DB db, Object threadstate) {
+      return workload.doInsert(db, threadstate);
+    }
+
+    @Override
+    public boolean doTransaction(DB db, Object threadstate) {
+      return workload.doTransaction(db, threadstate);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> doInsertAsync(AsyncDB db, Object threadstate) {
+      return workload.doInsertAsync(db, threadstate);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> doTransactionAsync(AsyncDB db, Object threadstate) {
+      return workload.doTransactionAsync(db, threadstate);
+    }
+
+    @Override
+    public boolean isStopRequested() {
+      return super.isStopRequested() || workload.isStopRequested();
+    }
+  }
+
+  private final Measurements measurements;
+  private final long latencyBound;
+  private final double percentile;
+  private final long trialTimeMs;
+  private final double maxTarget;
+  private final double precision;
+  private final int maxTrials;
+  private final double throughputRatio;
+  private final List<Double> percentiles;
+
+  private Map<String, Histogram> trialLatencies = new TreeMap<>();
+  private Map<String, Histogram> bestLatencies = new TreeMap<>();
+  private Histogram trialTotal = new Histogram(3);
+  private Histogram bestTotal = new Histogram(3);
+  private int trials;
+  private double lastThroughput;
+  private boolean sustained;
+  private double bestTarget;
+  private double bestThroughput;
+
+  public ThroughputSearch(Properties props, Measurements measurements) {
+    if (!props.getProperty(Measurements.MEASUREMENT_TYPE_PROPERTY, "hdrhistogram").startsWith("hdrhistogram")) {
+      throw new IllegalArgumentException("The search of " + LATENCY_PROPERTY + " needs the hdrhistogram " +
+          Measurements.MEASUREMENT_TYPE_PROPERTY);
+    }
+    this.measurements = measurements;
+    latencyBound = Long.parseLong(props.getProperty(LATENCY_PROPERTY));
+    percentile = Double.parseDouble(props.getProperty(PERCENTILE_PROPERTY, PERCENTILE_PROPERTY_DEFAULT));
+    trialTimeMs = (long) (1000 * Double.parseDouble(props.getProperty(TRIAL_TIME_PROPERTY,
+        TRIAL_TIME_PROPERTY_DEFAULT)));
+    maxTarget = Double.parseDouble(props.getProperty(MAX_TARGET_PROPERTY, MAX_TARGET_PROPERTY_DEFAULT));
+    precision = Double.parseDouble(props.getProperty(PRECISION_PROPERTY, PRECISION_PROPERTY_DEFAULT));
+    maxTrials = Integer.parseInt(props.getProperty(MAX_TRIALS_PROPERTY, MAX_TRIALS_PROPERTY_DEFAULT));
+    throughputRatio = Double.parseDouble(props.getProperty(THROUGHPUT_RATIO_PROPERTY,
+        THROUGHPUT_RATIO_PROPERTY_DEFAULT));
+    percentiles = OneMeasurementHdrHistogram.getPercentileValues(props.getProperty(
+        OneMeasurementHdrHistogram.PERCENTILES_PROPERTY, OneMeasurementHdrHistogram.PERCENTILES_PROPERTY_DEFAULT));
+    if (!percentiles.contains(percentile)) {
+      percentiles.add(percentile);
+    }
+  }
+
+  /**
+   * @return the length of a trial in milliseconds.
+   */
+  public long getTrialTimeMs() {
+    return trialTimeMs;
+  }
+
+  /**
+   * Run the trials of the search.
+   */
+  public void search(Trial trial) {
+    double low = 0;
+    double high = maxTarget;
+    if (runTrial(trial, high)) {
+      return;
+    }
+    if (high <= 0) {
+      // the unthrottled throughput bounds the sustainable one
+      high = lastThroughput;
+    }
+    while (trials < maxTrials && high - low > precision * high) {
+      double target = (low + high) / 2;
+      if (runTrial(trial, target)) {
+        low = target;
+      } else {
+        high = target;
+      }
+    }
+  }
+
+  /**
+   * @return whether a trial sustained the latency objective.
+   */
+  public boolean isSustained() {
+    return sustained;
+  }
+
+  /**
+   * @return the highest sustained target in operations per second, 0 if it was the unthrottled one.
+   */
+  public double getTarget() {
+    return bestTarget;
+  }
+
+  /**
+   * @return the throughput of the trial at the highest sustained target, in operations per second.
+   */
+  public double getThroughput() {
+    return bestThroughput;
+  }
+
+  /**
+   * @return the number of trials run.
+   */
+  public int getTrials() {
+    return trials;
+  }
+
+  private boolean runTrial(Trial trial, double target) {
+    trials++;
+    // leave out the latencies measured between the trials
+    measurements.getIntervalHistograms();
+    lastThroughput = trial.run(target);
+
+    trialTotal.reset();
+    for (Histogram latencies : trialLatencies.values()) {
+      latencies.reset();
+    }
+    for (Map.Entry<String, Histogram> entry : measurements.getIntervalHistograms().entrySet()) {
+      if (!EXCLUDED.contains(entry.getKey())) {
+        trialLatencies.computeIfAbsent(entry.getKey(), operation -> new Histogram(3)).add(entry.getValue());
+        trialTotal.add(entry.getValue());
+      }
+    }
+
+    long latency = trialTotal.getValueAtPercentile(percentile);
+    boolean passed = trialTotal.getTotalCount() > 0 && latency <= latencyBound
+        && (target <= 0 || lastThroughput >= throughputRatio * target);
+    System.err.println(String.format("Trial %d: target %s, %.1f ops/sec, %s percentile latency %d us, %s", trials,
+        target > 0 ? String.format("%.1f ops/sec", target) : "unthrottled", lastThroughput,
+        OneMeasurementHdrHistogram.ordinal(percentile), latency, passed ? "sustained" : "not sustained"));
+    if (passed) {
+      sustained = true;
+      bestTarget = target;
+      bestThroughput = lastThroughput;
+      Map<String, Histogram> latencies = bestLatencies;
+      bestLatencies = trialLatencies;
+      trialLatencies = latencies;
+      Histogram total = bestTotal;
+      bestTotal = trialTotal;
+      trialTotal = total;
+    }
+    return passed;
+  }
+
+  /**
+   * Export the result of the search, with the latencies of the trial at the highest sustained
+   * target, which is 0 for the unthrottled trial.
+   */
+  public void exportMeasurements(MeasurementsExporter exporter) throws IOException {
+    exporter.write(SLO, "LatencyBound(us)", latencyBound);
+    exporter.write(SLO, "Percentile", percentile);
+    exporter.write(SLO, "Trials", trials);
+    // both 0 when no trial sustained the objective
+    exporter.write(SLO, "Target(ops/sec)", bestTarget);
+    exporter.write(SLO, "MaxThroughput(ops/sec)", bestThroughput);
+    if (!sustained) {
+      return;
+    }
+    exportLatencies(exporter, SLO, bestTotal);
+    for (Map.Entry<String, Histogram> entry : bestLatencies.entrySet()) {
+      if (entry.getValue().getTotalCount() > 0) {
+        exportLatencies(exporter, SLO + "-" + entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  private void exportLatencies(MeasurementsExporter exporter, String name, Histogram latencies) throws IOException {
+    exporter.write(name, "Operations", latencies.getTotalCount());
+    exporter.write(name, "AverageLatency(us)", latencies.getMean());
+    exporter.write(name, "MinLatency(us)", latencies.getMinValue());
+    exporter.write(name, "MaxLatency(us)", latencies.getMaxValue());
+    for (Double p : percentiles) {
+      exporter.write(name, OneMeasurementHdrHistogram.ordinal(p) + "PercentileLatency(us)",
+          latencies.getValueAtPercentile(p));
+    }
+  }
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 2023 YCSB contributors. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The virtual threads of the "virtualthreads" mode of the client.
+ *
+ * This is the version for the Java releases without virtual threads. The core jar is a
+ * multi-release jar whose META-INF/versions/21 holds the version running on Java 21 and later,
+ * built from src/main/java21 when the build runs on Java 21 or later.
+ */
+final class VirtualThreads {
+  private VirtualThreads() {
+    // not used
+  }
+
+  /**
+   * @return whether this Java runtime has virtual threads.
+   */
+  static boolean isSupported() {
+    return false;
+  }
+
+  /**
+   * @return a factory of virtual threads named {@code prefix} followed by a counter.
+   */
+  static ThreadFactory newFactory(String prefix) {
+    throw new UnsupportedOperationException("Virtual threads need Java 21 or later");
+  }
+
+  /**
+   * Record the virtual threads pinned to their carrier thread for longer than {@code thresholdMs}.
+   *
+   * @return the action ending the recording and printing which frames pinned the threads.
+   */
+  static Runnable monitorPinning(long thresholdMs) {
+    throw new UnsupportedOperationException("Virtual threads need Java 21 or later");
+  }
+}
@@ -17,6 +17,7 @@
 
 package site.ycsb;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.Properties;
 
@@ -105,6 +106,30 @@ public abstract class Workload {
    */
   public abstract boolean doTransaction(DB db, Object threadstate);
 
+  /**
+   * Do one insert operation through the asynchronous DB API, used when a client thread keeps several
+   * operations outstanding. The returned future completes with the value doInsert() would have
+   * returned. Callbacks may run on threads of the DB binding, so the threadstate must not be
+   * mutated by them.
+   *
+   * The default implementation runs doInsert() synchronously.
+   */
+  public CompletableFuture<Boolean> doInsertAsync(AsyncDB db, Object threadstate) {
+    return CompletableFuture.completedFuture(doInsert(db, threadstate));
+  }
+
+  /**
+   * Do one transaction operation through the asynchronous DB API, used when a client thread keeps several
+   * operations outstanding. The returned future completes with the value doTransaction() would have
+   * returned. Callbacks may run on threads of the DB binding, so the threadstate must not be
+   * mutated by them.
+   *
+   * The default implementation runs doTransaction() synchronously.
+   */
+  public CompletableFuture<Boolean> doTransactionAsync(AsyncDB db, Object threadstate) {
+    return CompletableFuture.completedFuture(doTransaction(db, threadstate));
+  }
+
   /**
    * Allows scheduling a request to stop the workload.
    */
@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2023 YCSB contributors. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb.measurements;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Locale;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+
+/**
+ * A log of interval histograms, in the format of the HdrHistogram HistogramLogWriter, so that the
+ * HdrHistogram tools read it too. The histograms are encoded with {@link Base64} here, as the
+ * HistogramLogWriter of the HdrHistogram version used needs javax.xml.bind, which Java 11 and
+ * later do not ship.
+ */
+public final class HistogramLog implements Closeable {
+  private static final String LOGGING_FOR = "#[Logging for: ";
+  private static final String START_TIME = "#[StartTime: ";
+  private static final String BASE_TIME = "#[BaseTime: ";
+  // the maximum of each interval is logged in seconds
+  private static final double MAX_VALUE_UNIT_RATIO = 1000000.0;
+  // the time stamps below are relative to the base time of the log, and the ones above absolute
+  private static final double MAX_RELATIVE_TIME_STAMP_SEC = 365 * 24 * 3600;
+
+  private final PrintStream log;
+  private final long baseTime;
+  private ByteBuffer buffer;
+
+  /**
+   * Start the log of the measurement {@code name} in {@code file}.
+   *
+   * @param startTime the time stamps of the intervals are relative to, in milliseconds since the
+   *                  epoch.
+   */
+  public HistogramLog(String file, String name, long startTime) throws FileNotFoundException {
+    log = new PrintStream(new FileOutputStream(file), false);
+    baseTime = startTime;
+    log.format("#%s\n", "[Logging for: " + name + "]");
+    log.format("#%s\n", "[Histogram log format version 1.1]");
+    log.format(Locale.US, "#[StartTime: %.3f (seconds since epoch), %s]\n", startTime / 1000.0,
+        new Date(startTime));
+    log.println("\"StartTimestamp\",\"Interval_Length\",\"Interval_Max\",\"Interval_Compressed_Histogram\"");
+  }
+
+  /**
+   * Log {@code histogram}, between its start and end time stamps.
+   */
+  public void write(Histogram histogram) {
+    int capacity = histogram.getNeededByteBufferCapacity();
+    if (buffer == null || buffer.capacity() < capacity) {
+      buffer = ByteBuffer.allocate(capacity);
+    }
+    buffer.clear();
+    // a histogram keeps the buffer of its first encoding even once resized, so recycled ones are copied
+    int length = histogram.copy().encodeIntoCompressedByteBuffer(buffer, Deflater.BEST_COMPRESSION);
+    log.format(Locale.US, "%.3f,%.3f,%.3f,%s\n", (histogram.getStartTimeStamp() - baseTime) / 1000.0,
+        (histogram.getEndTimeStamp() - histogram.getStartTimeStamp()) / 1000.0,
+        histogram.getMaxValueAsDouble() / MAX_VALUE_UNIT_RATIO,
+        Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length)));
+  }
+
+  @Override
+  public void close() {
+    log.close();
+  }
+
+  /**
+   * Read the intervals of a log written by this class or by the HdrHistogram HistogramLogWriter.
+   */
+  public static final class Reader implements Closeable {
+    private final BufferedReader in;
+    private String name;
+    private double baseTimeSec;
+    private String line;
+
+    public Reader(String file) throws IOException {
+      in = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.US_ASCII));
+      // the header, up to the first interval
+      for (line = in.readLine(); line != null && !isInterval(line); line = in.readLine()) {
+        if (line.startsWith(LOGGING_FOR)) {
+          name = line.substring(LOGGING_FOR.length(), line.lastIndexOf(']'));
+        } else if (line.startsWith(START_TIME) && baseTimeSec == 0) {
+          baseTimeSec = parseTime(line, START_TIME);
+        } else if (line.startsWith(BASE_TIME)) {
+          baseTimeSec = parseTime(line, BASE_TIME);
+        }
+      }
+    }
+
+    private static boolean isInterval(String line) {
+      return !line.isEmpty() && line.charAt(0) != '#' && line.charAt(0) != '"';
+    }
+
+    private static double parseTime(String line, String prefix) {
+      return Double.parseDouble(line.substring(prefix.length()).split(" ")[0]);
+    }
+
+    /**
+     * @return the name of the measurement logged, or null if the log does not tell.
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * @return the next interval histogram, with its start and end time stamps in milliseconds
+     * since the epoch, or null at the end of the log.
+     */
+    public Histogram next() throws IOException {
+      while (line != null && !isInterval(line)) {
+        line = in.readLine();
+      }
+      if (line == null) {
+        return null;
+      }
+      String[] fields = line.split(",");
+      // the logs of later HdrHistogram versions may tag the intervals
+      int first = fields[0].startsWith("Tag=") ? 1 : 0;
+      double startSec = Double.parseDouble(fields[first]);
+      if (startSec < MAX_RELATIVE_TIME_STAMP_SEC) {
+        startSec += baseTimeSec;
+      }
+      Histogram histogram;
+      try {
+        histogram = Histogram.decodeFromCompressedByteBuffer(
+            ByteBuffer.wrap(Base64.getDecoder().decode(fields[first + 3])), 0);
+      } catch (DataFormatException | IllegalArgumentException e) {
+        throw new IOException("Malformed interval: " + line, e);
+      }
+      histogram.setStartTimeStamp((long) (startSec * 1000));
+      histogram.setEndTimeStamp((long) ((startSec + Double.parseDouble(fields[first + 1])) * 1000));
+      line = in.readLine();
+      return histogram;
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+}
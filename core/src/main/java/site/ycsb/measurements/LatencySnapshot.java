@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2023 YCSB contributors. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb.measurements;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * The latencies of a measurement as of its last interval, see
+ * {@link OneMeasurement#getLatencySnapshot()}. It never changes once published, so that it can be
+ * read from any thread without synchronizing with the recording.
+ */
+public final class LatencySnapshot {
+  private final Histogram interval;
+  private final long operations;
+  private final double totalLatency;
+
+  LatencySnapshot(Histogram interval, long operations, double totalLatency) {
+    this.interval = interval;
+    this.operations = operations;
+    this.totalLatency = totalLatency;
+  }
+
+  /**
+   * @return the number of operations measured in the last interval.
+   */
+  public long getIntervalOperations() {
+    return interval.getTotalCount();
+  }
+
+  /**
+   * @return the latency at {@code percentile} in the last interval, in microseconds.
+   */
+  public long getIntervalPercentile(double percentile) {
+    return interval.getValueAtPercentile(percentile);
+  }
+
+  /**
+   * @return the number of operations measured since the start of the run.
+   */
+  public long getOperations() {
+    return operations;
+  }
+
+  /**
+   * @return the sum of the latencies measured since the start of the run, in microseconds.
+   */
+  public double getTotalLatency() {
+    return totalLatency;
+  }
+}
@@ -19,8 +19,13 @@ package site.ycsb.measurements;
 
 import site.ycsb.Status;
 import site.ycsb.measurements.exporter.MeasurementsExporter;
+import org.HdrHistogram.Histogram;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -36,8 +41,10 @@ public class Measurements {
     HDRHISTOGRAM,
     HDRHISTOGRAM_AND_HISTOGRAM,
     HDRHISTOGRAM_AND_RAW,
+    HDRHISTOGRAM_AND_RAWSTREAM,
     TIMESERIES,
-    RAW
+    RAW,
+    RAWSTREAM
   }
 
   public static final String MEASUREMENT_TYPE_PROPERTY = "measurementtype";
@@ -68,6 +75,7 @@ public class Measurements {
 
   private final ConcurrentHashMap<String, OneMeasurement> opToMesurementMap;
   private final ConcurrentHashMap<String, OneMeasurement> opToIntendedMesurementMap;
+  private final ConcurrentHashMap<String, Statistic> statistics = new ConcurrentHashMap<>();
   private final MeasurementType measurementType;
   private final int measurementInterval;
   private final Properties props;
@@ -95,12 +103,18 @@ public class Measurements {
     case "hdrhistogram+raw":
       measurementType = MeasurementType.HDRHISTOGRAM_AND_RAW;
       break;
+    case "hdrhistogram+rawstream":
+      measurementType = MeasurementType.HDRHISTOGRAM_AND_RAWSTREAM;
+      break;
     case "timeseries":
       measurementType = MeasurementType.TIMESERIES;
       break;
     case "raw":
       measurementType = MeasurementType.RAW;
       break;
+    case "rawstream":
+      measurementType = MeasurementType.RAWSTREAM;
+      break;
     default:
       throw new IllegalArgumentException("unknown " + MEASUREMENT_TYPE_PROPERTY + "=" + mTypeString);
     }
@@ -135,10 +149,16 @@ public class Measurements {
       return new TwoInOneMeasurement(name,
           new OneMeasurementHdrHistogram("Hdr" + name, props),
           new OneMeasurementRaw("Raw" + name, props));
+    case HDRHISTOGRAM_AND_RAWSTREAM:
+      return new TwoInOneMeasurement(name,
+          new OneMeasurementHdrHistogram("Hdr" + name, props),
+          new OneMeasurementRawStream("Raw" + name, props));
     case TIMESERIES:
       return new OneMeasurementTimeSeries(name, props);
     case RAW:
       return new OneMeasurementRaw(name, props);
+    case RAWSTREAM:
+      return new OneMeasurementRawStream(name, props);
     default:
       throw new AssertionError("Impossible to be here. Dead code reached. Bugs?");
     }
@@ -214,27 +234,39 @@ public class Measurements {
     }
   }
 
-  private OneMeasurement getOpMeasurement(String operation) {
+  /**
+   * Resolve the measurements of {@code operation} for the calling client thread, which then records
+   * them without looking the operation up, nor contending with the other client threads.
+   *
+   * @return the recorder of the operation, to use by this thread and the completions of its
+   * asynchronous operations only.
+   */
+  public OperationRecorder newOperationRecorder(String operation) {
+    return new OperationRecorder(this, operation);
+  }
+
+  boolean measuresOperations() {
+    return measurementInterval != 1;
+  }
+
+  boolean measuresIntended() {
+    return measurementInterval != 0;
+  }
+
+  OneMeasurement getOpMeasurement(String operation) {
     OneMeasurement m = opToMesurementMap.get(operation);
     if (m == null) {
-      m = constructOneMeasurement(operation);
-      OneMeasurement oldM = opToMesurementMap.putIfAbsent(operation, m);
-      if (oldM != null) {
-        m = oldM;
-      }
+      // constructed once, as the measurements writing files open them when constructed
+      m = opToMesurementMap.computeIfAbsent(operation, this::constructOneMeasurement);
     }
     return m;
   }
 
-  private OneMeasurement getOpIntendedMeasurement(String operation) {
+  OneMeasurement getOpIntendedMeasurement(String operation) {
     OneMeasurement m = opToIntendedMesurementMap.get(operation);
     if (m == null) {
       final String name = measurementInterval == 1 ? operation : "Intended-" + operation;
-      m = constructOneMeasurement(name);
-      OneMeasurement oldM = opToIntendedMesurementMap.putIfAbsent(operation, m);
-      if (oldM != null) {
-        m = oldM;
-      }
+      m = opToIntendedMesurementMap.computeIfAbsent(operation, op -> constructOneMeasurement(name));
     }
     return m;
   }
@@ -249,6 +281,16 @@ public class Measurements {
     m.reportStatus(status);
   }
 
+  /**
+   * @return the statistic {@code name}, created on first use, for the values which are not
+   * latencies.
+   */
+  public Statistic getStatistic(String name) {
+    // computeIfAbsent locks the bin of an existing key too
+    Statistic statistic = statistics.get(name);
+    return statistic != null ? statistic : statistics.computeIfAbsent(name, Statistic::new);
+  }
+
   /**
    * Export the current measurements to a suitable format.
    *
@@ -262,6 +304,39 @@ public class Measurements {
     for (OneMeasurement measurement : opToIntendedMesurementMap.values()) {
       measurement.exportMeasurements(exporter);
     }
+    for (Statistic statistic : statistics.values()) {
+      statistic.exportMeasurements(exporter);
+    }
+  }
+
+  /**
+   * Take the latencies measured since the previous interval, of the operations whose measurement
+   * keeps a HdrHistogram. These are the intended latencies when they are measured.
+   *
+   * @return the latencies of each operation, recycled by the next interval.
+   */
+  public synchronized Map<String, Histogram> getIntervalHistograms() {
+    Map<String, Histogram> histograms = new HashMap<>();
+    Map<String, OneMeasurement> measurements = measurementInterval == 0 ?
+        opToMesurementMap :
+        opToIntendedMesurementMap;
+    for (Map.Entry<String, OneMeasurement> entry : measurements.entrySet()) {
+      Histogram histogram = entry.getValue().getIntervalHistogram();
+      if (histogram != null) {
+        histograms.put(entry.getKey(), histogram);
+      }
+    }
+    return histograms;
+  }
+
+  /**
+   * @return the measurements of the operations, followed by the ones of their intended latencies,
+   * without stopping their recording.
+   */
+  public List<OneMeasurement> getAllMeasurements() {
+    List<OneMeasurement> measurements = new ArrayList<>(opToMesurementMap.values());
+    measurements.addAll(opToIntendedMesurementMap.values());
+    return measurements;
   }
 
   /**
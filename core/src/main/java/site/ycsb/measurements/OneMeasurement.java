@@ -19,10 +19,14 @@ package site.ycsb.measurements;
 
 import site.ycsb.Status;
 import site.ycsb.measurements.exporter.MeasurementsExporter;
+import org.HdrHistogram.Histogram;
 
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -32,6 +36,7 @@ public abstract class OneMeasurement {
 
   private final String name;
   private final ConcurrentHashMap<Status, AtomicInteger> returncodes;
+  private final List<ThreadMeasurement> threadMeasurements = new CopyOnWriteArrayList<>();
 
   public String getName() {
     return name;
@@ -49,6 +54,24 @@ public abstract class OneMeasurement {
 
   public abstract String getSummary();
 
+  /**
+   * Take the latencies measured since the previous interval, like {@link #getSummary()} does.
+   *
+   * @return the latencies of the interval, recycled by the next interval, or null if this
+   * measurement does not keep a HdrHistogram.
+   */
+  public Histogram getIntervalHistogram() {
+    return null;
+  }
+
+  /**
+   * @return the latencies as of the last interval taken by {@link #getSummary()} or
+   * {@link #getIntervalHistogram()}, or null if this measurement does not keep a HdrHistogram.
+   */
+  public LatencySnapshot getLatencySnapshot() {
+    return null;
+  }
+
   /**
    * No need for synchronization, using CHM to deal with that.
    */
@@ -66,6 +89,22 @@ public abstract class OneMeasurement {
     counter.incrementAndGet();
   }
 
+  /**
+   * @return the part of this measurement recorded by one client thread, whose return codes are
+   * added to the ones of this measurement at the export.
+   */
+  public ThreadMeasurement newThreadMeasurement() {
+    return register(new ThreadMeasurement(this));
+  }
+
+  /**
+   * Count the return codes of {@code threadMeasurement} in this measurement.
+   */
+  protected final <T extends ThreadMeasurement> T register(T threadMeasurement) {
+    threadMeasurements.add(threadMeasurement);
+    return threadMeasurement;
+  }
+
   /**
    * Export the current measurements to a suitable format.
    *
@@ -74,9 +113,25 @@ public abstract class OneMeasurement {
    */
   public abstract void exportMeasurements(MeasurementsExporter exporter) throws IOException;
 
-  protected final void exportStatusCounts(MeasurementsExporter exporter) throws IOException {
+  /**
+   * Count the return codes reported so far, without stopping the threads reporting them.
+   *
+   * @return the number of operations of each return code.
+   */
+  public Map<Status, Long> getStatusCounts() {
+    Map<Status, Long> counts = new LinkedHashMap<>();
     for (Map.Entry<Status, AtomicInteger> entry : returncodes.entrySet()) {
-      exporter.write(getName(), "Return=" + entry.getKey().getName(), entry.getValue().get());
+      counts.put(entry.getKey(), (long) entry.getValue().get());
+    }
+    for (ThreadMeasurement threadMeasurement : threadMeasurements) {
+      threadMeasurement.addStatusCounts(counts);
+    }
+    return counts;
+  }
+
+  protected final void exportStatusCounts(MeasurementsExporter exporter) throws IOException {
+    for (Map.Entry<Status, Long> entry : getStatusCounts().entrySet()) {
+      exporter.write(getName(), "Return=" + entry.getKey().getName(), entry.getValue());
     }
   }
 }
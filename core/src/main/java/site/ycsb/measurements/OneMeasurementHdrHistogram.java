@@ -20,17 +20,16 @@ package site.ycsb.measurements;
 import site.ycsb.measurements.exporter.MeasurementsExporter;
 import org.HdrHistogram.Histogram;
 import org.HdrHistogram.HistogramIterationValue;
-import org.HdrHistogram.HistogramLogWriter;
 import org.HdrHistogram.Recorder;
 
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.PrintStream;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Take measurements and maintain a HdrHistogram of a given metric, such as READ LATENCY.
@@ -39,11 +38,21 @@ import java.util.Properties;
 public class OneMeasurementHdrHistogram extends OneMeasurement {
 
   // we need one log per measurement histogram
-  private final PrintStream log;
-  private final HistogramLogWriter histogramLogWriter;
+  private final HistogramLog histogramLog;
+
+  // the number of recorders of the client threads, which share them past that number
+  private static final int STRIPES = Runtime.getRuntime().availableProcessors();
 
   private final Recorder histogram;
   private Histogram totalHistogram;
+  // the interval histogram handed back to the recorder at the next interval
+  private Histogram recycledHistogram;
+  // the last interval, published for the readers of the measurement other than the status thread
+  private volatile LatencySnapshot snapshot;
+
+  private final AtomicReferenceArray<Recorder> stripes = new AtomicReferenceArray<>(STRIPES);
+  private final Histogram[] recycledStripes = new Histogram[STRIPES];
+  private final AtomicInteger nextStripe = new AtomicInteger();
 
   /**
    * The name of the property for deciding what percentile values to output.
@@ -73,22 +82,14 @@ public class OneMeasurementHdrHistogram extends OneMeasurement {
     verbose = Boolean.valueOf(props.getProperty(VERBOSE_PROPERTY, String.valueOf(false)));
     boolean shouldLog = Boolean.parseBoolean(props.getProperty("hdrhistogram.fileoutput", "false"));
     if (!shouldLog) {
-      log = null;
-      histogramLogWriter = null;
+      histogramLog = null;
     } else {
       try {
         final String hdrOutputFilename = props.getProperty("hdrhistogram.output.path", "") + name + ".hdr";
-        log = new PrintStream(new FileOutputStream(hdrOutputFilename), false);
+        histogramLog = new HistogramLog(hdrOutputFilename, name, System.currentTimeMillis());
       } catch (FileNotFoundException e) {
         throw new RuntimeException("Failed to open hdr histogram output file", e);
       }
-      histogramLogWriter = new HistogramLogWriter(log);
-      histogramLogWriter.outputComment("[Logging for: " + name + "]");
-      histogramLogWriter.outputLogFormatVersion();
-      long now = System.currentTimeMillis();
-      histogramLogWriter.outputStartTime(now);
-      histogramLogWriter.setBaseTime(now);
-      histogramLogWriter.outputLegend();
     }
     histogram = new Recorder(3);
   }
@@ -101,6 +102,19 @@ public class OneMeasurementHdrHistogram extends OneMeasurement {
     histogram.recordValue(latencyInMicros);
   }
 
+  /**
+   * The client threads record in their own {@link Recorder}, rather than all of them contending on
+   * the one of the measurement. They are merged at each interval.
+   */
+  @Override
+  public ThreadMeasurement newThreadMeasurement() {
+    int stripe = nextStripe.getAndIncrement() % STRIPES;
+    if (stripes.get(stripe) == null) {
+      stripes.compareAndSet(stripe, null, new Recorder(3));
+    }
+    return register(new StripeMeasurement(this, stripes.get(stripe)));
+  }
+
   /**
    * This is called from a main thread, on orderly termination.
    */
@@ -108,10 +122,10 @@ public class OneMeasurementHdrHistogram extends OneMeasurement {
   public void exportMeasurements(MeasurementsExporter exporter) throws IOException {
     // accumulate the last interval which was not caught by status thread
     Histogram intervalHistogram = getIntervalHistogramAndAccumulate();
-    if (histogramLogWriter != null) {
-      histogramLogWriter.outputIntervalHistogram(intervalHistogram);
+    if (histogramLog != null) {
+      histogramLog.write(intervalHistogram);
       // we can close now
-      log.close();
+      histogramLog.close();
     }
     exporter.write(getName(), "Operations", totalHistogram.getTotalCount());
     exporter.write(getName(), "AverageLatency(us)", totalHistogram.getMean());
@@ -149,11 +163,7 @@ public class OneMeasurementHdrHistogram extends OneMeasurement {
    */
   @Override
   public String getSummary() {
-    Histogram intervalHistogram = getIntervalHistogramAndAccumulate();
-    // we use the summary interval as the histogram file interval.
-    if (histogramLogWriter != null) {
-      histogramLogWriter.outputIntervalHistogram(intervalHistogram);
-    }
+    Histogram intervalHistogram = getIntervalHistogram();
 
     DecimalFormat d = new DecimalFormat("#.##");
     return "[" + getName() + ": Count=" + intervalHistogram.getTotalCount() + ", Max="
@@ -164,15 +174,39 @@ public class OneMeasurementHdrHistogram extends OneMeasurement {
         + d.format(intervalHistogram.getValueAtPercentile(99.99)) + "]";
   }
 
-  private Histogram getIntervalHistogramAndAccumulate() {
-    Histogram intervalHistogram = histogram.getIntervalHistogram();
+  @Override
+  public Histogram getIntervalHistogram() {
+    Histogram intervalHistogram = getIntervalHistogramAndAccumulate();
+    // we use the summary interval as the histogram file interval.
+    if (histogramLog != null) {
+      histogramLog.write(intervalHistogram);
+    }
+    return intervalHistogram;
+  }
+
+  private synchronized Histogram getIntervalHistogramAndAccumulate() {
+    recycledHistogram = histogram.getIntervalHistogram(recycledHistogram);
+    for (int i = 0; i < STRIPES; i++) {
+      Recorder stripe = stripes.get(i);
+      if (stripe != null) {
+        recycledStripes[i] = stripe.getIntervalHistogram(recycledStripes[i]);
+        recycledHistogram.add(recycledStripes[i]);
+      }
+    }
     // add this to the total time histogram.
     if (totalHistogram == null) {
-      totalHistogram = intervalHistogram;
+      totalHistogram = recycledHistogram.copy();
     } else {
-      totalHistogram.add(intervalHistogram);
+      totalHistogram.add(recycledHistogram);
     }
-    return intervalHistogram;
+    snapshot = new LatencySnapshot(recycledHistogram.copy(), totalHistogram.getTotalCount(),
+        totalHistogram.getMean() * totalHistogram.getTotalCount());
+    return recycledHistogram;
+  }
+
+  @Override
+  public LatencySnapshot getLatencySnapshot() {
+    return snapshot;
   }
 
   /**
@@ -181,7 +215,7 @@ public class OneMeasurementHdrHistogram extends OneMeasurement {
    * @param percentileString - comma delimited string of Integer values
    * @return An Integer List of percentile values
    */
-  private List<Double> getPercentileValues(String percentileString) {
+  public static List<Double> getPercentileValues(String percentileString) {
     List<Double> percentileValues = new ArrayList<>();
 
     try {
@@ -205,7 +239,7 @@ public class OneMeasurementHdrHistogram extends OneMeasurement {
    * @param i number
    * @return ordinal string
    */
-  private String ordinal(Double i) {
+  public static String ordinal(Double i) {
     String[] suffixes = new String[]{"th", "st", "nd", "rd", "th", "th", "th", "th", "th", "th"};
     Integer j = i.intValue();
     if (i % 1 == 0) {
@@ -221,4 +255,21 @@ public class OneMeasurementHdrHistogram extends OneMeasurement {
       return i.toString();
     }
   }
+
+  /**
+   * The recording of the client threads of one stripe.
+   */
+  private static final class StripeMeasurement extends ThreadMeasurement {
+    private final Recorder recorder;
+
+    private StripeMeasurement(OneMeasurement measurement, Recorder recorder) {
+      super(measurement);
+      this.recorder = recorder;
+    }
+
+    @Override
+    public void measure(int latencyInMicros) {
+      recorder.recordValue(latencyInMicros);
+    }
+  }
 }
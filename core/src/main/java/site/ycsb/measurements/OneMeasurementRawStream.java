@@ -0,0 +1,263 @@
+/**
+ * Copyright (c) 2023 YCSB contributors. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb.measurements;
+
+import site.ycsb.measurements.exporter.MeasurementsExporter;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Record every latency like {@link OneMeasurementRaw}, but stream them to a binary file instead of
+ * keeping them in memory, so that the memory used stays the same however long the run is.
+ *
+ * The client threads append fixed width records to buffers of their stripe, and a background
+ * thread writes the full buffers to the file "[measurement.rawstream.output_path]NAME.raw". When
+ * the writer falls behind by "measurement.rawstream.queued_buffers" buffers, the client threads
+ * wait for it rather than growing the queue.
+ *
+ * The file starts with the 8 bytes "YCSBRAW1", followed by a record of 12 big endian bytes per
+ * operation: the time the operation ended at, in microseconds since the epoch, and its latency in
+ * microseconds. {@link RawLatencySummary} computes the exact percentiles of the files, which are
+ * also exported at the end of the run unless "measurement.raw.no_summary" is set.
+ */
+public class OneMeasurementRawStream extends OneMeasurement {
+  /**
+   * The prefix of the output files, such as a directory ending with a separator.
+   */
+  public static final String OUTPUT_PATH = "measurement.rawstream.output_path";
+  public static final String OUTPUT_PATH_DEFAULT = "";
+
+  /**
+   * The number of records of a buffer.
+   */
+  public static final String BUFFER_RECORDS = "measurement.rawstream.buffer_records";
+  public static final String BUFFER_RECORDS_DEFAULT = "4096";
+
+  /**
+   * The number of full buffers waiting for the writer before the client threads wait too.
+   */
+  public static final String QUEUED_BUFFERS = "measurement.rawstream.queued_buffers";
+  public static final String QUEUED_BUFFERS_DEFAULT = "64";
+
+  static final byte[] MAGIC = {'Y', 'C', 'S', 'B', 'R', 'A', 'W', '1'};
+  static final int RECORD_SIZE = 12;
+
+  // the number of buffers filled concurrently, the client threads sharing them past that number
+  private static final int STRIPES = Runtime.getRuntime().availableProcessors();
+  // asks the writer to stop
+  private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+  private final String path;
+  private final FileChannel channel;
+  private final boolean noSummaryStats;
+  private final int bufferSize;
+  private final BlockingQueue<ByteBuffer> filled;
+  private final BlockingQueue<ByteBuffer> free;
+  private final Stripe[] stripes = new Stripe[STRIPES];
+  private final AtomicInteger nextStripe = new AtomicInteger();
+  private final Thread writer;
+  private final long epochMicros;
+  private final long baseNanos;
+  private volatile IOException writeError;
+  private volatile boolean closed;
+
+  // A window of stats to print summary for at the next getSummary() call.
+  private final LongAdder windowOperations = new LongAdder();
+  private final LongAdder windowTotalLatency = new LongAdder();
+
+  public OneMeasurementRawStream(String name, Properties props) {
+    super(name);
+    path = props.getProperty(OUTPUT_PATH, OUTPUT_PATH_DEFAULT) + name + ".raw";
+    System.out.println("Raw data measurement: will stream to result file: " + path);
+    try {
+      channel = new FileOutputStream(path).getChannel();
+      channel.write(ByteBuffer.wrap(MAGIC));
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to open raw data output file " + path, e);
+    }
+    noSummaryStats = Boolean.parseBoolean(props.getProperty(OneMeasurementRaw.NO_SUMMARY_STATS,
+        OneMeasurementRaw.NO_SUMMARY_STATS_DEFAULT));
+    bufferSize = RECORD_SIZE * Integer.parseInt(props.getProperty(BUFFER_RECORDS, BUFFER_RECORDS_DEFAULT));
+    int queuedBuffers = Integer.parseInt(props.getProperty(QUEUED_BUFFERS, QUEUED_BUFFERS_DEFAULT));
+    filled = new ArrayBlockingQueue<>(queuedBuffers + 1);
+    free = new ArrayBlockingQueue<>(queuedBuffers);
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new Stripe();
+    }
+    epochMicros = System.currentTimeMillis() * 1000;
+    baseNanos = System.nanoTime();
+
+    writer = new Thread(this::write, "RawStreamWriter-" + name);
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  @Override
+  public void measure(int latency) {
+    stripes[(int) (Thread.currentThread().getId() % STRIPES)].append(latency);
+  }
+
+  @Override
+  public ThreadMeasurement newThreadMeasurement() {
+    return register(new StripeMeasurement(this, stripes[nextStripe.getAndIncrement() % STRIPES]));
+  }
+
+  /**
+   * Write the full buffers until the end of the measurement.
+   */
+  private void write() {
+    while (true) {
+      ByteBuffer buffer;
+      try {
+        buffer = filled.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      if (buffer == END) {
+        return;
+      }
+      // after an error, keep taking the buffers so that the client threads never wait for the writer
+      if (writeError == null) {
+        try {
+          buffer.flip();
+          while (buffer.hasRemaining()) {
+            channel.write(buffer);
+          }
+        } catch (IOException e) {
+          writeError = e;
+          closed = true;
+        }
+      }
+      buffer.clear();
+      free.offer(buffer);
+    }
+  }
+
+  private ByteBuffer handOff(ByteBuffer buffer) {
+    if (closed) {
+      // measured after the export, or the file cannot be written
+      buffer.clear();
+      return buffer;
+    }
+    try {
+      filled.put(buffer);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      buffer.clear();
+      return buffer;
+    }
+    ByteBuffer next = free.poll();
+    return next != null ? next : ByteBuffer.allocate(bufferSize);
+  }
+
+  /**
+   * This is called from a main thread, on orderly termination.
+   */
+  @Override
+  public void exportMeasurements(MeasurementsExporter exporter) throws IOException {
+    if (writer.isAlive()) {
+      for (Stripe stripe : stripes) {
+        stripe.flush();
+      }
+      closed = true;
+      try {
+        filled.put(END);
+        writer.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      channel.close();
+    }
+    if (writeError != null) {
+      throw new IOException("Failed to write raw data output file " + path, writeError);
+    }
+
+    RawLatencySummary summary = RawLatencySummary.read(path);
+    exporter.write(getName(), "Total Operations", summary.getOperations());
+    if (summary.getOperations() > 0 && !noSummaryStats) {
+      exporter.write(getName(), "Below is a summary of latency in microseconds:", -1);
+      exporter.write(getName(), "Average", summary.getAverage());
+      exporter.write(getName(), "Min", summary.getMin());
+      exporter.write(getName(), "Max", summary.getMax());
+      for (double percentile : RawLatencySummary.PERCENTILES) {
+        exporter.write(getName(), RawLatencySummary.label(percentile), summary.getPercentile(percentile));
+      }
+    }
+
+    exportStatusCounts(exporter);
+  }
+
+  @Override
+  public String getSummary() {
+    long operations = windowOperations.sumThenReset();
+    long totalLatency = windowTotalLatency.sumThenReset();
+    if (operations == 0) {
+      return "";
+    }
+    return String.format("%s count: %d, average latency(us): %.2f", getName(), operations,
+        (double) totalLatency / (double) operations);
+  }
+
+  /**
+   * The buffer filled by the client threads of a stripe.
+   */
+  private final class Stripe {
+    private ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+
+    private synchronized void append(int latency) {
+      buffer.putLong(epochMicros + (System.nanoTime() - baseNanos) / 1000).putInt(latency);
+      if (!buffer.hasRemaining()) {
+        buffer = handOff(buffer);
+      }
+      windowOperations.increment();
+      windowTotalLatency.add(latency);
+    }
+
+    private synchronized void flush() {
+      if (buffer.position() > 0) {
+        buffer = handOff(buffer);
+      }
+    }
+  }
+
+  /**
+   * The recording of the client threads of one stripe.
+   */
+  private static final class StripeMeasurement extends ThreadMeasurement {
+    private final Stripe stripe;
+
+    private StripeMeasurement(OneMeasurement measurement, Stripe stripe) {
+      super(measurement);
+      this.stripe = stripe;
+    }
+
+    @Override
+    public void measure(int latency) {
+      stripe.append(latency);
+    }
+  }
+}
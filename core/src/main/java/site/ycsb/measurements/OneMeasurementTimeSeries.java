@@ -18,28 +18,43 @@
 package site.ycsb.measurements;
 
 import site.ycsb.measurements.exporter.MeasurementsExporter;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
 
 import java.io.IOException;
 import java.text.DecimalFormat;
+import java.util.List;
 import java.util.Properties;
 import java.util.Vector;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
 class SeriesUnit {
   /**
    * @param time
    * @param average
+   * @param percentiles
    */
-  public SeriesUnit(long time, double average) {
+  public SeriesUnit(long time, double average, long[] percentiles) {
     this.time = time;
     this.average = average;
+    this.percentiles = percentiles;
   }
 
   protected final long time;
   protected final double average;
+  protected final long[] percentiles;
 }
 
 /**
  * A time series measurement of a metric, such as READ LATENCY.
+ *
+ * The latencies are recorded without locking in HdrHistogram {@link Recorder}s, the client threads
+ * sharing one per processor. The first operation measured past the end of a unit of the series
+ * takes the interval histograms of the recorders, and keeps the average and the
+ * "timeseries.percentiles" of the unit. The other threads keep recording meanwhile.
  */
 public class OneMeasurementTimeSeries extends OneMeasurement {
 
@@ -49,98 +64,177 @@ public class OneMeasurementTimeSeries extends OneMeasurement {
   public static final String GRANULARITY = "timeseries.granularity";
   public static final String GRANULARITY_DEFAULT = "1000";
 
+  /**
+   * The percentiles of each unit of the series, also exported for the whole run.
+   */
+  public static final String PERCENTILES = "timeseries.percentiles";
+  public static final String PERCENTILES_DEFAULT = "50,95,99,99.9";
+
+  // the number of recorders of the client threads, which share them past that number
+  private static final int STRIPES = Runtime.getRuntime().availableProcessors();
+
   private final int granularity;
+  private final List<Double> percentiles;
   private final Vector<SeriesUnit> measurements;
 
+  private final Recorder histogram = new Recorder(3);
+  private final AtomicReferenceArray<Recorder> stripes = new AtomicReferenceArray<>(STRIPES);
+  private final AtomicInteger nextStripe = new AtomicInteger();
+
+  // held by the thread ending a unit, the others do not wait for it
+  private final ReentrantLock unitLock = new ReentrantLock();
+  // when the current unit ends, in milliseconds since the epoch
+  private volatile long unitEnd = 0;
+
+  // guarded by unitLock
   private long start = -1;
   private long currentunit = -1;
-  private long count = 0;
-  private long sum = 0;
-  private long operations = 0;
-  private long totallatency = 0;
+  private Histogram recycledHistogram;
+  private final Histogram[] recycledStripes = new Histogram[STRIPES];
+  private final Histogram unitHistogram = new Histogram(3);
+  private final Histogram totalHistogram = new Histogram(3);
 
   //keep a windowed version of these stats for printing status
-  private int windowoperations = 0;
-  private long windowtotallatency = 0;
-
-  private int min = -1;
-  private int max = -1;
+  private final LongAdder windowoperations = new LongAdder();
+  private final LongAdder windowtotallatency = new LongAdder();
 
   public OneMeasurementTimeSeries(String name, Properties props) {
     super(name);
     granularity = Integer.parseInt(props.getProperty(GRANULARITY, GRANULARITY_DEFAULT));
+    percentiles = OneMeasurementHdrHistogram.getPercentileValues(props.getProperty(PERCENTILES, PERCENTILES_DEFAULT));
     measurements = new Vector<>();
   }
 
-  private synchronized void checkEndOfUnit(boolean forceend) {
+  private void checkEndOfUnit(boolean forceend) {
     long now = System.currentTimeMillis();
 
-    if (start < 0) {
-      currentunit = 0;
-      start = now;
+    if (forceend) {
+      unitLock.lock();
+    } else if (now < unitEnd || !unitLock.tryLock()) {
+      return;
     }
+    try {
+      if (start < 0) {
+        currentunit = 0;
+        start = now;
+      }
+
+      long unit = ((now - start) / granularity) * granularity;
+
+      if ((unit > currentunit) || (forceend)) {
+        endUnit();
+        currentunit = unit;
+      }
+      unitEnd = start + currentunit + granularity;
+    } finally {
+      unitLock.unlock();
+    }
+  }
 
-    long unit = ((now - start) / granularity) * granularity;
-
-    if ((unit > currentunit) || (forceend)) {
-      double avg = ((double) sum) / ((double) count);
-      measurements.add(new SeriesUnit(currentunit, avg));
-
-      currentunit = unit;
+  /**
+   * Take the latencies of the current unit from the recorders.
+   */
+  private void endUnit() {
+    recycledHistogram = histogram.getIntervalHistogram(recycledHistogram);
+    unitHistogram.add(recycledHistogram);
+    for (int i = 0; i < STRIPES; i++) {
+      Recorder stripe = stripes.get(i);
+      if (stripe != null) {
+        recycledStripes[i] = stripe.getIntervalHistogram(recycledStripes[i]);
+        unitHistogram.add(recycledStripes[i]);
+      }
+    }
+    if (unitHistogram.getTotalCount() == 0) {
+      return;
+    }
 
-      count = 0;
-      sum = 0;
+    long[] values = new long[percentiles.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = unitHistogram.getValueAtPercentile(percentiles.get(i));
     }
+    measurements.add(new SeriesUnit(currentunit, unitHistogram.getMean(), values));
+    totalHistogram.add(unitHistogram);
+    unitHistogram.reset();
   }
 
   @Override
   public void measure(int latency) {
     checkEndOfUnit(false);
 
-    count++;
-    sum += latency;
-    totallatency += latency;
-    operations++;
-    windowoperations++;
-    windowtotallatency += latency;
-
-    if (latency > max) {
-      max = latency;
-    }
+    histogram.recordValue(latency);
+    windowoperations.increment();
+    windowtotallatency.add(latency);
+  }
 
-    if ((latency < min) || (min < 0)) {
-      min = latency;
+  /**
+   * The client threads record in their own {@link Recorder}, rather than all of them contending on
+   * the one of the measurement.
+   */
+  @Override
+  public ThreadMeasurement newThreadMeasurement() {
+    int stripe = nextStripe.getAndIncrement() % STRIPES;
+    if (stripes.get(stripe) == null) {
+      stripes.compareAndSet(stripe, null, new Recorder(3));
     }
+    return register(new StripeMeasurement(this, stripes.get(stripe)));
   }
 
-
   @Override
   public void exportMeasurements(MeasurementsExporter exporter) throws IOException {
     checkEndOfUnit(true);
 
-    exporter.write(getName(), "Operations", operations);
-    exporter.write(getName(), "AverageLatency(us)", (((double) totallatency) / ((double) operations)));
-    exporter.write(getName(), "MinLatency(us)", min);
-    exporter.write(getName(), "MaxLatency(us)", max);
-
-    // TODO: 95th and 99th percentile latency
+    exporter.write(getName(), "Operations", totalHistogram.getTotalCount());
+    exporter.write(getName(), "AverageLatency(us)", totalHistogram.getMean());
+    exporter.write(getName(), "MinLatency(us)", totalHistogram.getMinValue());
+    exporter.write(getName(), "MaxLatency(us)", totalHistogram.getMaxValue());
+    for (Double percentile : percentiles) {
+      exporter.write(getName(), OneMeasurementHdrHistogram.ordinal(percentile) + "PercentileLatency(us)",
+          totalHistogram.getValueAtPercentile(percentile));
+    }
 
     exportStatusCounts(exporter);
     for (SeriesUnit unit : measurements) {
-      exporter.write(getName(), Long.toString(unit.time), unit.average);
+      String time = Long.toString(unit.time);
+      exporter.write(getName(), time, unit.average);
+      for (int i = 0; i < unit.percentiles.length; i++) {
+        exporter.write(getName(), time + " " + OneMeasurementHdrHistogram.ordinal(percentiles.get(i)) +
+            "PercentileLatency(us)", unit.percentiles[i]);
+      }
     }
   }
 
   @Override
   public String getSummary() {
-    if (windowoperations == 0) {
+    long operations = windowoperations.sumThenReset();
+    long totallatency = windowtotallatency.sumThenReset();
+    if (operations == 0) {
       return "";
     }
     DecimalFormat d = new DecimalFormat("#.##");
-    double report = ((double) windowtotallatency) / ((double) windowoperations);
-    windowtotallatency = 0;
-    windowoperations = 0;
+    double report = ((double) totallatency) / ((double) operations);
     return "[" + getName() + " AverageLatency(us)=" + d.format(report) + "]";
   }
 
+  /**
+   * The recording of the client threads of one stripe.
+   */
+  private static final class StripeMeasurement extends ThreadMeasurement {
+    private final OneMeasurementTimeSeries measurement;
+    private final Recorder recorder;
+
+    private StripeMeasurement(OneMeasurementTimeSeries measurement, Recorder recorder) {
+      super(measurement);
+      this.measurement = measurement;
+      this.recorder = recorder;
+    }
+
+    @Override
+    public void measure(int latency) {
+      measurement.checkEndOfUnit(false);
+
+      recorder.recordValue(latency);
+      measurement.windowoperations.increment();
+      measurement.windowtotallatency.add(latency);
+    }
+  }
 }
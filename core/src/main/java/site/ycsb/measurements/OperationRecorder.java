@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2023 YCSB contributors. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb.measurements;
+
+import site.ycsb.Status;
+
+/**
+ * Records the measurements of one operation for one client thread, see
+ * {@link Measurements#newOperationRecorder(String)}. The measurements of the operation are looked up
+ * at the first recording only, as the operation does not show in the measurements before it is
+ * recorded, and the recording then goes to the {@link ThreadMeasurement} of this thread.
+ */
+public final class OperationRecorder {
+  private final Measurements measurements;
+  private final String operation;
+  private ThreadMeasurement measurement;
+  private ThreadMeasurement intendedMeasurement;
+
+  OperationRecorder(Measurements measurements, String operation) {
+    this.measurements = measurements;
+    this.operation = operation;
+  }
+
+  /**
+   * Report a single latency of the operation, see {@link Measurements#measure(String, int)}.
+   */
+  public void measure(int latency) {
+    if (!measurements.measuresOperations()) {
+      return;
+    }
+    measure(getMeasurement(), latency);
+  }
+
+  /**
+   * Report a single intended latency of the operation, see
+   * {@link Measurements#measureIntended(String, int)}.
+   */
+  public void measureIntended(int latency) {
+    if (!measurements.measuresIntended()) {
+      return;
+    }
+    measure(getIntendedMeasurement(), latency);
+  }
+
+  /**
+   * Report a return code of the operation, see {@link Measurements#reportStatus(String, Status)}.
+   */
+  public void reportStatus(Status status) {
+    if (measurements.measuresOperations()) {
+      getMeasurement().reportStatus(status);
+    } else {
+      getIntendedMeasurement().reportStatus(status);
+    }
+  }
+
+  // a race with an asynchronous completion only creates one more thread measurement
+  private ThreadMeasurement getMeasurement() {
+    if (measurement == null) {
+      measurement = measurements.getOpMeasurement(operation).newThreadMeasurement();
+    }
+    return measurement;
+  }
+
+  private ThreadMeasurement getIntendedMeasurement() {
+    if (intendedMeasurement == null) {
+      intendedMeasurement = measurements.getOpIntendedMeasurement(operation).newThreadMeasurement();
+    }
+    return intendedMeasurement;
+  }
+
+  private static void measure(ThreadMeasurement threadMeasurement, int latency) {
+    try {
+      threadMeasurement.measure(latency);
+    } catch (java.lang.ArrayIndexOutOfBoundsException e) {
+      // the same cover up as in Measurements, for the negative latencies of a stop during a pause
+      System.out.println("ERROR: java.lang.ArrayIndexOutOfBoundsException - ignoring and continuing");
+      e.printStackTrace();
+      e.printStackTrace(System.out);
+    }
+  }
+}
@@ -0,0 +1,166 @@
+/**
+ * Copyright (c) 2023 YCSB contributors. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb.measurements;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The exact latency statistics of the files written by {@link OneMeasurementRawStream}. The
+ * latencies are counted by value rather than kept, so the memory used depends on the number of
+ * distinct latencies and not on the number of operations.
+ *
+ * Usage: java -cp ycsb-core.jar site.ycsb.measurements.RawLatencySummary FILE...
+ *
+ * Several files, such as the ones of several clients, are summarized together.
+ */
+public final class RawLatencySummary {
+  /**
+   * The percentiles of the summary, the ones {@link OneMeasurementRaw} exports.
+   */
+  static final double[] PERCENTILES = {1, 5, 50, 90, 95, 99, 99.9, 99.99};
+
+  // the latencies below are counted in an array, the rarer ones above in a map
+  private static final int DENSE_LATENCIES = 1 << 20;
+
+  private final long[] counts = new long[DENSE_LATENCIES];
+  private final TreeMap<Integer, Long> sparseCounts = new TreeMap<>();
+  private long operations;
+  private long totalLatency;
+  private int min = Integer.MAX_VALUE;
+  private int max = Integer.MIN_VALUE;
+
+  private RawLatencySummary() {
+  }
+
+  /**
+   * @return the summary of the latencies of {@code files}.
+   */
+  public static RawLatencySummary read(String... files) throws IOException {
+    RawLatencySummary summary = new RawLatencySummary();
+    for (String file : files) {
+      summary.add(file);
+    }
+    return summary;
+  }
+
+  private void add(String file) throws IOException {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+      byte[] magic = new byte[OneMeasurementRawStream.MAGIC.length];
+      in.readFully(magic);
+      if (!Arrays.equals(magic, OneMeasurementRawStream.MAGIC)) {
+        throw new IOException(file + " is not a raw data file");
+      }
+      while (true) {
+        try {
+          in.readLong();
+        } catch (EOFException e) {
+          return;
+        }
+        add(in.readInt());
+      }
+    }
+  }
+
+  private void add(int latency) {
+    operations++;
+    totalLatency += latency;
+    min = Math.min(min, latency);
+    max = Math.max(max, latency);
+    if (latency >= 0 && latency < DENSE_LATENCIES) {
+      counts[latency]++;
+    } else {
+      sparseCounts.merge(latency, 1L, Long::sum);
+    }
+  }
+
+  public long getOperations() {
+    return operations;
+  }
+
+  public double getAverage() {
+    return (double) totalLatency / (double) operations;
+  }
+
+  public int getMin() {
+    return min;
+  }
+
+  public int getMax() {
+    return max;
+  }
+
+  /**
+   * @return the latency of the operation at {@code percentile} percent of the sorted latencies,
+   * the same one {@link OneMeasurementRaw} picks.
+   */
+  public int getPercentile(double percentile) {
+    long index = Math.min((long) (operations * percentile / 100), operations - 1);
+    long seen = 0;
+    for (Map.Entry<Integer, Long> entry : sparseCounts.headMap(0).entrySet()) {
+      seen += entry.getValue();
+      if (seen > index) {
+        return entry.getKey();
+      }
+    }
+    for (int latency = 0; latency < DENSE_LATENCIES; latency++) {
+      seen += counts[latency];
+      if (seen > index) {
+        return latency;
+      }
+    }
+    for (Map.Entry<Integer, Long> entry : sparseCounts.tailMap(0).entrySet()) {
+      seen += entry.getValue();
+      if (seen > index) {
+        return entry.getKey();
+      }
+    }
+    return max;
+  }
+
+  /**
+   * @return the name of {@code percentile} in the summary, such as p99.9.
+   */
+  static String label(double percentile) {
+    return percentile == Math.rint(percentile) ? "p" + (long) percentile : "p" + percentile;
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0) {
+      System.err.println("Usage: java site.ycsb.measurements.RawLatencySummary FILE...");
+      System.exit(1);
+    }
+    RawLatencySummary summary = read(args);
+    System.out.println("Operations: " + summary.getOperations());
+    if (summary.getOperations() == 0) {
+      return;
+    }
+    System.out.println(String.format("Average(us): %.2f", summary.getAverage()));
+    System.out.println("Min(us): " + summary.getMin());
+    System.out.println("Max(us): " + summary.getMax());
+    for (double percentile : PERCENTILES) {
+      System.out.println(label(percentile) + "(us): " + summary.getPercentile(percentile));
+    }
+  }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2023 YCSB contributors. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb.measurements;
+
+import site.ycsb.measurements.exporter.MeasurementsExporter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A value which is not a latency, such as a count of retries or a queue depth, sampled by the
+ * client threads and exported once at the end of the run with its count, total, average and
+ * maximum, see {@link Measurements#getStatistic(String)}. Unlike the operation measurements, it
+ * has no percentiles nor unit.
+ */
+public final class Statistic {
+  private final String name;
+  private final LongAdder count = new LongAdder();
+  private final DoubleAdder total = new DoubleAdder();
+  private final DoubleAccumulator max = new DoubleAccumulator(Math::max, Double.NEGATIVE_INFINITY);
+
+  Statistic(String name) {
+    this.name = name;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Add a sample of the value.
+   */
+  public void add(double value) {
+    count.increment();
+    total.add(value);
+    max.accumulate(value);
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+
+  public double getTotal() {
+    return total.sum();
+  }
+
+  void exportMeasurements(MeasurementsExporter exporter) throws IOException {
+    long samples = getCount();
+    exporter.write(name, "Count", samples);
+    write(exporter, "Total", getTotal());
+    if (samples > 0) {
+      exporter.write(name, "Average", getTotal() / samples);
+      write(exporter, "Max", max.get());
+    }
+  }
+
+  /**
+   * Write the whole values as integers, as most statistics count something.
+   */
+  private void write(MeasurementsExporter exporter, String measurement, double value) throws IOException {
+    if (value == Math.rint(value) && Math.abs(value) < Long.MAX_VALUE) {
+      exporter.write(name, measurement, (long) value);
+    } else {
+      exporter.write(name, measurement, value);
+    }
+  }
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2023 YCSB contributors. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb.measurements;
+
+import site.ycsb.Status;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The part of a {@link OneMeasurement} recorded by one client thread, see
+ * {@link OneMeasurement#newThreadMeasurement()}. The return codes are counted here and only summed
+ * at the export, and the latencies go to the measurement, unless it keeps structures of its own for
+ * the threads.
+ *
+ * The thread shares it with the completions of its asynchronous operations, so recording stays
+ * thread safe, but is not contended by the other client threads.
+ */
+public class ThreadMeasurement {
+  private final OneMeasurement measurement;
+  // copied on write, a thread rarely sees more than a couple of return codes
+  private volatile StatusCount[] statusCounts = new StatusCount[0];
+
+  protected ThreadMeasurement(OneMeasurement measurement) {
+    this.measurement = measurement;
+  }
+
+  /**
+   * Report a single latency, in microseconds.
+   */
+  public void measure(int latency) {
+    measurement.measure(latency);
+  }
+
+  /**
+   * Report a return code.
+   */
+  public void reportStatus(Status status) {
+    for (StatusCount statusCount : statusCounts) {
+      if (statusCount.status == status) {
+        statusCount.count.incrementAndGet();
+        return;
+      }
+    }
+    getStatusCount(status).incrementAndGet();
+  }
+
+  private synchronized AtomicLong getStatusCount(Status status) {
+    for (StatusCount statusCount : statusCounts) {
+      if (statusCount.status.equals(status)) {
+        return statusCount.count;
+      }
+    }
+    StatusCount[] counts = Arrays.copyOf(statusCounts, statusCounts.length + 1);
+    counts[counts.length - 1] = new StatusCount(status);
+    statusCounts = counts;
+    return counts[counts.length - 1].count;
+  }
+
+  /**
+   * Add the return codes counted by this thread to {@code totals}.
+   */
+  void addStatusCounts(Map<Status, Long> totals) {
+    for (StatusCount statusCount : statusCounts) {
+      totals.merge(statusCount.status, statusCount.count.get(), Long::sum);
+    }
+  }
+
+  private static final class StatusCount {
+    private final Status status;
+    private final AtomicLong count = new AtomicLong();
+
+    private StatusCount(Status status) {
+      this.status = status;
+    }
+  }
+}
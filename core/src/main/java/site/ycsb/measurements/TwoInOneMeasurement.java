@@ -19,8 +19,10 @@ package site.ycsb.measurements;
 
 import site.ycsb.Status;
 import site.ycsb.measurements.exporter.MeasurementsExporter;
+import org.HdrHistogram.Histogram;
 
 import java.io.IOException;
+import java.util.Map;
 
 /**
  * delegates to 2 measurement instances.
@@ -73,4 +75,49 @@ public class TwoInOneMeasurement extends OneMeasurement {
     return thing1.getSummary() + "\n" + thing2.getSummary();
   }
 
+  @Override
+  public Histogram getIntervalHistogram() {
+    return thing1.getIntervalHistogram();
+  }
+
+  @Override
+  public LatencySnapshot getLatencySnapshot() {
+    return thing1.getLatencySnapshot();
+  }
+
+  @Override
+  public Map<Status, Long> getStatusCounts() {
+    return thing1.getStatusCounts();
+  }
+
+  @Override
+  public ThreadMeasurement newThreadMeasurement() {
+    return new TwoInOneThreadMeasurement(this, thing1.newThreadMeasurement(), thing2.newThreadMeasurement());
+  }
+
+  /**
+   * Delegates to the thread measurements of the 2 instances.
+   */
+  private static final class TwoInOneThreadMeasurement extends ThreadMeasurement {
+    private final ThreadMeasurement thing1, thing2;
+
+    private TwoInOneThreadMeasurement(OneMeasurement measurement, ThreadMeasurement thing1,
+                                      ThreadMeasurement thing2) {
+      super(measurement);
+      this.thing1 = thing1;
+      this.thing2 = thing2;
+    }
+
+    @Override
+    public void measure(int latencyInMicros) {
+      thing1.measure(latencyInMicros);
+      thing2.measure(latencyInMicros);
+    }
+
+    @Override
+    public void reportStatus(Status status) {
+      thing1.reportStatus(status);
+    }
+  }
+
 }
@@ -24,6 +24,7 @@ import site.ycsb.measurements.Measurements;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The core benchmark scenario. Represents a set of clients doing simple CRUD operations. The
@@ -569,7 +570,7 @@ public class CoreWorkload extends Workload {
   /**
    * Builds values for all fields.
    */
-  private HashMap<String, ByteIterator> buildValues(String key) {
+  protected HashMap<String, ByteIterator> buildValues(String key) {
     HashMap<String, ByteIterator> values = new HashMap<>();
 
     for (String fieldkey : fieldnames) {
@@ -705,7 +706,10 @@ public class CoreWorkload extends Workload {
     measurements.reportStatus("VERIFY", verifyStatus);
   }
 
-  long nextKeynum() {
+  /**
+   * Choose the key number of an operation on an existing record.
+   */
+  protected long nextKeynum() {
     long keynum;
     if (keychooser instanceof ExponentialGenerator) {
       do {
@@ -725,18 +729,7 @@ public class CoreWorkload extends Workload {
 
     String keyname = CoreWorkload.buildKeyName(keynum, zeropadding, orderedinserts);
 
-    HashSet<String> fields = null;
-
-    if (!readallfields) {
-      // read a random field
-      String fieldname = fieldnames.get(fieldchooser.nextValue().intValue());
-
-      fields = new HashSet<String>();
-      fields.add(fieldname);
-    } else if (dataintegrity || readallfieldsbyname) {
-      // pass the full field list if dataintegrity is on for verification
-      fields = new HashSet<String>(fieldnames);
-    }
+    HashSet<String> fields = chooseReadFields();
 
     HashMap<String, ByteIterator> cells = new HashMap<String, ByteIterator>();
     db.read(table, keyname, fields, cells);
@@ -752,25 +745,9 @@ public class CoreWorkload extends Workload {
 
     String keyname = CoreWorkload.buildKeyName(keynum, zeropadding, orderedinserts);
 
-    HashSet<String> fields = null;
+    HashSet<String> fields = chooseFields();
 
-    if (!readallfields) {
-      // read a random field
-      String fieldname = fieldnames.get(fieldchooser.nextValue().intValue());
-
-      fields = new HashSet<String>();
-      fields.add(fieldname);
-    }
-
-    HashMap<String, ByteIterator> values;
-
-    if (writeallfields) {
-      // new data for all the fields
-      values = buildValues(keyname);
-    } else {
-      // update a random field
-      values = buildSingleValue(keyname);
-    }
+    HashMap<String, ByteIterator> values = chooseValues(keyname);
 
     // do the transaction
 
@@ -802,15 +779,7 @@ public class CoreWorkload extends Workload {
     // choose a random scan length
     int len = scanlength.nextValue().intValue();
 
-    HashSet<String> fields = null;
-
-    if (!readallfields) {
-      // read a random field
-      String fieldname = fieldnames.get(fieldchooser.nextValue().intValue());
-
-      fields = new HashSet<String>();
-      fields.add(fieldname);
-    }
+    HashSet<String> fields = chooseFields();
 
     db.scan(table, startkeyname, len, fields, new Vector<HashMap<String, ByteIterator>>());
   }
@@ -821,15 +790,7 @@ public class CoreWorkload extends Workload {
 
     String keyname = CoreWorkload.buildKeyName(keynum, zeropadding, orderedinserts);
 
-    HashMap<String, ByteIterator> values;
-
-    if (writeallfields) {
-      // new data for all the fields
-      values = buildValues(keyname);
-    } else {
-      // update a random field
-      values = buildSingleValue(keyname);
-    }
+    HashMap<String, ByteIterator> values = chooseValues(keyname);
 
     db.update(table, keyname, values);
   }
@@ -848,6 +809,171 @@ public class CoreWorkload extends Workload {
     }
   }
 
+  /**
+   * Asynchronous version of doInsert(). Failed inserts are not retried asynchronously, so when an
+   * insertion retry limit is configured the insert is done synchronously by doInsert().
+   */
+  @Override
+  public CompletableFuture<Boolean> doInsertAsync(AsyncDB db, Object threadstate) {
+    if (insertionRetryLimit > 0) {
+      return super.doInsertAsync(db, threadstate);
+    }
+    int keynum = keysequence.nextValue().intValue();
+    String dbkey = CoreWorkload.buildKeyName(keynum, zeropadding, orderedinserts);
+    HashMap<String, ByteIterator> values = buildValues(dbkey);
+
+    return db.insertAsync(table, dbkey, values).thenApply(this::inserted);
+  }
+
+  private boolean inserted(Status status) {
+    if (null != status && status.isOk()) {
+      return true;
+    }
+    System.err.println("Error inserting, not retrying any more. number of attempts: 1" +
+        "Insertion Retry Limit: " + insertionRetryLimit);
+    return false;
+  }
+
+  /**
+   * Asynchronous version of doTransaction(), the returned future completes once every database
+   * operation of the transaction has completed.
+   */
+  @Override
+  public CompletableFuture<Boolean> doTransactionAsync(AsyncDB db, Object threadstate) {
+    String operation = operationchooser.nextString();
+    if(operation == null) {
+      return CompletableFuture.completedFuture(false);
+    }
+
+    CompletableFuture<Status> done;
+    switch (operation) {
+    case "READ":
+      done = doTransactionReadAsync(db);
+      break;
+    case "UPDATE":
+      done = doTransactionUpdateAsync(db);
+      break;
+    case "INSERT":
+      done = doTransactionInsertAsync(db);
+      break;
+    case "SCAN":
+      done = doTransactionScanAsync(db);
+      break;
+    default:
+      done = doTransactionReadModifyWriteAsync(db);
+    }
+
+    return done.thenApply(status -> true);
+  }
+
+  public CompletableFuture<Status> doTransactionReadAsync(AsyncDB db) {
+    long keynum = nextKeynum();
+    String keyname = CoreWorkload.buildKeyName(keynum, zeropadding, orderedinserts);
+    HashSet<String> fields = chooseReadFields();
+
+    HashMap<String, ByteIterator> cells = new HashMap<String, ByteIterator>();
+    return db.readAsync(table, keyname, fields, cells).thenApply(status -> verified(status, keyname, cells));
+  }
+
+  private Status verified(Status status, String key, HashMap<String, ByteIterator> cells) {
+    if (dataintegrity) {
+      verifyRow(key, cells);
+    }
+    return status;
+  }
+
+  public CompletableFuture<Status> doTransactionReadModifyWriteAsync(AsyncDB db) {
+    long keynum = nextKeynum();
+    String keyname = CoreWorkload.buildKeyName(keynum, zeropadding, orderedinserts);
+    HashSet<String> fields = chooseFields();
+    HashMap<String, ByteIterator> values = chooseValues(keyname);
+
+    HashMap<String, ByteIterator> cells = new HashMap<String, ByteIterator>();
+
+    long ist = measurements.getIntendedStartTimeNs();
+    long st = System.nanoTime();
+    return db.readAsync(table, keyname, fields, cells)
+        .thenCompose(status -> db.updateAsync(table, keyname, values))
+        .thenApply(status -> readModifyWritten(status, keyname, cells, ist, st));
+  }
+
+  private Status readModifyWritten(Status status, String key, HashMap<String, ByteIterator> cells,
+                                   long ist, long st) {
+    long en = System.nanoTime();
+
+    verified(status, key, cells);
+
+    measurements.measure("READ-MODIFY-WRITE", (int) ((en - st) / 1000));
+    measurements.measureIntended("READ-MODIFY-WRITE", (int) ((en - ist) / 1000));
+    return status;
+  }
+
+  public CompletableFuture<Status> doTransactionScanAsync(AsyncDB db) {
+    long keynum = nextKeynum();
+    String startkeyname = CoreWorkload.buildKeyName(keynum, zeropadding, orderedinserts);
+    int len = scanlength.nextValue().intValue();
+    HashSet<String> fields = chooseFields();
+
+    return db.scanAsync(table, startkeyname, len, fields, new Vector<HashMap<String, ByteIterator>>());
+  }
+
+  public CompletableFuture<Status> doTransactionUpdateAsync(AsyncDB db) {
+    long keynum = nextKeynum();
+    String keyname = CoreWorkload.buildKeyName(keynum, zeropadding, orderedinserts);
+    HashMap<String, ByteIterator> values = chooseValues(keyname);
+
+    return db.updateAsync(table, keyname, values);
+  }
+
+  public CompletableFuture<Status> doTransactionInsertAsync(AsyncDB db) {
+    // the key is acknowledged once the insert has completed, not when it is issued
+    long keynum = transactioninsertkeysequence.nextValue();
+    CompletableFuture<Status> inserted;
+    try {
+      String dbkey = CoreWorkload.buildKeyName(keynum, zeropadding, orderedinserts);
+
+      HashMap<String, ByteIterator> values = buildValues(dbkey);
+      inserted = db.insertAsync(table, dbkey, values);
+    } catch (RuntimeException e) {
+      transactioninsertkeysequence.acknowledge(keynum);
+      throw e;
+    }
+    return inserted.whenComplete((status, error) -> transactioninsertkeysequence.acknowledge(keynum));
+  }
+
+  /**
+   * @return the fields to read: a random field, or null for all of them.
+   */
+  private HashSet<String> chooseFields() {
+    if (readallfields) {
+      return null;
+    }
+    // read a random field
+    HashSet<String> fields = new HashSet<String>();
+    fields.add(fieldnames.get(fieldchooser.nextValue().intValue()));
+    return fields;
+  }
+
+  /**
+   * @return the fields of a read, like chooseFields() but naming all of them when they are verified
+   * or readallfieldsbyname is set.
+   */
+  private HashSet<String> chooseReadFields() {
+    HashSet<String> fields = chooseFields();
+    if (fields == null && (dataintegrity || readallfieldsbyname)) {
+      // pass the full field list if dataintegrity is on for verification
+      fields = new HashSet<String>(fieldnames);
+    }
+    return fields;
+  }
+
+  /**
+   * @return the values of an update of {@code key}: new data for all the fields, or for a random field.
+   */
+  private HashMap<String, ByteIterator> chooseValues(String key) {
+    return writeallfields ? buildValues(key) : buildSingleValue(key);
+  }
+
   /**
    * Creates a weighted discrete values with database operations for a workload to perform.
    * Weights/proportions are read from the properties list and defaults are used
@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2023 YCSB contributors. All rights reserved.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * The virtual threads of the "virtualthreads" mode of the client, the version for Java 21 and
+ * later of the multi-release core jar.
+ */
+final class VirtualThreads {
+  private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+  private VirtualThreads() {
+    // not used
+  }
+
+  /**
+   * @return whether this Java runtime has virtual threads.
+   */
+  static boolean isSupported() {
+    return true;
+  }
+
+  /**
+   * @return a factory of virtual threads named {@code prefix} followed by a counter.
+   */
+  static ThreadFactory newFactory(String prefix) {
+    return Thread.ofVirtual().name(prefix, 0).factory();
+  }
+
+  /**
+   * Record the virtual threads pinned to their carrier thread for longer than {@code thresholdMs}.
+   *
+   * @return the action ending the recording and printing which frames pinned the threads.
+   */
+  static Runnable monitorPinning(long thresholdMs) {
+    Map<String, LongAdder> counts = new ConcurrentHashMap<>();
+    LongAccumulator longestNs = new LongAccumulator(Math::max, 0);
+    RecordingStream stream = new RecordingStream();
+    stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+    stream.onEvent(PINNED_EVENT, event -> {
+        counts.computeIfAbsent(pinningFrame(event), frame -> new LongAdder()).increment();
+        longestNs.accumulate(event.getDuration().toNanos());
+      });
+    stream.startAsync();
+    return () -> {
+      // stop() consumes the events still buffered, close() would drop them
+      stream.stop();
+      stream.close();
+      if (counts.isEmpty()) {
+        System.err.println("No virtual thread was pinned for more than " + thresholdMs + " ms.");
+        return;
+      }
+      System.err.println("Virtual threads pinned for more than " + thresholdMs + " ms, the longest for " +
+          Duration.ofNanos(longestNs.get()).toMillis() + " ms, by:");
+      counts.forEach((frame, count) -> System.err.println("  " + frame + ": " + count.sum() + " times"));
+    };
+  }
+
+  /**
+   * @return the innermost frame outside of the JDK, which is usually the one of a binding blocking
+   * in a synchronized block or method.
+   */
+  private static String pinningFrame(RecordedEvent event) {
+    if (event.getStackTrace() == null) {
+      return "unknown";
+    }
+    for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+      String type = frame.getMethod().getType().getName();
+      if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+        return type + "." + frame.getMethod().getName() + " line " + frame.getLineNumber();
+      }
+    }
+    return "unknown";
+  }
+}
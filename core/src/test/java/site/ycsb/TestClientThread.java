@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2023 YCSB contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+package site.ycsb;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.Vector;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.htrace.core.HTraceConfiguration;
+import org.apache.htrace.core.Tracer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import site.ycsb.measurements.Measurements;
+import site.ycsb.workloads.CoreWorkload;
+
+public class TestClientThread {
+
+  /**
+   * Completes every operation OK one millisecond after it was issued, on another thread.
+   */
+  public static class DelayedDB extends AsyncDB {
+    private static ScheduledExecutorService executor;
+    private static final AtomicInteger INFLIGHT = new AtomicInteger();
+    private static final AtomicInteger MAX_INFLIGHT = new AtomicInteger();
+    private static final AtomicInteger OPERATIONS = new AtomicInteger();
+
+    private CompletableFuture<Status> later() {
+      OPERATIONS.incrementAndGet();
+      MAX_INFLIGHT.accumulateAndGet(INFLIGHT.incrementAndGet(), Math::max);
+      CompletableFuture<Status> future = new CompletableFuture<>();
+      executor.schedule(() -> {
+        INFLIGHT.decrementAndGet();
+        future.complete(Status.OK);
+      }, 1, TimeUnit.MILLISECONDS);
+      return future;
+    }
+
+    @Override
+    public CompletableFuture<Status> readAsync(String table, String key, Set<String> fields,
+                                               Map<String, ByteIterator> result) {
+      return later();
+    }
+
+    @Override
+    public CompletableFuture<Status> scanAsync(String table, String startkey, int recordcount, Set<String> fields,
+                                               Vector<HashMap<String, ByteIterator>> result) {
+      return later();
+    }
+
+    @Override
+    public CompletableFuture<Status> updateAsync(String table, String key, Map<String, ByteIterator> values) {
+      return later();
+    }
+
+    @Override
+    public CompletableFuture<Status> insertAsync(String table, String key, Map<String, ByteIterator> values) {
+      return later();
+    }
+
+    @Override
+    public CompletableFuture<Status> deleteAsync(String table, String key) {
+      return later();
+    }
+  }
+
+  @BeforeMethod
+  public void setUp() {
+    DelayedDB.executor = Executors.newSingleThreadScheduledExecutor();
+    DelayedDB.INFLIGHT.set(0);
+    DelayedDB.MAX_INFLIGHT.set(0);
+    DelayedDB.OPERATIONS.set(0);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    DelayedDB.executor.shutdownNow();
+  }
+
+  private static int run(Properties props, boolean dotransactions, int opcount) throws Exception {
+    Measurements.setProperties(props);
+    CoreWorkload workload = new CoreWorkload();
+    workload.init(props);
+    Tracer tracer = new Tracer.Builder("TestClientThread").conf(HTraceConfiguration.EMPTY).build();
+    DB db = DBFactory.newDB(DelayedDB.class.getName(), props, tracer);
+    CountDownLatch completeLatch = new CountDownLatch(1);
+    ClientThread thread = new ClientThread(db, dotransactions, workload, props, opcount, 0, completeLatch);
+    thread.setThreadId(0);
+    thread.setThreadCount(1);
+    thread.run();
+    assertEquals(completeLatch.getCount(), 0);
+    return thread.getOpsDone();
+  }
+
+  @Test
+  public void keepsTheOutstandingOperationsInFlight() throws Exception {
+    Properties props = new Properties();
+    props.setProperty(Client.RECORD_COUNT_PROPERTY, "100");
+    props.setProperty(ClientThread.OUTSTANDING_OPS_PROPERTY, "8");
+    props.setProperty(CoreWorkload.READ_PROPORTION_PROPERTY, "0.5");
+    props.setProperty(CoreWorkload.UPDATE_PROPORTION_PROPERTY, "0.5");
+
+    assertEquals(run(props, false, 100), 100);
+    assertEquals(DelayedDB.OPERATIONS.get(), 100);
+    assertTrue(DelayedDB.MAX_INFLIGHT.get() > 1);
+    assertTrue(DelayedDB.MAX_INFLIGHT.get() <= 8);
+
+    assertEquals(run(props, true, 200), 200);
+    assertEquals(DelayedDB.OPERATIONS.get(), 300);
+    assertEquals(DelayedDB.INFLIGHT.get(), 0);
+    assertTrue(Measurements.getMeasurements().getSummary().contains("READ"));
+  }
+
+  @Test
+  public void runsOneOperationAtATimeByDefault() throws Exception {
+    Properties props = new Properties();
+    props.setProperty(Client.RECORD_COUNT_PROPERTY, "20");
+
+    assertEquals(run(props, false, 20), 20);
+    assertEquals(DelayedDB.MAX_INFLIGHT.get(), 1);
+  }
+
+  @Test
+  public void reportsFailedAndCancelledOperationsAsErrors() {
+    CompletableFuture<Status> failed = new CompletableFuture<>();
+    failed.completeExceptionally(new IllegalStateException("failed"));
+    assertEquals(AsyncDB.await(failed), Status.ERROR);
+
+    CompletableFuture<Status> cancelled = new CompletableFuture<>();
+    cancelled.cancel(false);
+    assertEquals(AsyncDB.await(cancelled), Status.ERROR);
+  }
+}
@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2023 YCSB contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+package site.ycsb;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.util.Properties;
+
+import org.HdrHistogram.Histogram;
+import org.testng.annotations.Test;
+
+import site.ycsb.measurements.HistogramLog;
+import site.ycsb.measurements.exporter.JSONArrayMeasurementsExporter;
+import site.ycsb.measurements.exporter.JSONMeasurementsExporter;
+import site.ycsb.measurements.exporter.MeasurementsExporter;
+import site.ycsb.measurements.exporter.TextMeasurementsExporter;
+
+public class TestHistogramLogMerger {
+  private static final long START = 1700000000000L;
+
+  /**
+   * Log 2 intervals of a second of {@code latency}, starting {@code offset} ms after START.
+   */
+  private static String log(File dir, String client, long offset, int latency) throws Exception {
+    String file = new File(dir, client + "READ.hdr").getPath();
+    try (HistogramLog log = new HistogramLog(file, "READ", START + offset)) {
+      for (int i = 0; i < 2; i++) {
+        Histogram interval = new Histogram(3);
+        interval.recordValueWithCount(latency, 100);
+        interval.setStartTimeStamp(START + offset + 1000 * i);
+        interval.setEndTimeStamp(START + offset + 1000 * (i + 1));
+        log.write(interval);
+      }
+    }
+    return file;
+  }
+
+  private static String results(File dir, MeasurementsExporter exporter, String file, long runtime)
+      throws Exception {
+    exporter.write("OVERALL", "RunTime(ms)", runtime);
+    exporter.write("OVERALL", "Throughput(ops/sec)", 100.5);
+    exporter.write("READ", "Operations", 200);
+    exporter.write("READ", "99thPercentileLatency(us)", 1000);
+    exporter.write("READ", "Return=OK", 200);
+    exporter.close();
+    return new File(dir, file).getPath();
+  }
+
+  @Test
+  public void mergesTheClients() throws Exception {
+    File dir = Files.createTempDirectory("merge").toFile();
+    String fast = log(dir, "a", 0, 100);
+    String slow = log(dir, "b", 300, 10000);
+    String json = results(dir, new JSONMeasurementsExporter(new FileOutputStream(new File(dir, "a.json"))),
+        "a.json", 2000);
+    String jsonArray = results(dir,
+        new JSONArrayMeasurementsExporter(new FileOutputStream(new File(dir, "b.json"))), "b.json", 2300);
+
+    Properties props = new Properties();
+    props.setProperty("status.interval", "1");
+    props.setProperty("hdrhistogram.percentiles", "50,75");
+    props.setProperty("hdrhistogram.fileoutput", "true");
+    props.setProperty("hdrhistogram.output.path", dir.getPath() + File.separator + "merged");
+    HistogramLogMerger merger = new HistogramLogMerger(props);
+    for (String file : new String[]{fast, slow, json, jsonArray}) {
+      merger.add(file);
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    TextMeasurementsExporter exporter = new TextMeasurementsExporter(out);
+    merger.export(exporter);
+    exporter.close();
+    String export = out.toString("UTF-8");
+
+    assertTrue(export.startsWith("[OVERALL], RunTime(ms), 2300"), export);
+    assertTrue(export.contains("[OVERALL], Throughput(ops/sec), 201.0"), export);
+    assertTrue(export.contains("[READ], Operations, 400"), export);
+    assertTrue(export.contains("[READ], 50thPercentileLatency(us), 100"), export);
+    assertTrue(export.contains("[READ], 75thPercentileLatency(us), 10007"), export);
+    assertTrue(export.contains("[READ], Return=OK, 400"), export);
+    assertTrue(!export.contains("99thPercentileLatency"), export);
+
+    // the intervals of both clients starting in the same second are merged
+    try (HistogramLog.Reader reader = new HistogramLog.Reader(new File(dir, "mergedREAD.hdr").getPath())) {
+      assertEquals(reader.getName(), "READ");
+      for (int i = 0; i < 2; i++) {
+        Histogram window = reader.next();
+        assertEquals(window.getStartTimeStamp(), START + 1000 * i);
+        assertEquals(window.getEndTimeStamp(), START + 1000 * (i + 1));
+        assertEquals(window.getTotalCount(), 200);
+      }
+      assertNull(reader.next());
+    }
+    for (File file : dir.listFiles()) {
+      file.delete();
+    }
+    dir.delete();
+  }
+}
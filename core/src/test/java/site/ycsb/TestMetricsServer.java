@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2023 YCSB contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+package site.ycsb;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Properties;
+
+import org.testng.annotations.Test;
+
+import site.ycsb.measurements.Measurements;
+import site.ycsb.measurements.OperationRecorder;
+
+public class TestMetricsServer {
+
+  private static Measurements record() {
+    Measurements measurements = new Measurements(new Properties());
+    OperationRecorder recorder = measurements.newOperationRecorder("READ");
+    for (int i = 1; i <= 1000; i++) {
+      recorder.measure(i);
+      recorder.reportStatus(i % 10 == 0 ? Status.NOT_FOUND : Status.OK);
+    }
+    return measurements;
+  }
+
+  @Test
+  public void exposesTheLastInterval() throws Exception {
+    Measurements measurements = record();
+    Properties props = new Properties();
+    props.setProperty(MetricsServer.PORT_PROPERTY, "0");
+    MetricsServer server = new MetricsServer(props, measurements, Collections.emptyList());
+
+    String metrics = server.scrape();
+    assertTrue(metrics.startsWith("# TYPE ycsb_operations counter\n"), metrics);
+    assertTrue(metrics.contains("ycsb_operation_results_total{operation=\"READ\",status=\"OK\"} 900\n"), metrics);
+    assertTrue(metrics.contains("ycsb_operation_results_total{operation=\"READ\",status=\"NOT_FOUND\"} 100\n"),
+        metrics);
+    // no interval was taken yet
+    assertTrue(!metrics.contains("ycsb_operation_latency_seconds{"), metrics);
+
+    measurements.getSummary();
+    metrics = server.scrape();
+    assertTrue(metrics.contains("ycsb_operation_latency_seconds{operation=\"READ\",quantile=\"0.5\"} 5.0E-4\n"),
+        metrics);
+    assertTrue(metrics.contains("ycsb_operation_latency_seconds{operation=\"READ\",quantile=\"0.999\"} 9.99E-4\n"),
+        metrics);
+    assertTrue(metrics.contains("ycsb_operation_latency_seconds_count{operation=\"READ\"} 1000\n"), metrics);
+    assertTrue(metrics.endsWith("# EOF\n"), metrics);
+
+    // the next interval is empty
+    measurements.getSummary();
+    metrics = server.scrape();
+    assertTrue(metrics.contains("ycsb_operation_latency_seconds{operation=\"READ\",quantile=\"0.5\"} NaN\n"),
+        metrics);
+    assertTrue(metrics.contains("ycsb_operation_latency_seconds_count{operation=\"READ\"} 1000\n"), metrics);
+  }
+
+  @Test
+  public void servesTheMetrics() throws Exception {
+    Properties props = new Properties();
+    props.setProperty(MetricsServer.PORT_PROPERTY, "0");
+    props.setProperty(MetricsServer.HOST_PROPERTY, "127.0.0.1");
+    MetricsServer server = new MetricsServer(props, record(), Collections.emptyList());
+    server.start();
+    try {
+      URL url = new URL("http://127.0.0.1:" + server.getPort() + "/metrics");
+      HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+      assertEquals(connection.getResponseCode(), 200);
+      assertEquals(connection.getContentType(), MetricsServer.CONTENT_TYPE);
+      ByteArrayOutputStream body = new ByteArrayOutputStream();
+      try (InputStream in = connection.getInputStream()) {
+        byte[] buffer = new byte[4096];
+        for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+          body.write(buffer, 0, n);
+        }
+      }
+      assertTrue(body.toString("UTF-8").contains("status=\"OK\"} 900\n"));
+    } finally {
+      server.stop();
+    }
+  }
+}
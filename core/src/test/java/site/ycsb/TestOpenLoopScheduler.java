@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2023 YCSB contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+package site.ycsb;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.htrace.core.HTraceConfiguration;
+import org.apache.htrace.core.Tracer;
+import org.testng.annotations.Test;
+
+import site.ycsb.measurements.Measurements;
+import site.ycsb.workloads.CoreWorkload;
+
+public class TestOpenLoopScheduler {
+
+  private static Properties properties() {
+    Properties props = new Properties();
+    props.setProperty(Client.RECORD_COUNT_PROPERTY, "100");
+    props.setProperty(Measurements.MEASUREMENT_INTERVAL, "intended");
+    props.setProperty(BasicDB.VERBOSE, "false");
+    Measurements.setProperties(props);
+    return props;
+  }
+
+  @Test
+  public void clientThreadsRunTheArrivals() throws Exception {
+    Properties props = properties();
+    CoreWorkload workload = new CoreWorkload();
+    workload.init(props);
+    OpenLoopScheduler scheduler = new OpenLoopScheduler(props, 20000, 300, workload);
+
+    Tracer tracer = new Tracer.Builder("TestOpenLoopScheduler").conf(HTraceConfiguration.EMPTY).build();
+    CountDownLatch completeLatch = new CountDownLatch(2);
+    List<ClientThread> clients = new ArrayList<>();
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      ClientThread client = new ClientThread(DBFactory.newDB(BasicDB.class.getName(), props, tracer), false,
+          workload, props, 0, 0, completeLatch);
+      client.setThreadId(i);
+      client.setThreadCount(2);
+      client.setScheduler(scheduler);
+      clients.add(client);
+      threads.add(new Thread(client));
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    scheduler.start();
+    completeLatch.await();
+
+    assertEquals(clients.get(0).getOpsDone() + clients.get(1).getOpsDone() + scheduler.getDropped(), 300);
+  }
+
+  @Test
+  public void accountsForDroppedAndLateArrivals() throws Exception {
+    Properties props = properties();
+    props.setProperty(OpenLoopScheduler.MAX_QUEUE_PROPERTY, "5");
+    props.setProperty(OpenLoopScheduler.LATE_THRESHOLD_PROPERTY, "1000");
+    OpenLoopScheduler scheduler = new OpenLoopScheduler(props, 100000, 100, new CoreWorkload());
+
+    // nobody takes the arrivals, so all but the first five are dropped
+    scheduler.run();
+    assertEquals(scheduler.getDropped(), 95);
+
+    Thread.sleep(5);
+    long previous = 0;
+    for (int i = 0; i < 5; i++) {
+      long arrival = scheduler.nextArrival();
+      assertTrue(arrival > previous);
+      previous = arrival;
+    }
+    assertEquals(scheduler.nextArrival(), OpenLoopScheduler.NO_MORE_OPERATIONS);
+    assertEquals(scheduler.getLate(), 5);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void needsATarget() {
+    new OpenLoopScheduler(properties(), 0, 100, new CoreWorkload());
+  }
+}
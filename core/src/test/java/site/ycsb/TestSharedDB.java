@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2023 YCSB contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+package site.ycsb;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.Properties;
+
+import org.testng.annotations.Test;
+
+public class TestSharedDB {
+
+  private static class CountingDB extends BasicDB {
+    private int inits;
+    private int cleanups;
+
+    @Override
+    public void init() {
+      inits++;
+    }
+
+    @Override
+    public void cleanup() {
+      cleanups++;
+    }
+  }
+
+  @Test
+  public void initializesAndCleansUpOnce() throws Exception {
+    CountingDB db = new CountingDB();
+    SharedDB shared = new SharedDB(db);
+    shared.setProperties(new Properties());
+    shared.addUser();
+    shared.addUser();
+
+    shared.init();
+    shared.init();
+    assertEquals(db.inits, 1);
+    assertEquals(shared.read("usertable", "user1", null, new HashMap<>()), Status.OK);
+
+    shared.cleanup();
+    assertEquals(db.cleanups, 0);
+    shared.cleanup();
+    assertEquals(db.cleanups, 1);
+  }
+
+  @Test
+  public void cleansUpAfterTheLastAssignedThread() throws Exception {
+    CountingDB db = new CountingDB();
+    SharedDB shared = new SharedDB(db);
+    shared.setProperties(new Properties());
+    shared.addUser();
+    shared.addUser();
+
+    // the first thread finishes before the second one initializes
+    Thread first = new Thread(() -> {
+      try {
+        shared.init();
+        shared.cleanup();
+      } catch (DBException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    first.start();
+    first.join();
+    assertEquals(db.inits, 1);
+    assertEquals(db.cleanups, 0);
+
+    shared.init();
+    assertEquals(db.inits, 1);
+    shared.cleanup();
+    assertEquals(db.cleanups, 1);
+  }
+}
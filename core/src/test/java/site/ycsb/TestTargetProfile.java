@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2023 YCSB contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+package site.ycsb;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+public class TestTargetProfile {
+
+  @Test
+  public void ramp() throws Exception {
+    TargetProfile profile = TargetProfile.parse("ramp:100:1100:10");
+    assertEquals(profile.getRate(0), 100.0, 0.001);
+    assertEquals(profile.getRate(5), 600.0, 0.001);
+    assertEquals(profile.getRate(20), 1100.0, 0.001);
+    assertEquals(profile.getDuration(), 10.0, 0.001);
+    assertEquals(profile.getAverageRate(0, 10), 600.0, 1);
+  }
+
+  @Test
+  public void steps() throws Exception {
+    TargetProfile profile = TargetProfile.parse("steps:100:10,200:10,0:5");
+    assertEquals(profile.getRate(9.99), 100.0, 0.001);
+    assertEquals(profile.getRate(10), 200.0, 0.001);
+    assertEquals(profile.getRate(19.99), 200.0, 0.001);
+    assertEquals(profile.getRate(22), 0.0, 0.001);
+    assertEquals(profile.getDuration(), 25.0, 0.001);
+  }
+
+  @Test
+  public void sine() throws Exception {
+    TargetProfile profile = TargetProfile.parse("sine:1000:500:60");
+    assertEquals(profile.getRate(15), 1500.0, 0.001);
+    assertEquals(profile.getRate(45), 500.0, 0.001);
+    assertEquals(profile.getAverageRate(0, 60), 1000.0, 1);
+    assertEquals(profile.getDuration(), 0.0);
+  }
+
+  @Test
+  public void file() throws Exception {
+    File csv = File.createTempFile("profile", ".csv");
+    csv.deleteOnExit();
+    Files.write(csv.toPath(), Arrays.asList("# seconds,ops/sec", "0,100", "10,300", "20,300"),
+        StandardCharsets.UTF_8);
+    TargetProfile profile = TargetProfile.parse("file:" + csv.getPath());
+    assertEquals(profile.getRate(5), 200.0, 0.001);
+    assertEquals(profile.getRate(15), 300.0, 0.001);
+    assertEquals(profile.getDuration(), 20.0, 0.001);
+  }
+
+  @Test
+  public void advanceIntegratesTheRate() throws Exception {
+    long second = TimeUnit.SECONDS.toNanos(1);
+    // 100 then 200 operations per second: 150 operations take 1.25 seconds
+    TargetProfile profile = TargetProfile.parse("steps:100:1,200:1");
+    assertEquals(profile.advanceNs(0, 0, 150) / (double) second, 1.25, 0.01);
+
+    // nothing is due during a pause
+    TargetProfile paused = TargetProfile.parse("steps:0:2,100:1");
+    assertEquals(paused.advanceNs(0, 0, 50) / (double) second, 2.5, 0.01);
+
+    assertEquals(TargetProfile.constant(1000).advanceNs(0, second, 10), second + 10 * 1000000L);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void rejectsUnknownProfiles() throws Exception {
+    TargetProfile.parse("square:1:2");
+  }
+}
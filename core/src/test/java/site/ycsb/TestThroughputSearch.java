@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2023 YCSB contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+package site.ycsb;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Properties;
+
+import org.testng.annotations.Test;
+
+import site.ycsb.measurements.Measurements;
+
+public class TestThroughputSearch {
+
+  private static final double CAPACITY = 1000;
+  private static final double KNEE = 600;
+
+  private static Properties properties() {
+    Properties props = new Properties();
+    props.setProperty(ThroughputSearch.LATENCY_PROPERTY, "1000");
+    return props;
+  }
+
+  /**
+   * A DB whose latency jumps from 500 us to 5 ms above {@link #KNEE} operations per second, and
+   * whose CLEANUP is slow.
+   */
+  private static double trial(Measurements measurements, double target) {
+    double throughput = target > 0 ? Math.min(target, CAPACITY) : CAPACITY;
+    for (int i = 0; i < 100; i++) {
+      measurements.measure("READ", throughput < KNEE ? 500 : 5000);
+    }
+    measurements.measure("CLEANUP", 1000000);
+    return throughput;
+  }
+
+  @Test
+  public void bisectsTheTarget() {
+    Properties props = properties();
+    Measurements measurements = new Measurements(props);
+    ThroughputSearch search = new ThroughputSearch(props, measurements);
+    search.search(target -> trial(measurements, target));
+
+    assertTrue(search.isSustained());
+    assertTrue(search.getTarget() < KNEE, "target " + search.getTarget());
+    assertTrue(search.getTarget() > KNEE * 0.97, "target " + search.getTarget());
+    assertEquals(search.getThroughput(), search.getTarget());
+  }
+
+  @Test
+  public void stopsWhenUnthrottledIsSustained() {
+    Properties props = properties();
+    props.setProperty(ThroughputSearch.LATENCY_PROPERTY, "10000");
+    Measurements measurements = new Measurements(props);
+    ThroughputSearch search = new ThroughputSearch(props, measurements);
+    search.search(target -> trial(measurements, target));
+
+    assertEquals(search.getTrials(), 1);
+    assertEquals(search.getTarget(), 0.0);
+    assertEquals(search.getThroughput(), CAPACITY);
+  }
+
+  @Test
+  public void failsTargetsNotReached() {
+    Properties props = properties();
+    props.setProperty(ThroughputSearch.LATENCY_PROPERTY, "10000");
+    props.setProperty(ThroughputSearch.MAX_TARGET_PROPERTY, "2000");
+    props.setProperty(ThroughputSearch.MAX_TRIALS_PROPERTY, "3");
+    Measurements measurements = new Measurements(props);
+    ThroughputSearch search = new ThroughputSearch(props, measurements);
+    search.search(target -> trial(measurements, target));
+
+    // 2000 is out of reach, then 1000 is sustained and 1500 is not
+    assertEquals(search.getTrials(), 3);
+    assertEquals(search.getTarget(), 1000.0);
+  }
+
+  @Test
+  public void reportsNoTargetSustained() {
+    Properties props = properties();
+    props.setProperty(ThroughputSearch.LATENCY_PROPERTY, "100");
+    props.setProperty(ThroughputSearch.MAX_TRIALS_PROPERTY, "5");
+    Measurements measurements = new Measurements(props);
+    ThroughputSearch search = new ThroughputSearch(props, measurements);
+    search.search(target -> trial(measurements, target));
+
+    assertFalse(search.isSustained());
+    assertEquals(search.getTrials(), 5);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void needsHdrHistograms() {
+    Properties props = properties();
+    props.setProperty(Measurements.MEASUREMENT_TYPE_PROPERTY, "histogram");
+    new ThroughputSearch(props, new Measurements(props));
+  }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2023 YCSB contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+package site.ycsb.measurements;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.testng.annotations.Test;
+
+import site.ycsb.measurements.exporter.TextMeasurementsExporter;
+
+public class TestOneMeasurementRawStream {
+
+  private static void record(ThreadMeasurement measurement) {
+    for (int i = 0; i < 10000; i++) {
+      measurement.measure(i % 1000);
+    }
+  }
+
+  @Test
+  public void streamsTheLatencies() throws Exception {
+    File dir = Files.createTempDirectory("rawstream").toFile();
+    Properties props = new Properties();
+    props.setProperty(OneMeasurementRawStream.OUTPUT_PATH, dir.getPath() + File.separator);
+    // small buffers, so that the client threads wait for the writer
+    props.setProperty(OneMeasurementRawStream.BUFFER_RECORDS, "16");
+    props.setProperty(OneMeasurementRawStream.QUEUED_BUFFERS, "2");
+    OneMeasurementRawStream measurement = new OneMeasurementRawStream("READ", props);
+
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      ThreadMeasurement threadMeasurement = measurement.newThreadMeasurement();
+      threads.add(new Thread(() -> record(threadMeasurement)));
+    }
+    for (Thread t : threads) {
+      t.start();
+    }
+    for (Thread t : threads) {
+      t.join();
+    }
+    measurement.measure(5000);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    TextMeasurementsExporter exporter = new TextMeasurementsExporter(out);
+    measurement.exportMeasurements(exporter);
+    exporter.close();
+    String export = out.toString("UTF-8");
+
+    File file = new File(dir, "READ.raw");
+    assertEquals(file.length(), 8 + 12 * 40001);
+    assertTrue(export.contains("[READ], Total Operations, 40001"), export);
+    assertTrue(export.contains("[READ], Max, 5000"), export);
+    assertTrue(export.contains("[READ], p50, 500"), export);
+
+    RawLatencySummary summary = RawLatencySummary.read(file.getPath(), file.getPath());
+    assertEquals(summary.getOperations(), 80002);
+    assertEquals(summary.getMin(), 0);
+    assertEquals(summary.getPercentile(99.99), 999);
+    assertEquals(summary.getPercentile(100), 5000);
+    file.delete();
+    dir.delete();
+  }
+}
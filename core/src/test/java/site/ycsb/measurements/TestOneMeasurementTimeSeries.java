@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2023 YCSB contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+package site.ycsb.measurements;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.testng.annotations.Test;
+
+import site.ycsb.measurements.exporter.TextMeasurementsExporter;
+
+public class TestOneMeasurementTimeSeries {
+
+  private static String export(OneMeasurement measurement) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    TextMeasurementsExporter exporter = new TextMeasurementsExporter(out);
+    measurement.exportMeasurements(exporter);
+    exporter.close();
+    return out.toString("UTF-8");
+  }
+
+  private static void record(ThreadMeasurement measurement) {
+    for (int i = 0; i < 10000; i++) {
+      measurement.measure(i % 1000);
+    }
+  }
+
+  @Test
+  public void mergesTheThreads() throws Exception {
+    OneMeasurementTimeSeries measurement = new OneMeasurementTimeSeries("READ", new Properties());
+    // more threads than stripes
+    int threads = 3 * Runtime.getRuntime().availableProcessors();
+    List<Thread> recorders = new ArrayList<>();
+    for (int i = 0; i < threads; i++) {
+      ThreadMeasurement threadMeasurement = measurement.newThreadMeasurement();
+      recorders.add(new Thread(() -> record(threadMeasurement)));
+    }
+    for (Thread t : recorders) {
+      t.start();
+    }
+    for (Thread t : recorders) {
+      t.join();
+    }
+    measurement.measure(2000);
+
+    String export = export(measurement);
+    assertTrue(export.contains("[READ], Operations, " + (10000 * threads + 1)), export);
+    assertTrue(export.contains("[READ], MaxLatency(us), 2000"), export);
+    assertTrue(export.contains("[READ], 99thPercentileLatency(us), 990" + System.lineSeparator()), export);
+  }
+
+  @Test
+  public void keepsThePercentilesOfEachUnit() throws Exception {
+    Properties props = new Properties();
+    props.setProperty(OneMeasurementTimeSeries.GRANULARITY, "100");
+    OneMeasurementTimeSeries measurement = new OneMeasurementTimeSeries("READ", props);
+    ThreadMeasurement threadMeasurement = measurement.newThreadMeasurement();
+    for (int i = 1; i <= 100; i++) {
+      threadMeasurement.measure(i);
+    }
+    Thread.sleep(250);
+    for (int i = 1; i <= 100; i++) {
+      threadMeasurement.measure(i == 100 ? 10000 : 1000);
+    }
+
+    String export = export(measurement);
+    assertTrue(export.contains("[READ], 0, 50.5"), export);
+    assertTrue(export.contains("[READ], 0 50thPercentileLatency(us), 50"), export);
+    assertTrue(export.contains("[READ], 0 99.9PercentileLatency(us), 100"), export);
+    Matcher spike = Pattern.compile("\\[READ\\], (\\d+) 99\\.9PercentileLatency\\(us\\), (\\d+)").matcher(export);
+    assertTrue(spike.find() && spike.find(), export);
+    assertTrue(Long.parseLong(spike.group(1)) >= 200, export);
+    assertEquals(Long.parseLong(spike.group(2)), 10007);
+    assertTrue(export.contains("[READ], " + spike.group(1) + " 50thPercentileLatency(us), 1000"), export);
+    assertTrue(export.contains("[READ], Operations, 200"), export);
+  }
+}
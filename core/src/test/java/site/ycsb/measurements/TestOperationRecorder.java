@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2023 YCSB contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+package site.ycsb.measurements;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.testng.annotations.Test;
+
+import site.ycsb.Status;
+import site.ycsb.measurements.exporter.TextMeasurementsExporter;
+
+public class TestOperationRecorder {
+
+  private static String export(Measurements measurements) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    TextMeasurementsExporter exporter = new TextMeasurementsExporter(out);
+    measurements.exportMeasurements(exporter);
+    exporter.close();
+    return out.toString("UTF-8");
+  }
+
+  private static void record(OperationRecorder recorder) {
+    for (int i = 0; i < 1000; i++) {
+      recorder.measure(i);
+      recorder.measureIntended(i + 1);
+      recorder.reportStatus(i % 10 == 0 ? Status.NOT_FOUND : Status.OK);
+    }
+  }
+
+  private static void record(Measurements measurements, int threads) throws Exception {
+    List<Thread> recorders = new ArrayList<>();
+    for (int i = 0; i < threads; i++) {
+      OperationRecorder recorder = measurements.newOperationRecorder("READ");
+      recorders.add(new Thread(() -> record(recorder)));
+    }
+    for (Thread t : recorders) {
+      t.start();
+    }
+    for (Thread t : recorders) {
+      t.join();
+    }
+  }
+
+  @Test
+  public void mergesTheThreads() throws Exception {
+    // more threads than stripes
+    int threads = 3 * Runtime.getRuntime().availableProcessors();
+    Measurements measurements = new Measurements(new Properties());
+    record(measurements, threads);
+
+    assertEquals(measurements.getIntervalHistograms().get("READ").getTotalCount(), 1000 * threads);
+    String export = export(measurements);
+    assertTrue(export.contains("[READ], Operations, " + 1000 * threads), export);
+    assertTrue(export.contains("[READ], Return=OK, " + 900 * threads), export);
+    assertTrue(export.contains("[READ], Return=NOT_FOUND, " + 100 * threads), export);
+  }
+
+  @Test
+  public void recordsTheIntendedLatencies() throws Exception {
+    Properties props = new Properties();
+    props.setProperty(Measurements.MEASUREMENT_INTERVAL, "intended");
+    props.setProperty(Measurements.MEASUREMENT_TYPE_PROPERTY, "hdrhistogram+histogram");
+    Measurements measurements = new Measurements(props);
+    record(measurements, 2);
+
+    String export = export(measurements);
+    assertTrue(export.contains("[HdrREAD], Operations, 2000"), export);
+    assertTrue(export.contains("[HdrREAD], MinLatency(us), 1"), export);
+    assertTrue(export.contains("[BucketREAD], Operations, 2000"), export);
+    assertTrue(export.contains("[HdrREAD], Return=OK, 1800"), export);
+  }
+
+  @Test
+  public void showsOnlyRecordedOperations() throws Exception {
+    Measurements measurements = new Measurements(new Properties());
+    measurements.newOperationRecorder("READ-FAILED");
+    assertFalse(export(measurements).contains("READ-FAILED"));
+  }
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) 2023 YCSB contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+package site.ycsb.measurements;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Properties;
+
+import org.testng.annotations.Test;
+
+import site.ycsb.measurements.exporter.TextMeasurementsExporter;
+
+public class TestStatistic {
+
+  @Test
+  public void exportsTheValuesOnce() throws Exception {
+    Measurements measurements = new Measurements(new Properties());
+    Statistic retries = measurements.getStatistic("RETRIES");
+    assertSame(measurements.getStatistic("RETRIES"), retries);
+    retries.add(0);
+    retries.add(3);
+    retries.add(1);
+    measurements.getStatistic("RECALL").add(0.5);
+    measurements.getStatistic("RECALL").add(1);
+    measurements.getStatistic("EMPTY");
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    TextMeasurementsExporter exporter = new TextMeasurementsExporter(out);
+    measurements.exportMeasurements(exporter);
+    exporter.close();
+    String export = out.toString("UTF-8");
+
+    assertTrue(export.contains("[RETRIES], Count, 3\n"), export);
+    assertTrue(export.contains("[RETRIES], Total, 4\n"), export);
+    assertTrue(export.contains("[RETRIES], Max, 3\n"), export);
+    assertTrue(export.contains("[RECALL], Average, 0.75\n"), export);
+    assertTrue(export.contains("[RECALL], Total, 1.5\n"), export);
+    assertTrue(export.contains("[EMPTY], Count, 0\n"), export);
+    assertFalse(export.contains("[EMPTY], Average"), export);
+    assertFalse(export.contains("(us)"), export);
+    assertEquals(retries.getCount(), 3);
+  }
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2012 YCSB contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb.db;
+
+import io.dingodb.client.common.Record;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The DingoDB calls made by the binding, so they can be served by a real cluster or by an
+ * in-process stand-in.
+ *
+ * Rows are {@link Record}s laid out like the benchmark table, keys are the YCSB record keys.
+ */
+interface DingoDBBackend {
+
+  /**
+   * @return the row of {@code key}, or null if there is none.
+   */
+  Record get(String table, String key);
+
+  /**
+   * @return the {@code columns} of the row of {@code key}, or null if there is none.
+   */
+  Record get(String table, String key, List<String> columns);
+
+  /**
+   * Write {@code record}, whose columns may be a subset of the ones of the table.
+   */
+  boolean upsert(String table, Record record);
+
+  /**
+   * Write several records, the result holds the outcome of each record in order.
+   */
+  List<Boolean> upsert(String table, List<Record> records);
+
+  boolean delete(String table, String key);
+
+  /**
+   * @return the first {@code limit} rows from {@code startKey} included to {@code endKey} excluded,
+   * in key order, read as they are iterated.
+   */
+  Iterator<Record> scan(String table, String startKey, String endKey, int limit);
+
+  /**
+   * @return the keys starting each region of {@code table} but the first, in key order, or an
+   * empty list if the regions are not known.
+   */
+  List<String> splitKeys(String table);
+
+  void close();
+}
@@ -0,0 +1,251 @@
+/**
+ * Copyright (c) 2012 YCSB contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb.db;
+
+import io.dingodb.client.common.Record;
+import site.ycsb.ByteIterator;
+import site.ycsb.Client;
+import site.ycsb.DBException;
+import site.ycsb.WorkloadException;
+import site.ycsb.workloads.CoreWorkload;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads the records of a workload into an existing DingoDB table without going through the YCSB
+ * client threads, run with {@code command=load} by {@link DingoDBTableCommand}.
+ *
+ * Records are built like {@link CoreWorkload} builds them for the load phase, from recordcount,
+ * insertstart, insertcount, insertorder, zeropadding, fieldcount and the field length properties.
+ * The key range is split between the loader threads, and each thread groups its records by the
+ * region of the table holding them, so every multi-record upsert goes to a single region. The
+ * rows and megabytes written per second are printed while loading and at the end.
+ */
+final class DingoDBBulkLoader {
+
+  /** Number of loader threads, each with its own connection. */
+  static final String THREADS = "dingo.load.threads";
+
+  /** Number of records sent with one multi-record upsert. */
+  static final String BATCH_SIZE = "dingo.load.batchsize";
+  static final String BATCH_SIZE_DEFAULT = "1000";
+
+  /** Seconds between two progress reports. */
+  static final String STATUS_INTERVAL = "dingo.load.statusinterval";
+  static final String STATUS_INTERVAL_DEFAULT = "10";
+
+  private final Properties props;
+  private final String tableName;
+  private final int threadCount;
+  private final int batchSize;
+  private final long statusIntervalMs;
+  private final ValueBuilder values;
+  private final DingoDBSchema schema;
+  private String[] splitKeys;
+  private final long firstKey;
+  private final long keyCount;
+  private final int zeroPadding;
+  private final boolean orderedInserts;
+
+  private final AtomicLong rowsWritten = new AtomicLong();
+  private final AtomicLong bytesWritten = new AtomicLong();
+  private final AtomicLong rowsFailed = new AtomicLong();
+
+  DingoDBBulkLoader(Properties props, String tableName) throws WorkloadException {
+    this.props = props;
+    this.tableName = tableName;
+    this.threadCount = Integer.parseInt(props.getProperty(
+        THREADS, String.valueOf(Runtime.getRuntime().availableProcessors())));
+    this.batchSize = Integer.parseInt(props.getProperty(BATCH_SIZE, BATCH_SIZE_DEFAULT));
+    this.statusIntervalMs = TimeUnit.SECONDS.toMillis(
+        Long.parseLong(props.getProperty(STATUS_INTERVAL, STATUS_INTERVAL_DEFAULT)));
+
+    Properties workloadProps = new Properties();
+    workloadProps.putAll(props);
+    // only the load phase is generated, the operation count does not matter
+    workloadProps.putIfAbsent(Client.OPERATION_COUNT_PROPERTY, "0");
+    this.values = new ValueBuilder();
+    values.init(workloadProps);
+
+    long recordCount = Long.parseLong(props.getProperty(Client.RECORD_COUNT_PROPERTY, Client.DEFAULT_RECORD_COUNT));
+    this.firstKey = Long.parseLong(props.getProperty(
+        CoreWorkload.INSERT_START_PROPERTY, CoreWorkload.INSERT_START_PROPERTY_DEFAULT));
+    this.keyCount = Long.parseLong(props.getProperty(
+        CoreWorkload.INSERT_COUNT_PROPERTY, String.valueOf(recordCount - firstKey)));
+    this.zeroPadding = Integer.parseInt(props.getProperty(
+        CoreWorkload.ZERO_PADDING_PROPERTY, CoreWorkload.ZERO_PADDING_PROPERTY_DEFAULT));
+    this.orderedInserts = !"hashed".equals(props.getProperty(
+        CoreWorkload.INSERT_ORDER_PROPERTY, CoreWorkload.INSERT_ORDER_PROPERTY_DEFAULT));
+
+    this.schema = new DingoDBSchema(DingoDBTableCommand.buildTableDefinition(props, tableName, null));
+  }
+
+  /**
+   * Exposes how CoreWorkload builds the values of a record.
+   */
+  private static final class ValueBuilder extends CoreWorkload {
+    Map<String, ByteIterator> valuesOf(String key) {
+      return buildValues(key);
+    }
+  }
+
+  /**
+   * Load all the records and wait for the loader threads to finish.
+   *
+   * @return true if every record was written.
+   */
+  boolean load() throws DBException, InterruptedException {
+    return load(DingoDBClientPool.open(props, schema, threadCount));
+  }
+
+  boolean load(DingoDBBackend[] backends) throws InterruptedException {
+    // regions of the table, or else the ones DingoDBTableCommand pre-splits it into
+    List<String> keys = backends[0].splitKeys(tableName);
+    int partitions = Integer.parseInt(
+        props.getProperty(DingoDBClient.DINGO_PARTITIONS, DingoDBClient.DINGO_PARTITIONS_DEFAULT));
+    if (keys.isEmpty() && partitions > 1) {
+      keys = DingoDBTableCommand.computeSplitKeys(props, partitions);
+    }
+    splitKeys = keys.toArray(new String[0]);
+    Arrays.sort(splitKeys);
+    System.out.println("Loading " + keyCount + " records into " + (splitKeys.length + 1) + " regions of "
+        + tableName + " with " + threadCount + " threads");
+
+    List<Thread> workers = new ArrayList<>(threadCount);
+    for (int i = 0; i < threadCount; i++) {
+      final DingoDBBackend backend = backends[i];
+      final long start = firstKey + keyCount * i / threadCount;
+      final long end = firstKey + keyCount * (i + 1) / threadCount;
+      Thread worker = new Thread(() -> loadRange(backend, start, end), "dingo-loader-" + i);
+      workers.add(worker);
+      worker.start();
+    }
+
+    long startMs = System.currentTimeMillis();
+    long lastMs = startMs;
+    long lastRows = 0;
+    long lastBytes = 0;
+    try {
+      for (Thread worker : workers) {
+        while (worker.isAlive()) {
+          worker.join(Math.max(1, lastMs + statusIntervalMs - System.currentTimeMillis()));
+          long nowMs = System.currentTimeMillis();
+          if (nowMs - lastMs >= statusIntervalMs) {
+            long rows = rowsWritten.get();
+            long bytes = bytesWritten.get();
+            report("Loaded", rows, bytes, nowMs - startMs, rows - lastRows, bytes - lastBytes, nowMs - lastMs);
+            lastMs = nowMs;
+            lastRows = rows;
+            lastBytes = bytes;
+          }
+        }
+      }
+    } finally {
+      DingoDBClientPool.close(backends);
+    }
+
+    long elapsedMs = System.currentTimeMillis() - startMs;
+    long rows = rowsWritten.get();
+    long bytes = bytesWritten.get();
+    report("Done, loaded", rows, bytes, elapsedMs, rows, bytes, elapsedMs);
+    if (rowsFailed.get() > 0) {
+      System.err.println(rowsFailed.get() + " records could not be loaded into " + tableName);
+    }
+    return rowsFailed.get() == 0;
+  }
+
+  private static void report(String what, long rows, long bytes, long elapsedMs, long intervalRows,
+                             long intervalBytes, long intervalMs) {
+    double seconds = Math.max(intervalMs, 1) / 1000.0;
+    System.out.println(String.format("%s %d rows, %.1f MB in %d s: %.0f rows/s, %.2f MB/s", what, rows,
+        bytes / 1048576.0, elapsedMs / 1000, intervalRows / seconds, intervalBytes / 1048576.0 / seconds));
+  }
+
+  /**
+   * Write the records of the key numbers from {@code start} included to {@code end} excluded,
+   * sending the records of a region once {@code batchSize} of them are ready.
+   */
+  private void loadRange(DingoDBBackend backend, long start, long end) {
+    List<List<Record>> batches = new ArrayList<>(splitKeys.length + 1);
+    for (int i = 0; i <= splitKeys.length; i++) {
+      batches.add(new ArrayList<>(batchSize));
+    }
+    for (long keynum = start; keynum < end; keynum++) {
+      String key = CoreWorkload.buildKeyName(keynum, zeroPadding, orderedInserts);
+      List<Record> batch = batches.get(DingoDBRegionStatsBackend.regionOf(splitKeys, key));
+      batch.add(buildRecord(key));
+      if (batch.size() >= batchSize) {
+        write(backend, batch);
+      }
+    }
+    for (List<Record> batch : batches) {
+      if (!batch.isEmpty()) {
+        write(backend, batch);
+      }
+    }
+  }
+
+  private Record buildRecord(String key) {
+    Object[] row = schema.newRow(key);
+    for (Map.Entry<String, ByteIterator> entry : values.valuesOf(key).entrySet()) {
+      int index = schema.indexOf(entry.getKey());
+      if (index >= 0 && index != schema.getPrimaryKeyIndex()) {
+        row[index] = schema.toColumnValue(index, entry.getValue());
+      }
+    }
+    return new Record(schema.getColumns(), Arrays.asList(row));
+  }
+
+  private void write(DingoDBBackend backend, List<Record> batch) {
+    long bytes = 0;
+    for (Record record : batch) {
+      for (Object value : record.getDingoColumnValuesInOrder()) {
+        if (value instanceof byte[]) {
+          bytes += ((byte[]) value).length;
+        } else if (value != null) {
+          bytes += value.toString().length();
+        }
+      }
+    }
+    int written = 0;
+    try {
+      List<Boolean> results = backend.upsert(tableName, batch);
+      for (int i = 0; results != null && i < results.size() && i < batch.size(); i++) {
+        if (Boolean.TRUE.equals(results.get(i))) {
+          written++;
+        }
+      }
+    } catch (RuntimeException e) {
+      System.err.println("Upsert of " + batch.size() + " records failed: " + e);
+    }
+    rowsWritten.addAndGet(written);
+    bytesWritten.addAndGet(written == batch.size() ? bytes : bytes * written / batch.size());
+    rowsFailed.addAndGet(batch.size() - written);
+    batch.clear();
+  }
+
+  long getRowsWritten() {
+    return rowsWritten.get();
+  }
+}
@@ -24,19 +24,14 @@
 
 package site.ycsb.db;
 
-import io.dingodb.client.DingoClient;
-import io.dingodb.client.common.Key;
 import io.dingodb.client.common.Record;
-import io.dingodb.client.common.Value;
 import io.dingodb.common.Common;
-import io.dingodb.sdk.common.partition.PartitionDetailDefinition;
-import io.dingodb.sdk.common.partition.PartitionRule;
-import io.dingodb.sdk.common.table.Column;
-import io.dingodb.sdk.common.table.ColumnDefinition;
 import io.dingodb.sdk.common.table.TableDefinition;
-import org.apache.commons.lang3.RandomStringUtils;
+import site.ycsb.AsyncDB;
+import site.ycsb.ByteArrayByteIterator;
 import site.ycsb.ByteIterator;
-import site.ycsb.DB;
+import site.ycsb.Client;
+import site.ycsb.ClientThread;
 import site.ycsb.DBException;
 import site.ycsb.Status;
 import site.ycsb.StringByteIterator;
@@ -44,20 +39,27 @@ import site.ycsb.StringByteIterator;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * YCSB binding for <a href="https://www.dingodb.com">DingoDB</a>.
  *
+ * The asynchronous operations, which the client threads issue when "outstandingops" is above 1,
+ * run the blocking DingoClient calls on a pool of threads shared by all the client threads.
+ *
  * See {@code dingodb/README.md} for details.
  */
-public class DingoDBClient extends DB {
+public class DingoDBClient extends AsyncDB {
   
   private static final AtomicInteger THREAD_COUNT = new AtomicInteger(0);
 
@@ -77,9 +79,9 @@ public class DingoDBClient extends DB {
   public static final String COLUMN_PREFIX = "FIELD";
 
   /**
-   * A singoton Dingo instance.
+   * The DingoDB connections shared by all the client threads.
    */
-  private static DingoClient dingoClient;
+  private static DingoDBClientPool clients;
 
   /**
    * command for table such as create or drop table.
@@ -96,6 +98,16 @@ public class DingoDBClient extends DB {
    */
   public static final String DINGO_TBL_COMMAND_DROP= "drop";
 
+  /**
+   * load the records of the workload into an existing table, see DingoDBBulkLoader.
+   */
+  public static final String DINGO_TBL_COMMAND_LOAD = "load";
+
+  /**
+   * create, load, run and drop the table for each configuration, see DingoDBTableSweep.
+   */
+  public static final String DINGO_TBL_COMMAND_SWEEP = "sweep";
+
   /**
    * coordinator list for operation.
    */
@@ -104,56 +116,197 @@ public class DingoDBClient extends DB {
   public static final String DINGO_TABLE_DEFAULT = "usertable";
   public static final String DINGO_TABLE = "dingo.table";
 
+  /**
+   * number of partitions the table is pre-split into on creation.
+   */
+  public static final String DINGO_PARTITIONS = "dingo.partitions";
+  public static final String DINGO_PARTITIONS_DEFAULT = "1";
+
+  /**
+   * number of replicas of each partition of the table.
+   */
+  public static final String DINGO_REPLICA = "dingo.replica";
+  public static final String DINGO_REPLICA_DEFAULT = "3";
+
+  /**
+   * storage engine of the table.
+   */
+  public static final String DINGO_ENGINE = "dingo.engine";
+  public static final String DINGO_ENGINE_DEFAULT = Common.Engine.LSM.name();
+
+  /**
+   * time to live of the rows of the table, 0 keeps them forever.
+   */
+  public static final String DINGO_TTL = "dingo.ttl";
+  public static final String DINGO_TTL_DEFAULT = "0";
+
+  /**
+   * comma separated types of the field columns, varchar, integer, bigint, double or binary. Field i
+   * gets the type i modulo the number of types, so a single type applies to all the fields.
+   */
+  public static final String DINGO_FIELD_TYPES = "dingo.fieldtypes";
+  public static final String DINGO_FIELD_TYPES_DEFAULT = "varchar";
+
+  /**
+   * Exclusive upper bound used as the end key of range scans, it sorts after every YCSB key.
+   */
+  private static final String SCAN_END_KEY = String.valueOf(Character.MAX_VALUE);
+
+  /**
+   * number of records sent with one multi-record upsert during inserts, 1 disables batching.
+   */
+  public static final String DINGO_BATCH_SIZE = "dingo.batchsize";
+  public static final String DINGO_BATCH_SIZE_DEFAULT = "1";
+
+  /**
+   * send a partial batch once its oldest record has waited this long, 0 waits until the batch is full.
+   */
+  public static final String DINGO_BATCH_FLUSH_MS = "dingo.batch.flushms";
+  public static final String DINGO_BATCH_FLUSH_MS_DEFAULT = "0";
+
+  /**
+   * number of threads shared by all client threads to execute the asynchronous operations, which
+   * caps the operations in flight of the whole process. It defaults to threadcount * outstandingops.
+   */
+  public static final String DINGO_ASYNC_THREADS = "dingo.async.threads";
+
+  /**
+   * number of DingoClient connections shared by the client threads.
+   */
+  public static final String DINGO_CLIENTS = "dingo.clients";
+  public static final String DINGO_CLIENTS_DEFAULT = "1";
+
+  /**
+   * how operations pick a connection: "thread" keeps each client thread on one connection,
+   * "key" spreads them by the hash of their key.
+   */
+  public static final String DINGO_CLIENTS_ROUTING = "dingo.clients.routing";
+  public static final String DINGO_CLIENTS_ROUTING_DEFAULT = "thread";
+
+  /**
+   * sample the number of operations already running on a connection into the statistic
+   * DINGO-CLIENT-n-INFLIGHT.
+   */
+  public static final String DINGO_CLIENTS_TRACK_CONTENTION = "dingo.clients.trackcontention";
+  public static final String DINGO_CLIENTS_TRACK_CONTENTION_DEFAULT = "false";
+
+  /**
+   * where requests are sent: "native" to the cluster at coordinator.host, "memory" to an in-process
+   * stand-in keeping the table in memory.
+   */
+  public static final String DINGO_BACKEND = "dingo.backend";
+  public static final String DINGO_BACKEND_DEFAULT = "native";
+  public static final String DINGO_BACKEND_MEMORY = "memory";
+
+  /**
+   * latency added to every call of the in-memory backend, in microseconds.
+   */
+  public static final String DINGO_MEMORY_LATENCY_US = "dingo.memory.latencyus";
+  public static final String DINGO_MEMORY_LATENCY_US_DEFAULT = "0";
+
+  /**
+   * probability, between 0 and 1, that a call of the in-memory backend fails.
+   */
+  public static final String DINGO_MEMORY_ERROR_RATE = "dingo.memory.errorrate";
+  public static final String DINGO_MEMORY_ERROR_RATE_DEFAULT = "0";
+
+  /**
+   * whether the latency and outcome of every call are recorded per region of the table, as the
+   * measurements DINGO-REGION-&lt;n&gt;.
+   */
+  public static final String DINGO_REGION_STATS = "dingo.regionstats";
+  public static final String DINGO_REGION_STATS_DEFAULT = "false";
+
   private static TableDefinition tableDefinition;
+  private static DingoDBSchema schema;
+  private static ExecutorService asyncExecutor;
   private static String defaultTableName;
-  private static int columnCnt;
+
+  private int batchSize;
+  private long batchFlushMs;
+  private long batchStartMs;
+  private final List<String> batchKeys = new ArrayList<>();
+  private final List<Record> batchRecords = new ArrayList<>();
+  private int clientSlot;
 
   @Override
   public void init() throws DBException {
-    THREAD_COUNT.incrementAndGet();
+    Properties clientProps = getProperties();
+    batchSize = Integer.parseInt(clientProps.getProperty(DINGO_BATCH_SIZE, DINGO_BATCH_SIZE_DEFAULT));
+    batchFlushMs = Long.parseLong(clientProps.getProperty(DINGO_BATCH_FLUSH_MS, DINGO_BATCH_FLUSH_MS_DEFAULT));
+    int outstandingOps = Integer.parseInt(clientProps.getProperty(
+        ClientThread.OUTSTANDING_OPS_PROPERTY, ClientThread.OUTSTANDING_OPS_PROPERTY_DEFAULT));
+
+    int threadNumber = THREAD_COUNT.getAndIncrement();
     synchronized (THREAD_COUNT) {
-      if (dingoClient != null) {
+      if (outstandingOps > 1 && asyncExecutor == null) {
+        asyncExecutor = Executors.newFixedThreadPool(asyncThreads(clientProps, outstandingOps));
+      }
+      if (clients != null) {
+        clientSlot = threadNumber % clients.size();
         return;
       }
       
       Properties props = getProperties();
-      String coordinatorList = props.getProperty(COORDINATOR_HOST);
       String tableName = props.getProperty(DINGO_TABLE, DINGO_TABLE_DEFAULT);
       defaultTableName = tableName;
       
-      dingoClient = new DingoClient(coordinatorList, 100);
-      boolean isOK = dingoClient.open();
-      if (!isOK) {
-        throw new DBException("Init connection to coordinator:" + coordinatorList + " failed");
-      }
+      tableDefinition = getTableDefinition(props, defaultTableName);
+      schema = new DingoDBSchema(tableDefinition);
 
-      columnCnt = Integer.parseInt(
-          props.getProperty(
-              DingoDBClient.FIELD_COUNT_PROPERTY,
-              DingoDBClient.FIELD_COUNT_PROPERTY_DEFAULT
-          )
-      );
-      tableDefinition = getTableDefinition(defaultTableName);
+      int clientCount = Integer.parseInt(props.getProperty(DINGO_CLIENTS, DINGO_CLIENTS_DEFAULT));
+      boolean routeByKey = "key".equalsIgnoreCase(
+          props.getProperty(DINGO_CLIENTS_ROUTING, DINGO_CLIENTS_ROUTING_DEFAULT));
+      boolean trackContention = Boolean.parseBoolean(
+          props.getProperty(DINGO_CLIENTS_TRACK_CONTENTION, DINGO_CLIENTS_TRACK_CONTENTION_DEFAULT));
+      DingoDBBackend[] backends = DingoDBClientPool.open(props, schema, clientCount);
+      if (Boolean.parseBoolean(props.getProperty(DINGO_REGION_STATS, DINGO_REGION_STATS_DEFAULT))) {
+        trackRegions(props, backends);
+      }
+      clients = new DingoDBClientPool(backends, routeByKey, trackContention);
+      clientSlot = threadNumber % clients.size();
       System.out.println("=======Init Input Table===================>>>>" + tableName);
     }
   }
 
+  /**
+   * Wrap the backends so their calls are measured per region. The regions are read from the table
+   * definition, or else computed like {@link DingoDBTableCommand} pre-splits the table.
+   */
+  private static void trackRegions(Properties props, DingoDBBackend[] backends) {
+    List<String> splitKeys = backends[0].splitKeys(defaultTableName);
+    int partitions = Integer.parseInt(props.getProperty(DINGO_PARTITIONS, DINGO_PARTITIONS_DEFAULT));
+    if (splitKeys.isEmpty() && partitions > 1) {
+      splitKeys = DingoDBTableCommand.computeSplitKeys(props, partitions);
+    }
+    DingoDBRegionStatsBackend regionStats = null;
+    for (int i = 0; i < backends.length; i++) {
+      regionStats = new DingoDBRegionStatsBackend(backends[i], splitKeys);
+      backends[i] = regionStats;
+    }
+    System.out.print("Measuring " + regionStats.regionCount() + " regions of " + defaultTableName + ":\n"
+        + regionStats.describeRegions());
+  }
+
   @Override
   public void cleanup() throws DBException {
+    Status batchStatus = flushBatch();
     synchronized (THREAD_COUNT) {
       if (THREAD_COUNT.decrementAndGet() <= 0) {
-        try {
-          if (dingoClient != null) {
-            dingoClient.close();
-          }
-        } catch (Exception e) {
-          System.err.println("Could not close DingoDB connection pool: " + e.toString());
-          e.printStackTrace();
-        } finally {
-          dingoClient = null;
+        if (asyncExecutor != null) {
+          asyncExecutor.shutdown();
+          asyncExecutor = null;
+        }
+        if (clients != null) {
+          clients.close();
+          clients = null;
         }
+        tableDefinition = null;
       }
     }
+    if (!batchStatus.isOk()) {
+      throw new DBException("Flush of the last insert batch failed");
+    }
   }
 
   @Override
@@ -161,19 +314,84 @@ public class DingoDBClient extends DB {
                      String key,
                      Set<String> fields,
                      Map<String, ByteIterator> result) {
-    Record record = dingoClient.get(defaultTableName, new Key(Arrays.asList(Value.get(key))));
-    Object[] values = record.getDingoColumnValuesInOrder();
+    return readRecord(key, fields, result);
+  }
 
+  @Override
+  public CompletableFuture<Status> readAsync(String tableName,
+                                             String key,
+                                             Set<String> fields,
+                                             Map<String, ByteIterator> result) {
+    return submit(() -> readRecord(key, fields, result));
+  }
+
+  /**
+   * @return the number of threads executing the asynchronous operations, warning when they cannot
+   * keep the operations of every client thread in flight.
+   */
+  private static int asyncThreads(Properties props, int outstandingOps) {
+    int inFlight = Integer.parseInt(props.getProperty(Client.THREAD_COUNT_PROPERTY, "1")) * outstandingOps;
+    String threads = props.getProperty(DINGO_ASYNC_THREADS);
+    if (threads == null) {
+      return inFlight;
+    }
+    int asyncThreads = Integer.parseInt(threads);
+    if (asyncThreads < inFlight) {
+      System.err.println("Warning: " + DINGO_ASYNC_THREADS + "=" + asyncThreads + " keeps at most " + asyncThreads
+          + " operations in flight, fewer than threadcount * " + ClientThread.OUTSTANDING_OPS_PROPERTY + " = "
+          + inFlight);
+    }
+    return asyncThreads;
+  }
+
+  /**
+   * Run an asynchronous operation on the shared threads, or in the calling thread if there are none.
+   */
+  private static CompletableFuture<Status> submit(Supplier<Status> operation) {
+    if (asyncExecutor == null) {
+      return CompletableFuture.completedFuture(operation.get());
+    }
+    return CompletableFuture.supplyAsync(operation, asyncExecutor);
+  }
+
+  private Status readRecord(String key,
+                            Set<String> fields,
+                            Map<String, ByteIterator> result) {
+    int slot = clients.acquire(key, clientSlot);
+    try {
+      return readRecord(clients.get(slot), key, fields, result);
+    } finally {
+      clients.release(slot);
+    }
+  }
+
+  /**
+   * Read a row from {@code backend}, fetching only the columns of {@code fields} when it is not null.
+   */
+  static Status readRecord(DingoDBBackend backend,
+                           String key,
+                           Set<String> fields,
+                           Map<String, ByteIterator> result) {
     try {
-      LinkedHashMap<String, String> resultInMap = convertRecord2HashMap(values);
       if (fields == null) {
-        StringByteIterator.putAllAsByteIterators(result, resultInMap);
-      } else {
-        LinkedHashMap<String, String> subResultMap = new LinkedHashMap<>();
-        for (String columnName: fields) {
-          subResultMap.put(columnName, resultInMap.get(columnName.toLowerCase()));
+        Record record = backend.get(defaultTableName, key);
+        if (record == null) {
+          return Status.NOT_FOUND;
+        }
+        putColumnValues(record.getDingoColumnValuesInOrder(), null, result);
+        return Status.OK;
+      }
+
+      Record record = backend.get(defaultTableName, key, projection(fields));
+      if (record == null) {
+        return Status.NOT_FOUND;
+      }
+      for (String field : fields) {
+        int index = schema.indexOf(field);
+        Object value = index < 0 ? null : record.getValue(schema.getColumns().get(index).getName());
+        if (value != null) {
+          result.put(field, toByteIterator(value));
         }
-        StringByteIterator.putAllAsByteIterators(result, subResultMap);
       }
       return Status.OK;
     } catch (RuntimeException ex) {
@@ -182,35 +400,67 @@ public class DingoDBClient extends DB {
     return Status.ERROR;
   }
 
+  /**
+   * @return the names of the columns of {@code fields}, or the primary key alone if the table has
+   * none of them, so that the read still tells whether the row exists.
+   */
+  private static List<String> projection(Set<String> fields) {
+    List<String> columns = new ArrayList<>(fields.size());
+    for (String field : fields) {
+      int index = schema.indexOf(field);
+      if (index >= 0) {
+        columns.add(schema.getColumns().get(index).getName());
+      }
+    }
+    if (columns.isEmpty()) {
+      columns.add(schema.getColumns().get(schema.getPrimaryKeyIndex()).getName());
+    }
+    return columns;
+  }
+
   @Override
   public Status insert(String tableName,
                        String key,
                        Map<String, ByteIterator> values) {
-    Map<String, String> inputValues = StringByteIterator.getStringMap(values);
-//    LinkedHashMap<String, Object> map = Maps.newLinkedHashMap();
+    return insertRecord(key, values, batchSize > 1);
+  }
+
+  /**
+   * Insert without batching, as the batch of a client thread is not shared with the threads running
+   * the asynchronous operations.
+   */
+  @Override
+  public CompletableFuture<Status> insertAsync(String tableName,
+                                               String key,
+                                               Map<String, ByteIterator> values) {
+    return submit(() -> insertRecord(key, values, false));
+  }
+
+  private Status insertRecord(String key, Map<String, ByteIterator> values, boolean batch) {
     try {
-      TableDefinition tableDef = getTableDefinition(defaultTableName);
-      List<Column> colList = tableDef.getColumns();
-      List<Object> recordList = new ArrayList<>();
-      for (Column column : colList) {
-        String columnName = column.getName().toLowerCase();
-        String columnValue = inputValues.get(columnName);
-        if (columnValue == null) {
-          columnValue = inputValues.get(columnName.toUpperCase());
-        }
-        
-        if (columnName.equalsIgnoreCase(PRIMARY_KEY)) {
-//          columnName = PRIMARY_KEY;
-          columnValue = key;
+      Object[] row = schema.newRow(key);
+      for (Map.Entry<String, ByteIterator> entry : values.entrySet()) {
+        int index = schema.indexOf(entry.getKey());
+        if (index >= 0 && index != schema.getPrimaryKeyIndex()) {
+          row[index] = schema.toColumnValue(index, entry.getValue());
         }
-//        map.put(columnName, columnValue);
-        recordList.add(columnValue);
       }
-      
-//      boolean isOK = dingoClient.upsert(defaultTableName, new Record(PRIMARY_KEY, map));
-      boolean isOK = dingoClient.upsert(defaultTableName, new Record(colList, recordList));
+
+      Record record = new Record(schema.getColumns(), Arrays.asList(row));
+      if (batch) {
+        return addToBatch(key, record);
+      }
+
+      boolean isOK;
+      int slot = clients.acquire(key, clientSlot);
+      try {
+        isOK = clients.get(slot).upsert(defaultTableName, record);
+      } finally {
+        clients.release(slot);
+      }
       if (!isOK) {
         System.out.println("Insert record using key:[" + key + "], failed");
+        return Status.ERROR;
       }
     } catch (Exception ex) {
       System.out.println("Insert catch exception:" + ex);
@@ -220,10 +470,76 @@ public class DingoDBClient extends DB {
     return Status.OK;
   }
 
+  /**
+   * Queue a record into the batch of this client and send the batch once it is full or
+   * older than {@code dingo.batch.flushms}.
+   */
+  private Status addToBatch(String key, Record record) {
+    if (batchKeys.isEmpty()) {
+      batchStartMs = System.currentTimeMillis();
+    }
+    batchKeys.add(key);
+    batchRecords.add(record);
+
+    if (batchKeys.size() >= batchSize
+        || (batchFlushMs > 0 && System.currentTimeMillis() - batchStartMs >= batchFlushMs)) {
+      return flushBatch();
+    }
+    return Status.BATCHED_OK;
+  }
+
+  /**
+   * Send all the queued records with one multi-record upsert, the client routes them to their regions.
+   * Returns ERROR if any record of the batch failed.
+   */
+  private Status flushBatch() {
+    if (batchRecords.isEmpty()) {
+      return Status.OK;
+    }
+
+    Status status = Status.OK;
+    int slot = clients.acquire(null, clientSlot);
+    try {
+      List<Boolean> results = clients.get(slot).upsert(defaultTableName, batchRecords);
+      for (int i = 0; i < batchKeys.size(); i++) {
+        if (results == null || i >= results.size() || !Boolean.TRUE.equals(results.get(i))) {
+          System.out.println("Insert record using key:[" + batchKeys.get(i) + "] in batch, failed");
+          status = Status.ERROR;
+        }
+      }
+    } catch (Exception ex) {
+      System.out.println("Insert batch of " + batchKeys.size() + " records catch exception:" + ex);
+      status = Status.ERROR;
+    } finally {
+      clients.release(slot);
+      batchKeys.clear();
+      batchRecords.clear();
+    }
+    return status;
+  }
+
   @Override
   public Status delete(String tableName,
                        String key) {
-    boolean isOK = dingoClient.delete(defaultTableName, new Key(Arrays.asList(Value.get(key))));
+    return deleteRecord(key);
+  }
+
+  @Override
+  public CompletableFuture<Status> deleteAsync(String tableName, String key) {
+    return submit(() -> deleteRecord(key));
+  }
+
+  private Status deleteRecord(String key) {
+    boolean isOK;
+    int slot = clients.acquire(key, clientSlot);
+    try {
+      isOK = clients.get(slot).delete(defaultTableName, key);
+    } catch (RuntimeException ex) {
+      System.out.println("Delete record key:[" + key + "] catch exception:" + ex);
+      return Status.ERROR;
+    } finally {
+      clients.release(slot);
+    }
     if (!isOK) {
       System.out.println("delete record key:" + key + " failed");
       return Status.ERROR;
@@ -235,40 +551,52 @@ public class DingoDBClient extends DB {
   public Status update(String tableName,
                        String key,
                        Map<String, ByteIterator> values) {
-    Map<String, String> inputValues = StringByteIterator.getStringMap(values);
-    Record record = dingoClient.get(defaultTableName, new Key(Arrays.asList(Value.get(key))));
-    
-//    LinkedHashMap<String, Object> newRecordMap = Maps.newLinkedHashMap();
-//    Object[] originRecord = record.getDingoColumnValuesInOrder();
-//    List<Column> cl = tableDefinition.getColumns();
-//    for (Map.Entry<String, String> entry: inputValues.entrySet()) {
-//      for (int i = 0; i< cl.size(); i++) {
-//        if (cl.get(i).getName().equalsIgnoreCase(entry.getKey())) { 
-//          originRecord[i] = entry.getValue();
-//        }
-//        newRecordMap.put(cl.get(i).getName(), originRecord[i]);
-//      }
-//    }
-//    
-//    boolean isOK = dingoClient.upsert(
-//        defaultTableName, 
-//        new Record(PRIMARY_KEY, newRecordMap)
-//    );
-    
-    Object[] originRecord = record.getDingoColumnValuesInOrder();
-    List<Column> colList = tableDefinition.getColumns();
-    List<Object> recordList = new ArrayList<>();
-    
-    for (Map.Entry<String, String> entry: inputValues.entrySet()) {
-      for (int i = 0; i< colList.size(); i++) {
-        if (colList.get(i).getName().equalsIgnoreCase(entry.getKey())) {
-          originRecord[i] = entry.getValue();
+    return updateRecord(key, values);
+  }
+
+  @Override
+  public CompletableFuture<Status> updateAsync(String tableName,
+                                               String key,
+                                               Map<String, ByteIterator> values) {
+    return submit(() -> updateRecord(key, values));
+  }
+
+  /**
+   * Update by fetching the whole row, merging the changed columns and writing the whole row back.
+   * The DingoDB client only upserts whole records, it has no column-level write.
+   */
+  private Status updateRecord(String key, Map<String, ByteIterator> values) {
+    Object[] changes = schema.newRow(key);
+    for (Map.Entry<String, ByteIterator> entry : values.entrySet()) {
+      int index = schema.indexOf(entry.getKey());
+      if (index >= 0 && index != schema.getPrimaryKeyIndex()) {
+        changes[index] = schema.toColumnValue(index, entry.getValue());
+      }
+    }
+
+    boolean isOK;
+    int slot = clients.acquire(key, clientSlot);
+    try {
+      DingoDBBackend dingoClient = clients.get(slot);
+      Record record = dingoClient.get(defaultTableName, key);
+      if (record == null) {
+        return Status.NOT_FOUND;
+      }
+
+      Object[] originRecord = record.getDingoColumnValuesInOrder();
+      for (int i = 0; i < changes.length; i++) {
+        if (changes[i] != null) {
+          originRecord[i] = changes[i];
         }
-        recordList.add(originRecord[i]);
       }
+
+      isOK = dingoClient.upsert(defaultTableName, new Record(schema.getColumns(), Arrays.asList(originRecord)));
+    } catch (RuntimeException ex) {
+      System.out.println("Update record key:[" + key + "] catch exception:" + ex);
+      return Status.ERROR;
+    } finally {
+      clients.release(slot);
     }
-    
-    boolean isOK = dingoClient.upsert(defaultTableName, new Record(colList, recordList));
     if (isOK) {
       return Status.OK;
     }
@@ -281,107 +609,83 @@ public class DingoDBClient extends DB {
                      int recordcount,
                      Set<String> fields,
                      Vector<HashMap<String, ByteIterator>> result) {
-    return Status.OK;
+    return scanRecords(startkey, recordcount, fields, result);
   }
-  
-  private static LinkedHashMap<String, String> convertRecord2HashMap(Object[] columnValues) {
-    if (tableDefinition == null || tableDefinition.getColumns().size() == 0) {
-      System.out.println("Invalid table definition:" + (tableDefinition == null ? "null" : "OK"));
-      throw new RuntimeException("Table definition or Values is null");
+
+  @Override
+  public CompletableFuture<Status> scanAsync(String tableName,
+                                             String startkey,
+                                             int recordcount,
+                                             Set<String> fields,
+                                             Vector<HashMap<String, ByteIterator>> result) {
+    return submit(() -> scanRecords(startkey, recordcount, fields, result));
+  }
+
+  private Status scanRecords(String startkey,
+                             int recordcount,
+                             Set<String> fields,
+                             Vector<HashMap<String, ByteIterator>> result) {
+    int slot = clients.acquire(startkey, clientSlot);
+    try {
+      Iterator<Record> iterator = clients.get(slot).scan(defaultTableName, startkey, SCAN_END_KEY, recordcount);
+      while (iterator.hasNext()) {
+        HashMap<String, ByteIterator> row = new HashMap<>();
+        putColumnValues(iterator.next().getDingoColumnValuesInOrder(), fields, row);
+        result.add(row);
+      }
+      return Status.OK;
+    } catch (RuntimeException ex) {
+      System.out.println("Scan from key:[" + startkey + "] catch exception:" + ex);
+    } finally {
+      clients.release(slot);
     }
-    
-    LinkedHashMap<String, String> result = new LinkedHashMap<>();
-    for (int i =0; i < columnValues.length; i++) {
-      String columnName = tableDefinition.getColumn(i).getName();
-      result.put(columnName.toLowerCase(), columnValues[i].toString());
+    return Status.ERROR;
+  }
+
+  /**
+   * Copy the columns of a record into {@code result}, keeping only {@code fields} when it is not null.
+   * The values are wrapped as they are returned by the client, null columns are left out.
+   */
+  private static void putColumnValues(Object[] columnValues,
+                                      Set<String> fields,
+                                      Map<String, ByteIterator> result) {
+    if (fields == null) {
+      for (int i = 0; i < columnValues.length; i++) {
+        if (columnValues[i] != null) {
+          result.put(schema.getFieldName(i), toByteIterator(columnValues[i]));
+        }
+      }
+      return;
+    }
+    for (String field : fields) {
+      int index = schema.indexOf(field);
+      if (index >= 0 && columnValues[index] != null) {
+        result.put(field, toByteIterator(columnValues[index]));
+      }
     }
-    return result;
   }
 
-  private static TableDefinition getTableDefinition(String tableName) {
+  /**
+   * Wrap a column value without copying it when it is a string or a byte array.
+   */
+  private static ByteIterator toByteIterator(Object value) {
+    if (value instanceof byte[]) {
+      return new ByteArrayByteIterator((byte[]) value);
+    }
+    if (value instanceof String) {
+      return new StringByteIterator((String) value);
+    }
+    return new StringByteIterator(value.toString());
+  }
+
+  private static TableDefinition getTableDefinition(Properties props, String tableName) {
 
     /**
      * as the benchmark is on a single table, so the tableDefinition is only one.
      */
     if (tableDefinition == null) {
-      List<Column> colDefList = new ArrayList<>();
-      final String defaultTypeName = "varchar";
-//      ColumnDefinition primaryColumn = new ColumnDefinition(
-//          DingoDBClient.PRIMARY_KEY,
-//          defaultTypeName,
-//          "",
-//          -1,
-//          1,
-//          false,
-//          0,
-//          generateRandomStr(20),
-//          false
-//      );
-      ColumnDefinition primaryColumn = ColumnDefinition.builder()
-          .name(DingoDBClient.PRIMARY_KEY)
-          .type(defaultTypeName)
-          .precision(-1)
-          .scale(1)
-          .nullable(false)
-          .primary(0)
-          .defaultValue(generateRandomStr(20))
-          .isAutoIncrement(false)
-          .build();
-      colDefList.add(primaryColumn);
-      
-      for (int i = 0; i < columnCnt; i++) {
-//        ColumnDefinition colDef = new ColumnDefinition(
-//            DingoDBClient.COLUMN_PREFIX + i,
-//            defaultTypeName,
-//            "",
-//            -1,
-//            1,
-//            true,
-//            -1,
-//            generateRandomStr(20),
-//            false
-//        );
-        ColumnDefinition colDef = ColumnDefinition.builder()
-            .name(DingoDBClient.COLUMN_PREFIX + i)
-            .type(defaultTypeName)
-            .precision(-1)
-            .scale(1)
-            .nullable(true)
-            .primary(-1)
-            .defaultValue(generateRandomStr(20))
-            .isAutoIncrement(false)
-            .build();
-        colDefList.add(colDef);
-      }
-
-      PartitionDetailDefinition partitionDetailDefinition = new PartitionDetailDefinition(
-          null, null, Arrays.asList(new Object[]{"a"}));
-      PartitionRule partitionRule = new PartitionRule(
-          null, null, Arrays.asList(partitionDetailDefinition));
-
-//      tableDefinition = new TableDefinition(
-//          tableName,
-//          colDefList,
-//          1,
-//          0,
-//          null,
-//          Common.Engine.ENG_ROCKSDB.name(),
-//          null
-//      );
-      tableDefinition = TableDefinition.builder()
-          .name(tableName)
-          .columns(colDefList)
-          .version(1)
-          .ttl(0)
-          .partition(null)
-          .engine(Common.Engine.LSM.name())
-          .replica(3)
-          .createSql("")
-          .build();
+      tableDefinition = DingoDBTableCommand.buildTableDefinition(props, tableName, null);
     }
     return tableDefinition;
   }
-  private static String generateRandomStr(int strLen) {
-    return RandomStringUtils.randomAlphanumeric(strLen);
-  }
 }
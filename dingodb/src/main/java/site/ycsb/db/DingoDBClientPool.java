@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2012 YCSB contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb.db;
+
+import site.ycsb.DBException;
+import site.ycsb.measurements.Measurements;
+import site.ycsb.measurements.Statistic;
+
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A fixed set of DingoDB connections shared by all the client threads.
+ *
+ * Operations are routed to a connection either by the hash of their key or by the client thread
+ * that issues them. When contention tracking is on, every operation samples how many operations
+ * were already running on its connection into the statistic {@code DINGO-CLIENT-<n>-INFLIGHT}.
+ */
+final class DingoDBClientPool {
+
+  private final DingoDBBackend[] clients;
+  private final boolean routeByKey;
+  private final boolean trackContention;
+  private final AtomicIntegerArray inFlight;
+  private final Statistic[] inFlightStatistics;
+
+  DingoDBClientPool(DingoDBBackend[] clients, boolean routeByKey, boolean trackContention) {
+    this.clients = clients;
+    this.routeByKey = routeByKey;
+    this.trackContention = trackContention;
+    this.inFlight = new AtomicIntegerArray(clients.length);
+    this.inFlightStatistics = new Statistic[clients.length];
+    if (trackContention) {
+      for (int i = 0; i < clients.length; i++) {
+        inFlightStatistics[i] = Measurements.getMeasurements().getStatistic("DINGO-CLIENT-" + i + "-INFLIGHT");
+      }
+    }
+  }
+
+  int size() {
+    return clients.length;
+  }
+
+  /**
+   * Pick the connection of an operation and mark it as running on it.
+   * Every call must be paired with {@link #release(int)}.
+   *
+   * @param key the key of the operation.
+   * @param threadSlot the connection assigned to the calling client thread.
+   * @return the index of the connection to use.
+   */
+  int acquire(String key, int threadSlot) {
+    int slot = threadSlot;
+    if (routeByKey && key != null) {
+      slot = (key.hashCode() & Integer.MAX_VALUE) % clients.length;
+    }
+    if (trackContention) {
+      inFlightStatistics[slot].add(inFlight.getAndIncrement(slot));
+    }
+    return slot;
+  }
+
+  void release(int slot) {
+    if (trackContention) {
+      inFlight.decrementAndGet(slot);
+    }
+  }
+
+  DingoDBBackend get(int slot) {
+    return clients[slot];
+  }
+
+  void close() {
+    close(clients);
+  }
+
+  /**
+   * Open {@code count} connections to the cluster, or create the in-process stand-in shared by all
+   * of them, as set by the properties of {@link DingoDBClient}.
+   */
+  static DingoDBBackend[] open(Properties props, DingoDBSchema schema, int count) throws DBException {
+    DingoDBBackend[] backends = new DingoDBBackend[count];
+    String backend = props.getProperty(DingoDBClient.DINGO_BACKEND, DingoDBClient.DINGO_BACKEND_DEFAULT);
+    if (DingoDBClient.DINGO_BACKEND_MEMORY.equalsIgnoreCase(backend)) {
+      DingoDBBackend memoryBackend = new DingoDBMemoryBackend(
+          schema,
+          Long.parseLong(props.getProperty(
+              DingoDBClient.DINGO_MEMORY_LATENCY_US, DingoDBClient.DINGO_MEMORY_LATENCY_US_DEFAULT)),
+          Double.parseDouble(props.getProperty(
+              DingoDBClient.DINGO_MEMORY_ERROR_RATE, DingoDBClient.DINGO_MEMORY_ERROR_RATE_DEFAULT)));
+      Arrays.fill(backends, memoryBackend);
+      return backends;
+    }
+    if (!DingoDBClient.DINGO_BACKEND_DEFAULT.equalsIgnoreCase(backend)) {
+      throw new DBException("Unknown " + DingoDBClient.DINGO_BACKEND + ": " + backend);
+    }
+
+    String coordinatorList = props.getProperty(DingoDBClient.COORDINATOR_HOST);
+    try {
+      for (int i = 0; i < count; i++) {
+        backends[i] = new DingoDBNativeBackend(coordinatorList);
+      }
+    } catch (DBException e) {
+      close(backends);
+      throw e;
+    }
+    return backends;
+  }
+
+  /**
+   * Close the connections, skipping the ones not opened yet.
+   */
+  static void close(DingoDBBackend[] backends) {
+    for (DingoDBBackend client : backends) {
+      if (client == null) {
+        continue;
+      }
+      try {
+        client.close();
+      } catch (Exception e) {
+        System.err.println("Could not close DingoDB connection pool: " + e.toString());
+        e.printStackTrace();
+      }
+    }
+  }
+}
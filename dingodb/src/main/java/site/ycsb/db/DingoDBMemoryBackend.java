@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2012 YCSB contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb.db;
+
+import io.dingodb.client.common.Record;
+import io.dingodb.sdk.common.table.Column;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-process stand-in for a DingoDB cluster keeping the table in a sorted map.
+ *
+ * It lets the binding be tested without a cluster, and measures how much of the latency is spent
+ * in the binding and the harness. Every call can be delayed by a fixed latency and can fail with a
+ * given probability: failed writes return false, failed reads and scans throw.
+ */
+final class DingoDBMemoryBackend implements DingoDBBackend {
+
+  private final List<Column> columns;
+  private final Map<String, Integer> columnIndexes;
+  private final int primaryKeyIndex;
+  private final long latencyNanos;
+  private final double errorRate;
+  private final ConcurrentSkipListMap<String, Object[]> rows = new ConcurrentSkipListMap<>();
+
+  DingoDBMemoryBackend(DingoDBSchema schema, long latencyMicros, double errorRate) {
+    this.columns = schema.getColumns();
+    this.columnIndexes = new HashMap<>();
+    for (int i = 0; i < columns.size(); i++) {
+      columnIndexes.put(columns.get(i).getName(), i);
+    }
+    this.primaryKeyIndex = schema.getPrimaryKeyIndex();
+    this.latencyNanos = TimeUnit.MICROSECONDS.toNanos(latencyMicros);
+    this.errorRate = errorRate;
+  }
+
+  /**
+   * Wait for the configured latency.
+   *
+   * @return false if the call must fail.
+   */
+  private boolean call() {
+    if (latencyNanos > 0) {
+      LockSupport.parkNanos(latencyNanos);
+    }
+    return errorRate <= 0 || ThreadLocalRandom.current().nextDouble() >= errorRate;
+  }
+
+  private void callOrThrow() {
+    if (!call()) {
+      throw new IllegalStateException("Injected DingoDB error");
+    }
+  }
+
+  @Override
+  public Record get(String table, String key) {
+    callOrThrow();
+    Object[] row = rows.get(key);
+    return row == null ? null : new Record(columns, Arrays.asList(row.clone()));
+  }
+
+  @Override
+  public Record get(String table, String key, List<String> columnNames) {
+    callOrThrow();
+    Object[] row = rows.get(key);
+    if (row == null) {
+      return null;
+    }
+    List<Column> projection = new ArrayList<>(columnNames.size());
+    List<Object> values = new ArrayList<>(columnNames.size());
+    for (String name : columnNames) {
+      int index = columnIndexes.get(name);
+      projection.add(columns.get(index));
+      values.add(row[index]);
+    }
+    return new Record(projection, values);
+  }
+
+  @Override
+  public boolean upsert(String table, Record record) {
+    if (!call()) {
+      return false;
+    }
+    write(record);
+    return true;
+  }
+
+  @Override
+  public List<Boolean> upsert(String table, List<Record> records) {
+    boolean ok = call();
+    List<Boolean> results = new ArrayList<>(records.size());
+    for (Record record : records) {
+      if (ok) {
+        write(record);
+      }
+      results.add(ok);
+    }
+    return results;
+  }
+
+  /**
+   * Replace the whole row, like the upsert of a record does: the columns the record lacks are null.
+   */
+  private void write(Record record) {
+    List<Column> recordColumns = record.getColumns();
+    Object[] values = record.getDingoColumnValuesInOrder();
+    if (recordColumns == columns) {
+      rows.put((String) values[primaryKeyIndex], values.clone());
+      return;
+    }
+
+    Object[] row = new Object[columns.size()];
+    for (int i = 0; i < recordColumns.size(); i++) {
+      row[columnIndexes.get(recordColumns.get(i).getName())] = values[i];
+    }
+    rows.put((String) row[primaryKeyIndex], row);
+  }
+
+  @Override
+  public boolean delete(String table, String key) {
+    if (!call()) {
+      return false;
+    }
+    rows.remove(key);
+    return true;
+  }
+
+  @Override
+  public Iterator<Record> scan(String table, String startKey, String endKey, int limit) {
+    callOrThrow();
+    return rows.subMap(startKey, true, endKey, false).values().stream()
+        .limit(limit)
+        .map(row -> new Record(columns, Arrays.asList(row.clone())))
+        .iterator();
+  }
+
+  @Override
+  public List<String> splitKeys(String table) {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public void close() {
+  }
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2012 YCSB contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb.db;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-process stand-in for DingoDB optimistic transactions.
+ *
+ * Every balance carries a version. A transaction remembers the versions it read and buffers its
+ * writes; it commits only if none of the balances it read changed since, and aborts
+ * otherwise, like a first-committer-wins optimistic transaction. Every read, write and commit can
+ * be delayed by a fixed latency, which widens the window in which transactions conflict, and can
+ * fail with a given probability by throwing.
+ */
+final class DingoDBMemoryTransactionBackend implements DingoDBTransactionBackend {
+
+  private final long latencyNanos;
+  private final double errorRate;
+  private final ConcurrentHashMap<String, Versioned> balances = new ConcurrentHashMap<>();
+  private final Object commitLock = new Object();
+
+  DingoDBMemoryTransactionBackend(long latencyMicros, double errorRate) {
+    this.latencyNanos = TimeUnit.MICROSECONDS.toNanos(latencyMicros);
+    this.errorRate = errorRate;
+  }
+
+  private void call() {
+    if (latencyNanos > 0) {
+      LockSupport.parkNanos(latencyNanos);
+    }
+    if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+      throw new IllegalStateException("Injected DingoDB error");
+    }
+  }
+
+  @Override
+  public Session openSession() {
+    return new MemorySession();
+  }
+
+  @Override
+  public void close() {
+  }
+
+  /**
+   * A balance and the number of committed transactions that wrote it.
+   */
+  private static final class Versioned {
+    private final long balance;
+    private final long version;
+
+    Versioned(long balance, long version) {
+      this.balance = balance;
+      this.version = version;
+    }
+  }
+
+  private final class MemorySession implements Session {
+    private final Map<String, Long> readVersions = new HashMap<>();
+    private final Map<String, Long> writes = new HashMap<>();
+
+    @Override
+    public void begin() {
+      readVersions.clear();
+      writes.clear();
+    }
+
+    @Override
+    public Long get(String key) {
+      call();
+      Long written = writes.get(key);
+      if (written != null) {
+        return written;
+      }
+      Versioned current = balances.get(key);
+      readVersions.put(key, current == null ? 0L : current.version);
+      return current == null ? null : current.balance;
+    }
+
+    @Override
+    public void put(String key, long balance) {
+      call();
+      writes.put(key, balance);
+    }
+
+    @Override
+    public boolean commit() {
+      call();
+      try {
+        synchronized (commitLock) {
+          for (Map.Entry<String, Long> read : readVersions.entrySet()) {
+            if (versionOf(read.getKey()) != read.getValue()) {
+              return false;
+            }
+          }
+          for (Map.Entry<String, Long> write : writes.entrySet()) {
+            balances.put(write.getKey(), new Versioned(write.getValue(), versionOf(write.getKey()) + 1));
+          }
+          return true;
+        }
+      } finally {
+        begin();
+      }
+    }
+
+    private long versionOf(String key) {
+      Versioned current = balances.get(key);
+      return current == null ? 0L : current.version;
+    }
+
+    @Override
+    public void rollback() {
+      begin();
+    }
+
+    @Override
+    public void close() {
+      begin();
+    }
+  }
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2012 YCSB contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb.db;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process vector index answering searches by brute force over all the vectors.
+ */
+final class DingoDBMemoryVectorBackend implements DingoDBVectorBackend {
+
+  private final Map<Long, float[]> vectors = new ConcurrentHashMap<>();
+
+  @Override
+  public boolean upsert(long[] ids, float[][] values) {
+    for (int i = 0; i < ids.length; i++) {
+      vectors.put(ids[i], values[i]);
+    }
+    return true;
+  }
+
+  @Override
+  public List<Long> search(float[] query, int topK) {
+    Nearest nearest = new Nearest(topK);
+    for (Map.Entry<Long, float[]> entry : vectors.entrySet()) {
+      nearest.offer(entry.getKey(), DingoDBVectorWorkload.squaredDistance(query, entry.getValue()));
+    }
+    return nearest.ids();
+  }
+
+  @Override
+  public boolean delete(long id) {
+    vectors.remove(id);
+    return true;
+  }
+
+  @Override
+  public void close() {
+  }
+
+  /**
+   * Keeps the ids of the {@code topK} closest vectors offered to it.
+   */
+  static final class Nearest {
+    private final int topK;
+    // max-heap on distance, the farthest of the closest vectors seen so far is on top
+    private final PriorityQueue<double[]> closest;
+
+    Nearest(int topK) {
+      this.topK = topK;
+      this.closest = new PriorityQueue<>(topK + 1, (a, b) -> Double.compare(b[0], a[0]));
+    }
+
+    void offer(long id, double distance) {
+      if (closest.size() < topK) {
+        closest.add(new double[]{distance, id});
+      } else if (distance < closest.peek()[0]) {
+        closest.poll();
+        closest.add(new double[]{distance, id});
+      }
+    }
+
+    /**
+     * @return the ids of the closest vectors, closest first.
+     */
+    List<Long> ids() {
+      PriorityQueue<double[]> heap = new PriorityQueue<>(closest);
+      List<Long> ids = new ArrayList<>(heap.size());
+      while (!heap.isEmpty()) {
+        ids.add((long) heap.poll()[1]);
+      }
+      Collections.reverse(ids);
+      return ids;
+    }
+  }
+}
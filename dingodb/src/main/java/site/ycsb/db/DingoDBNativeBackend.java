@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2012 YCSB contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb.db;
+
+import io.dingodb.client.DingoClient;
+import io.dingodb.client.common.Key;
+import io.dingodb.client.common.Record;
+import io.dingodb.client.common.Value;
+import io.dingodb.sdk.common.partition.PartitionDetail;
+import io.dingodb.sdk.common.table.Table;
+import site.ycsb.DBException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Backend sending the requests to a DingoDB cluster through a DingoClient connection.
+ */
+final class DingoDBNativeBackend implements DingoDBBackend {
+
+  private final DingoClient dingoClient;
+
+  DingoDBNativeBackend(String coordinatorList) throws DBException {
+    dingoClient = new DingoClient(coordinatorList, 100);
+    if (!dingoClient.open()) {
+      throw new DBException("Init connection to coordinator:" + coordinatorList + " failed");
+    }
+  }
+
+  private static Key toKey(String key) {
+    return new Key(Collections.singletonList(Value.get(key)));
+  }
+
+  @Override
+  public Record get(String table, String key) {
+    return dingoClient.get(table, toKey(key));
+  }
+
+  @Override
+  public Record get(String table, String key, List<String> columns) {
+    return dingoClient.get(table, toKey(key), columns);
+  }
+
+  @Override
+  public boolean upsert(String table, Record record) {
+    return dingoClient.upsert(table, record);
+  }
+
+  @Override
+  public List<Boolean> upsert(String table, List<Record> records) {
+    return dingoClient.upsert(table, records);
+  }
+
+  @Override
+  public boolean delete(String table, String key) {
+    return dingoClient.delete(table, toKey(key));
+  }
+
+  @Override
+  public Iterator<Record> scan(String table, String startKey, String endKey, int limit) {
+    Iterator<Record> rows = dingoClient.scan(table, toKey(startKey), toKey(endKey), true, false);
+    return new Iterator<Record>() {
+      private int returned;
+
+      @Override
+      public boolean hasNext() {
+        return returned < limit && rows.hasNext();
+      }
+
+      @Override
+      public Record next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        returned++;
+        return rows.next();
+      }
+    };
+  }
+
+  @Override
+  public List<String> splitKeys(String table) {
+    Table definition = dingoClient.getTableDefinition(table);
+    if (definition == null || definition.getPartition() == null
+        || definition.getPartition().getDetails() == null) {
+      return Collections.emptyList();
+    }
+    List<String> splitKeys = new ArrayList<>();
+    for (PartitionDetail detail : definition.getPartition().getDetails()) {
+      Object[] operand = detail.getOperand();
+      if (operand != null && operand.length > 0 && operand[0] != null) {
+        splitKeys.add(operand[0].toString());
+      }
+    }
+    Collections.sort(splitKeys);
+    return splitKeys;
+  }
+
+  @Override
+  public void close() {
+    dingoClient.close();
+  }
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2012 YCSB contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb.db;
+
+import io.dingodb.client.DingoClient;
+import io.dingodb.client.common.VectorDistanceArray;
+import io.dingodb.client.common.VectorSearch;
+import io.dingodb.client.common.VectorWithDistance;
+import io.dingodb.sdk.common.vector.Vector;
+import io.dingodb.sdk.common.vector.VectorSearchParameter;
+import io.dingodb.sdk.common.vector.VectorWithId;
+import site.ycsb.DBException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Vector index calls sent to a DingoDB cluster through a DingoClient connection.
+ * The index must already exist with the dimension used by the workload.
+ */
+final class DingoDBNativeVectorBackend implements DingoDBVectorBackend {
+
+  private final DingoClient dingoClient;
+  private final String schema;
+  private final String indexName;
+  private final int dimension;
+
+  DingoDBNativeVectorBackend(String coordinatorList, String schema, String indexName, int dimension)
+      throws DBException {
+    this.schema = schema;
+    this.indexName = indexName;
+    this.dimension = dimension;
+    dingoClient = new DingoClient(coordinatorList, 100);
+    if (!dingoClient.open()) {
+      throw new DBException("Init connection to coordinator:" + coordinatorList + " failed");
+    }
+  }
+
+  private VectorWithId toVectorWithId(long id, float[] values) {
+    List<Float> floats = new ArrayList<>(values.length);
+    for (float value : values) {
+      floats.add(value);
+    }
+    return VectorWithId.builder()
+        .id(id)
+        .vector(Vector.getFloatInstance(dimension, floats))
+        .build();
+  }
+
+  @Override
+  public boolean upsert(long[] ids, float[][] vectors) {
+    List<VectorWithId> batch = new ArrayList<>(ids.length);
+    for (int i = 0; i < ids.length; i++) {
+      batch.add(toVectorWithId(ids[i], vectors[i]));
+    }
+    List<VectorWithId> written = dingoClient.vectorAdd(schema, indexName, batch);
+    return written != null && written.size() == ids.length;
+  }
+
+  @Override
+  public List<Long> search(float[] query, int topK) {
+    VectorSearchParameter parameter = VectorSearchParameter.builder()
+        .topN(topK)
+        .withoutVectorData(true)
+        .build();
+    List<VectorDistanceArray> results = dingoClient.vectorSearch(
+        schema, indexName, new VectorSearch(parameter, toVectorWithId(0, query)));
+    if (results == null || results.isEmpty()) {
+      return Collections.emptyList();
+    }
+    List<Long> ids = new ArrayList<>(topK);
+    for (VectorWithDistance neighbour : results.get(0).getVectorWithDistances()) {
+      ids.add(neighbour.getId());
+    }
+    return ids;
+  }
+
+  @Override
+  public boolean delete(long id) {
+    List<Boolean> results = dingoClient.vectorDelete(schema, indexName, Collections.singletonList(id));
+    return results != null && !results.isEmpty() && Boolean.TRUE.equals(results.get(0));
+  }
+
+  @Override
+  public void close() {
+    dingoClient.close();
+  }
+}
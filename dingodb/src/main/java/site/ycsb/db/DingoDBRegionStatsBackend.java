@@ -0,0 +1,236 @@
+/**
+ * Copyright (c) 2012 YCSB contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb.db;
+
+import io.dingodb.client.common.Record;
+import site.ycsb.Status;
+import site.ycsb.measurements.Measurements;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Backend measuring the calls of another backend per region of the table, to find hot regions.
+ *
+ * The region of a call is the one holding its key, found from the region split keys. The latency
+ * of each call is recorded as the measurement {@code DINGO-REGION-<n>}, region 0 being the first
+ * in key order, and its outcome is counted by Status. A scan is counted in the region of its start
+ * key and measured until its last row is read. Every record of a multi-record upsert is
+ * counted in its own region with the latency of the whole batch.
+ */
+final class DingoDBRegionStatsBackend implements DingoDBBackend {
+
+  private final DingoDBBackend backend;
+  private final String[] splitKeys;
+  private final String[] measurementNames;
+  private final Measurements measurements;
+
+  DingoDBRegionStatsBackend(DingoDBBackend backend, List<String> splitKeys) {
+    this.backend = backend;
+    this.splitKeys = splitKeys.toArray(new String[0]);
+    Arrays.sort(this.splitKeys);
+    this.measurementNames = new String[this.splitKeys.length + 1];
+    for (int i = 0; i < measurementNames.length; i++) {
+      measurementNames[i] = "DINGO-REGION-" + i;
+    }
+    this.measurements = Measurements.getMeasurements();
+  }
+
+  int regionCount() {
+    return measurementNames.length;
+  }
+
+  /**
+   * @return the index of the region holding {@code key}.
+   */
+  int regionOf(String key) {
+    return regionOf(splitKeys, key);
+  }
+
+  /**
+   * @return the index of the region holding {@code key}, given the sorted keys starting every
+   * region but the first.
+   */
+  static int regionOf(String[] splitKeys, String key) {
+    int index = Arrays.binarySearch(splitKeys, key);
+    return index >= 0 ? index + 1 : -index - 1;
+  }
+
+  /**
+   * @return a description of the key range of every region.
+   */
+  String describeRegions() {
+    StringBuilder description = new StringBuilder();
+    for (int i = 0; i < measurementNames.length; i++) {
+      description.append(measurementNames[i]).append(": [")
+          .append(i == 0 ? "" : splitKeys[i - 1]).append(", ")
+          .append(i == splitKeys.length ? "" : splitKeys[i]).append(")\n");
+    }
+    return description.toString();
+  }
+
+  private void record(String key, long startNanos, boolean ok) {
+    String name = measurementNames[regionOf(key)];
+    measurements.measure(name, (int) ((System.nanoTime() - startNanos) / 1000));
+    measurements.reportStatus(name, ok ? Status.OK : Status.ERROR);
+  }
+
+  private static String keyOf(Record record) {
+    Object key = record.getValue(DingoDBClient.PRIMARY_KEY);
+    return key == null ? "" : key.toString();
+  }
+
+  @Override
+  public Record get(String table, String key) {
+    long start = System.nanoTime();
+    boolean ok = false;
+    try {
+      Record record = backend.get(table, key);
+      ok = true;
+      return record;
+    } finally {
+      record(key, start, ok);
+    }
+  }
+
+  @Override
+  public Record get(String table, String key, List<String> columns) {
+    long start = System.nanoTime();
+    boolean ok = false;
+    try {
+      Record record = backend.get(table, key, columns);
+      ok = true;
+      return record;
+    } finally {
+      record(key, start, ok);
+    }
+  }
+
+  @Override
+  public boolean upsert(String table, Record record) {
+    long start = System.nanoTime();
+    boolean ok = false;
+    try {
+      ok = backend.upsert(table, record);
+      return ok;
+    } finally {
+      record(keyOf(record), start, ok);
+    }
+  }
+
+  @Override
+  public List<Boolean> upsert(String table, List<Record> records) {
+    long start = System.nanoTime();
+    List<Boolean> results = null;
+    try {
+      results = backend.upsert(table, records);
+      return results;
+    } finally {
+      for (int i = 0; i < records.size(); i++) {
+        boolean ok = results != null && i < results.size() && Boolean.TRUE.equals(results.get(i));
+        record(keyOf(records.get(i)), start, ok);
+      }
+    }
+  }
+
+  @Override
+  public boolean delete(String table, String key) {
+    long start = System.nanoTime();
+    boolean ok = false;
+    try {
+      ok = backend.delete(table, key);
+      return ok;
+    } finally {
+      record(key, start, ok);
+    }
+  }
+
+  @Override
+  public Iterator<Record> scan(String table, String startKey, String endKey, int limit) {
+    long start = System.nanoTime();
+    try {
+      return new MeasuredScan(backend.scan(table, startKey, endKey, limit), startKey, start);
+    } catch (RuntimeException e) {
+      record(startKey, start, false);
+      throw e;
+    }
+  }
+
+  @Override
+  public List<String> splitKeys(String table) {
+    return backend.splitKeys(table);
+  }
+
+  @Override
+  public void close() {
+    backend.close();
+  }
+
+  /**
+   * Rows of a scan, measured once the last one is read or reading them fails.
+   */
+  private final class MeasuredScan implements Iterator<Record> {
+    private final Iterator<Record> rows;
+    private final String startKey;
+    private final long start;
+    private boolean measured;
+
+    MeasuredScan(Iterator<Record> rows, String startKey, long start) {
+      this.rows = rows;
+      this.startKey = startKey;
+      this.start = start;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (measured) {
+        return false;
+      }
+      try {
+        boolean more = rows.hasNext();
+        if (!more) {
+          finish(true);
+        }
+        return more;
+      } catch (RuntimeException e) {
+        finish(false);
+        throw e;
+      }
+    }
+
+    @Override
+    public Record next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      try {
+        return rows.next();
+      } catch (RuntimeException e) {
+        finish(false);
+        throw e;
+      }
+    }
+
+    private void finish(boolean ok) {
+      measured = true;
+      record(startKey, start, ok);
+    }
+  }
+}
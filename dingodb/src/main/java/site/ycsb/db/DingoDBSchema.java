@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2012 YCSB contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb.db;
+
+import io.dingodb.sdk.common.table.Column;
+import io.dingodb.sdk.common.table.Table;
+import site.ycsb.ByteIterator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column layout of the benchmark table, resolved once so the operations never match column names.
+ *
+ * Field names are the lower case column names used by the workload, e.g. {@code field0} for
+ * column {@code FIELD0}.
+ */
+final class DingoDBSchema {
+
+  private final List<Column> columns;
+  private final String[] fieldNames;
+  private final Map<String, Integer> fieldIndexes;
+  private final int primaryKeyIndex;
+  private final String[] types;
+
+  DingoDBSchema(Table table) {
+    List<Column> tableColumns = table.getColumns();
+    if (tableColumns == null || tableColumns.isEmpty()) {
+      throw new IllegalArgumentException("Table definition of " + table.getName() + " has no columns");
+    }
+    this.columns = Collections.unmodifiableList(new ArrayList<>(tableColumns));
+    this.fieldNames = new String[columns.size()];
+    this.fieldIndexes = new HashMap<>(columns.size() * 4);
+    this.types = new String[columns.size()];
+
+    int keyIndex = -1;
+    for (int i = 0; i < columns.size(); i++) {
+      String columnName = columns.get(i).getName();
+      fieldNames[i] = columnName.toLowerCase();
+      fieldIndexes.put(fieldNames[i], i);
+      fieldIndexes.put(columnName, i);
+      String type = columns.get(i).getType();
+      types[i] = type == null ? "varchar" : type.toLowerCase();
+      if (columnName.equalsIgnoreCase(DingoDBClient.PRIMARY_KEY)) {
+        keyIndex = i;
+      }
+    }
+    if (keyIndex < 0) {
+      throw new IllegalArgumentException("Table definition of " + table.getName() + " has no column "
+          + DingoDBClient.PRIMARY_KEY);
+    }
+    this.primaryKeyIndex = keyIndex;
+  }
+
+  List<Column> getColumns() {
+    return columns;
+  }
+
+  int size() {
+    return fieldNames.length;
+  }
+
+  int getPrimaryKeyIndex() {
+    return primaryKeyIndex;
+  }
+
+  /**
+   * @return the workload field name of the column at {@code index}.
+   */
+  String getFieldName(int index) {
+    return fieldNames[index];
+  }
+
+  /**
+   * @return the index of the column of a workload field, or -1 when the table has no such column.
+   */
+  int indexOf(String fieldName) {
+    Integer index = fieldIndexes.get(fieldName);
+    return index == null ? -1 : index;
+  }
+
+  /**
+   * Convert a workload value to the type of the column at {@code index}. Numbers are derived from
+   * the bytes of the value, so the same value always gives the same number.
+   */
+  Object toColumnValue(int index, ByteIterator value) {
+    switch (types[index]) {
+    case "integer":
+    case "int":
+      return (int) fold(value.toArray());
+    case "bigint":
+    case "long":
+      return fold(value.toArray());
+    case "double":
+      return fold(value.toArray()) / 1000.0;
+    case "binary":
+    case "varbinary":
+    case "bytes":
+      return value.toArray();
+    default:
+      return value.toString();
+    }
+  }
+
+  private static long fold(byte[] bytes) {
+    long folded = 0;
+    for (byte b : bytes) {
+      folded = folded * 31 + b;
+    }
+    return folded;
+  }
+
+  /**
+   * @return a row with all the columns set to null except the primary key.
+   */
+  Object[] newRow(String key) {
+    Object[] row = new Object[fieldNames.length];
+    row[primaryKeyIndex] = key;
+    return row;
+  }
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2012 YCSB contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb.db;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Runs the transactions through the DingoDB SQL interface, since the key-value client does not
+ * expose transactions. Each client thread gets its own JDBC connection with auto-commit off.
+ *
+ * The accounts table needs a {@code YCSB_KEY} primary key column and a {@code BALANCE} BIGINT
+ * column. Statements failing with a serialization failure (SQL state class 40) are reported as
+ * conflicts, any other SQL error is thrown.
+ */
+final class DingoDBSqlTransactionBackend implements DingoDBTransactionBackend {
+
+  private static final String CONFLICT_SQL_STATE_CLASS = "40";
+
+  private final String url;
+  private final String user;
+  private final String password;
+  private final String selectSql;
+  private final String updateSql;
+  private final String insertSql;
+
+  DingoDBSqlTransactionBackend(String url, String user, String password, String table) {
+    this.url = url;
+    this.user = user;
+    this.password = password;
+    this.selectSql = "SELECT BALANCE FROM " + table + " WHERE " + DingoDBClient.PRIMARY_KEY + " = ?";
+    this.updateSql = "UPDATE " + table + " SET BALANCE = ? WHERE " + DingoDBClient.PRIMARY_KEY + " = ?";
+    this.insertSql = "INSERT INTO " + table + " (" + DingoDBClient.PRIMARY_KEY + ", BALANCE) VALUES (?, ?)";
+  }
+
+  @Override
+  public Session openSession() {
+    try {
+      Connection connection = DriverManager.getConnection(url, user, password);
+      connection.setAutoCommit(false);
+      return new SqlSession(connection);
+    } catch (SQLException e) {
+      throw new IllegalStateException("Could not connect to " + url, e);
+    }
+  }
+
+  @Override
+  public void close() {
+  }
+
+  private static boolean isConflict(SQLException e) {
+    return e.getSQLState() != null && e.getSQLState().startsWith(CONFLICT_SQL_STATE_CLASS);
+  }
+
+  /**
+   * @return the exception to throw for a failed statement.
+   */
+  private static RuntimeException failure(String message, SQLException e) {
+    if (isConflict(e)) {
+      return new ConflictException(e);
+    }
+    return new IllegalStateException(message, e);
+  }
+
+  private final class SqlSession implements Session {
+    private final Connection connection;
+    private final PreparedStatement select;
+    private final PreparedStatement update;
+    private final PreparedStatement insert;
+
+    SqlSession(Connection connection) throws SQLException {
+      this.connection = connection;
+      this.select = connection.prepareStatement(selectSql);
+      this.update = connection.prepareStatement(updateSql);
+      this.insert = connection.prepareStatement(insertSql);
+    }
+
+    @Override
+    public void begin() {
+      // a JDBC transaction starts with its first statement
+    }
+
+    @Override
+    public Long get(String key) {
+      try {
+        select.setString(1, key);
+        try (ResultSet resultSet = select.executeQuery()) {
+          return resultSet.next() ? resultSet.getLong(1) : null;
+        }
+      } catch (SQLException e) {
+        throw failure("Could not read " + key, e);
+      }
+    }
+
+    @Override
+    public void put(String key, long balance) {
+      try {
+        update.setLong(1, balance);
+        update.setString(2, key);
+        if (update.executeUpdate() == 0) {
+          insert.setString(1, key);
+          insert.setLong(2, balance);
+          insert.executeUpdate();
+        }
+      } catch (SQLException e) {
+        throw failure("Could not write " + key, e);
+      }
+    }
+
+    @Override
+    public boolean commit() {
+      try {
+        connection.commit();
+        return true;
+      } catch (SQLException e) {
+        rollback();
+        if (isConflict(e)) {
+          return false;
+        }
+        throw new IllegalStateException("Could not commit", e);
+      }
+    }
+
+    @Override
+    public void rollback() {
+      try {
+        connection.rollback();
+      } catch (SQLException e) {
+        System.err.println("Could not roll back DingoDB transaction: " + e.toString());
+      }
+    }
+
+    @Override
+    public void close() {
+      try {
+        connection.close();
+      } catch (SQLException e) {
+        System.err.println("Could not close DingoDB connection: " + e.toString());
+      }
+    }
+  }
+}
@@ -2,13 +2,17 @@ package site.ycsb.db;
 
 import com.alibaba.fastjson.JSONObject;
 import io.dingodb.client.DingoClient;
-import io.dingodb.common.Common;
 import io.dingodb.sdk.common.partition.PartitionDetailDefinition;
 import io.dingodb.sdk.common.partition.PartitionRule;
 import io.dingodb.sdk.common.table.Column;
 import io.dingodb.sdk.common.table.ColumnDefinition;
 import io.dingodb.sdk.common.table.TableDefinition;
 import org.apache.commons.lang3.RandomStringUtils;
+import site.ycsb.Client;
+import site.ycsb.workloads.CoreWorkload;
+
+import java.io.FileInputStream;
+import java.io.IOException;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -22,6 +26,10 @@ import java.util.Properties;
  *
  */
 public final class DingoDBTableCommand {
+
+  /** Maximum number of keys generated to compute the split keys of a pre-split table. */
+  private static final int SPLIT_SAMPLE_SIZE = 1000000;
+
   public static void main(String[] args) {
     if (args.length == 0) {
       usageMessage();
@@ -67,6 +75,23 @@ public final class DingoDBTableCommand {
         String value = args[argindex].substring(eq + 1);
         props.put(name, value);
         argindex++;
+      } else if (args[argindex].compareTo("-P") == 0) {
+        argindex++;
+        if (argindex >= args.length) {
+          usageMessage();
+          System.exit(0);
+        }
+        try (FileInputStream in = new FileInputStream(args[argindex])) {
+          Properties fileProps = new Properties();
+          fileProps.load(in);
+          for (String name : fileProps.stringPropertyNames()) {
+            props.putIfAbsent(name, fileProps.getProperty(name));
+          }
+        } catch (IOException e) {
+          System.err.println("Unable to open the properties file " + args[argindex] + ": " + e.getMessage());
+          System.exit(1);
+        }
+        argindex++;
       } else if (args[argindex].compareTo("-n") == 0) {
         argindex++;
         if (argindex >= args.length) {
@@ -116,7 +141,8 @@ public final class DingoDBTableCommand {
     try {
       doCommandOnTable(props, tableName);
     } catch (Exception e) {
-      System.err.println("Error in creating table. " + e);
+      System.err.println("Error in " + props.getProperty(DingoDBClient.DINGO_TBL_COMMAND,
+          DingoDBClient.DINGO_TBL_COMMAND_DEFAULT) + " table command. " + e);
       System.exit(1);
     }
   }
@@ -124,26 +150,45 @@ public final class DingoDBTableCommand {
   private static void usageMessage() {
     System.out.println("Do Table Command(create/drop) Client. Options:");
     System.out.println("  -c   command=operation(default create, such as:"
-            + DingoDBClient.DINGO_TBL_COMMAND+ "=create/drop)");
+            + DingoDBClient.DINGO_TBL_COMMAND+ "=create/drop/load/sweep)");
     System.out.println("  -p   key=value properties defined("
         + DingoDBClient.COORDINATOR_HOST + "=172.20.3.13:22001)");
+    System.out.println("  -P   workload file, its recordcount, insertorder and zeropadding are used to pre-split"
+        + " the table.");
+    System.out.println("  -p   " + DingoDBClient.DINGO_PARTITIONS + "=n pre-split the table into n partitions"
+        + " (default 1), " + DingoDBClient.DINGO_REPLICA + "=n replicas (default 3), "
+        + DingoDBClient.DINGO_ENGINE + "=engine (default LSM).");
+    System.out.println("  -p   " + DingoDBBulkLoader.THREADS + "=n loader threads (default number of cores), "
+        + DingoDBBulkLoader.BATCH_SIZE + "=n records per upsert (default 1000), with command=load.");
+    System.out.println("  -p   " + DingoDBClient.DINGO_TTL + "=seconds rows time to live (default 0, forever), "
+        + DingoDBClient.DINGO_FIELD_TYPES + "=type,... field column types (default varchar).");
+    System.out.println("  -p   " + DingoDBTableSweep.ENGINES + ", " + DingoDBTableSweep.REPLICAS + ", "
+        + DingoDBTableSweep.TTLS + ", " + DingoDBTableSweep.FIELD_TYPES + " values to sweep, with command=sweep.");
     System.out.println("  -n   name of the table.");
     System.out.println("  -f   number of fields (default 10).");
   }
 
-  private static void doCommandOnTable(Properties props, String tableName) throws Exception {
+  static void doCommandOnTable(Properties props, String tableName) throws Exception {
     String coordinatorList = props.getProperty(DingoDBClient.COORDINATOR_HOST);
-    int columnCnt = Integer.parseInt(
-        props.getProperty(
-            DingoDBClient.FIELD_COUNT_PROPERTY,
-            DingoDBClient.FIELD_COUNT_PROPERTY_DEFAULT
-        )
-    );
 
     String tableCommand = props.getProperty(
         DingoDBClient.DINGO_TBL_COMMAND,
         DingoDBClient.DINGO_TBL_COMMAND_DEFAULT);
 
+    if (0 == tableCommand.compareToIgnoreCase(DingoDBClient.DINGO_TBL_COMMAND_SWEEP)) {
+      if (!new DingoDBTableSweep(props, tableName).run()) {
+        throw new Exception("Some configurations failed.");
+      }
+      return;
+    }
+
+    if (0 == tableCommand.compareToIgnoreCase(DingoDBClient.DINGO_TBL_COMMAND_LOAD)) {
+      if (!new DingoDBBulkLoader(props, tableName).load()) {
+        throw new Exception("Some records could not be loaded.");
+      }
+      return;
+    }
+
     if (coordinatorList == null || coordinatorList.isEmpty()) {
       throw new Exception("Missing connection information.");
     }
@@ -158,9 +203,71 @@ public final class DingoDBTableCommand {
     boolean isDropTable = (0 == tableCommand.compareToIgnoreCase(DingoDBClient.DINGO_TBL_COMMAND_DROP));
     if (isDropTable) {
       dingoClient.dropTable(tableName);
+      dingoClient.close();
       return;
     }
-//    TableDefinition tableDef = DingoDBClient.getTableDefinition(tableName);
+    int partitions = Integer.parseInt(
+        props.getProperty(DingoDBClient.DINGO_PARTITIONS, DingoDBClient.DINGO_PARTITIONS_DEFAULT));
+    PartitionRule partitionRule = null;
+    if (partitions > 1) {
+      List<PartitionDetailDefinition> details = new ArrayList<>();
+      for (String splitKey : computeSplitKeys(props, partitions)) {
+        details.add(new PartitionDetailDefinition(null, null, Arrays.asList(new Object[]{splitKey})));
+      }
+      partitionRule = new PartitionRule(null, null, details);
+      System.out.println("Pre-split table " + tableName + " into " + (details.size() + 1) + " partitions");
+    }
+
+//    TableDefinition tableDef = new TableDefinition(
+//        tableName,
+//        colDefList,
+//        1,
+//        0,
+//        null,
+//        Common.Engine.ENG_ROCKSDB.name(),
+//        null
+//    );
+    
+    TableDefinition tableDef = buildTableDefinition(props, tableName, partitionRule);
+    
+    System.out.println("=========================================================");
+    System.out.println(toJson(tableDef));
+    System.out.println("=========================================================");
+
+    boolean createStatus = dingoClient.createTable(tableDef);
+    dingoClient.close();
+    if (!createStatus) {
+      throw new Exception("create table " + tableName + " failed!");
+    }
+  }
+
+  /**
+   * @return the definition of the benchmark table, with the engine, replica count and ttl of the
+   * properties.
+   */
+  static TableDefinition buildTableDefinition(Properties props, String tableName, PartitionRule partitionRule) {
+    return TableDefinition.builder()
+        .name(tableName)
+        .columns(buildColumns(props))
+        .version(1)
+        .ttl(Integer.parseInt(props.getProperty(DingoDBClient.DINGO_TTL, DingoDBClient.DINGO_TTL_DEFAULT)))
+        .partition(partitionRule)
+        .engine(props.getProperty(DingoDBClient.DINGO_ENGINE, DingoDBClient.DINGO_ENGINE_DEFAULT))
+        .replica(Integer.parseInt(
+            props.getProperty(DingoDBClient.DINGO_REPLICA, DingoDBClient.DINGO_REPLICA_DEFAULT)))
+        .createSql("")
+        .build();
+  }
+
+  /**
+   * @return the columns of the benchmark table: the varchar primary key and {@code fieldcount} fields
+   * typed by {@code dingo.fieldtypes}.
+   */
+  static List<Column> buildColumns(Properties props) {
+    int columnCnt = Integer.parseInt(
+        props.getProperty(DingoDBClient.FIELD_COUNT_PROPERTY, DingoDBClient.FIELD_COUNT_PROPERTY_DEFAULT));
+    String[] fieldTypes = props.getProperty(
+        DingoDBClient.DINGO_FIELD_TYPES, DingoDBClient.DINGO_FIELD_TYPES_DEFAULT).split(",");
     List<Column> colDefList = new ArrayList<>();
     final String defaultTypeName = "varchar";
 //    ColumnDefinition primaryColumn = new ColumnDefinition(
@@ -187,6 +294,7 @@ public final class DingoDBTableCommand {
     colDefList.add(primaryColumn);
 
     for (int i = 0; i < columnCnt; i++) {
+      String typeName = fieldTypes[i % fieldTypes.length].trim().toLowerCase();
 //      ColumnDefinition colDef = new ColumnDefinition(
 //          DingoDBClient.COLUMN_PREFIX + i,
 //          defaultTypeName,
@@ -200,52 +308,51 @@ public final class DingoDBTableCommand {
 //      );
       ColumnDefinition colDef = ColumnDefinition.builder()
           .name(DingoDBClient.COLUMN_PREFIX + i)
-          .type(defaultTypeName)
+          .type(typeName)
           .precision(-1)
           .scale(1)
           .nullable(true)
           .primary(-1)
-          .defaultValue(generateRandomStr(20))
+          .defaultValue(defaultTypeName.equals(typeName) ? generateRandomStr(20) : null)
           .isAutoIncrement(false)
           .build();
       colDefList.add(colDef);
     }
+    return colDefList;
+  }
 
-    PartitionDetailDefinition partitionDetailDefinition = new PartitionDetailDefinition(
-        null, null, Arrays.asList(new Object[]{"a"}));
-    PartitionRule partitionRule = new PartitionRule(
-        null, null, Arrays.asList(partitionDetailDefinition));
+  /**
+   * Compute the keys splitting the key space of the workload into {@code partitions} ranges holding
+   * the same number of records. Keys are built like CoreWorkload does from recordcount, insertorder
+   * and zeropadding, from a sample of at most {@link #SPLIT_SAMPLE_SIZE} records.
+   */
+  static List<String> computeSplitKeys(Properties props, int partitions) {
+    long recordCount = Long.parseLong(props.getProperty(Client.RECORD_COUNT_PROPERTY, "0"));
+    int zeroPadding = Integer.parseInt(props.getProperty(
+        CoreWorkload.ZERO_PADDING_PROPERTY, CoreWorkload.ZERO_PADDING_PROPERTY_DEFAULT));
+    boolean orderedInserts = !"hashed".equals(props.getProperty(
+        CoreWorkload.INSERT_ORDER_PROPERTY, CoreWorkload.INSERT_ORDER_PROPERTY_DEFAULT));
+    if (recordCount < partitions) {
+      throw new IllegalArgumentException("Can not split " + recordCount + " records into "
+          + partitions + " partitions, set " + Client.RECORD_COUNT_PROPERTY);
+    }
 
-//    TableDefinition tableDef = new TableDefinition(
-//        tableName,
-//        colDefList,
-//        1,
-//        0,
-//        null,
-//        Common.Engine.ENG_ROCKSDB.name(),
-//        null
-//    );
-    
-    TableDefinition tableDef = TableDefinition.builder()
-        .name(tableName)
-        .columns(colDefList)
-        .version(1)
-        .ttl(0)
-        .partition(null)
-        .engine(Common.Engine.LSM.name())
-        .replica(3)
-        .createSql("")
-        .build();
-    
-    System.out.println("=========================================================");
-    System.out.println(toJson(tableDef));
-    System.out.println("=========================================================");
+    int sampleSize = (int) Math.min(recordCount, SPLIT_SAMPLE_SIZE);
+    String[] sample = new String[sampleSize];
+    for (int i = 0; i < sampleSize; i++) {
+      long keynum = (long) ((double) i * recordCount / sampleSize);
+      sample[i] = CoreWorkload.buildKeyName(keynum, zeroPadding, orderedInserts);
+    }
+    Arrays.sort(sample);
 
-    boolean createStatus = dingoClient.createTable(tableDef);
-    if (!createStatus) {
-      System.out.println("create table failed!");
-    } 
-    dingoClient.close();
+    List<String> splitKeys = new ArrayList<>(partitions - 1);
+    for (int i = 1; i < partitions; i++) {
+      String splitKey = sample[(int) ((long) i * sampleSize / partitions)];
+      if (splitKeys.isEmpty() || !splitKeys.get(splitKeys.size() - 1).equals(splitKey)) {
+        splitKeys.add(splitKey);
+      }
+    }
+    return splitKeys;
   }
 
   //definition转json
@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) 2012 YCSB contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb.db;
+
+import site.ycsb.Client;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Benchmarks several table configurations in one invocation, run with {@code command=sweep} by
+ * {@link DingoDBTableCommand}.
+ *
+ * For every combination of the swept engines, replica counts, ttls and field types, the table is
+ * created, loaded, benchmarked with the transaction phase of the workload and dropped. The load
+ * uses {@link DingoDBBulkLoader}, or the load phase of the YCSB client when
+ * {@code dingo.sweep.load=client}. The YCSB client runs in a child JVM with the same class path,
+ * and writes its measurements to {@code <label>-run.txt} (and {@code <label>-load.txt}) in
+ * {@code dingo.sweep.outdir}.
+ */
+final class DingoDBTableSweep {
+
+  /** Comma separated storage engines to sweep, by default only dingo.engine. */
+  static final String ENGINES = "dingo.sweep.engines";
+
+  /** Comma separated replica counts to sweep, by default only dingo.replica. */
+  static final String REPLICAS = "dingo.sweep.replicas";
+
+  /** Comma separated ttls to sweep, by default only dingo.ttl. */
+  static final String TTLS = "dingo.sweep.ttls";
+
+  /** Semicolon separated dingo.fieldtypes values to sweep, by default only dingo.fieldtypes. */
+  static final String FIELD_TYPES = "dingo.sweep.fieldtypes";
+
+  /** Directory receiving the measurements of every configuration. */
+  static final String OUT_DIR = "dingo.sweep.outdir";
+  static final String OUT_DIR_DEFAULT = ".";
+
+  /** How the table is loaded: bulk or client. */
+  static final String LOAD = "dingo.sweep.load";
+  static final String LOAD_DEFAULT = "bulk";
+
+  /** Property holding the label of a configuration, used to name its measurement files. */
+  static final String LABEL = "dingo.sweep.label";
+
+  private final Properties props;
+  private final String tableName;
+  private final File outDir;
+
+  DingoDBTableSweep(Properties props, String tableName) {
+    this.props = props;
+    this.tableName = tableName;
+    this.outDir = new File(props.getProperty(OUT_DIR, OUT_DIR_DEFAULT));
+  }
+
+  /**
+   * @return the properties of every configuration to benchmark, each with its {@link #LABEL}.
+   */
+  List<Properties> configurations() {
+    List<Properties> configurations = new ArrayList<>();
+    for (String engine : values(ENGINES, DingoDBClient.DINGO_ENGINE, DingoDBClient.DINGO_ENGINE_DEFAULT, ",")) {
+      for (String replica : values(REPLICAS, DingoDBClient.DINGO_REPLICA, DingoDBClient.DINGO_REPLICA_DEFAULT, ",")) {
+        for (String ttl : values(TTLS, DingoDBClient.DINGO_TTL, DingoDBClient.DINGO_TTL_DEFAULT, ",")) {
+          for (String types : values(FIELD_TYPES, DingoDBClient.DINGO_FIELD_TYPES,
+              DingoDBClient.DINGO_FIELD_TYPES_DEFAULT, ";")) {
+            Properties configuration = new Properties();
+            configuration.putAll(props);
+            configuration.setProperty(DingoDBClient.DINGO_ENGINE, engine);
+            configuration.setProperty(DingoDBClient.DINGO_REPLICA, replica);
+            configuration.setProperty(DingoDBClient.DINGO_TTL, ttl);
+            configuration.setProperty(DingoDBClient.DINGO_FIELD_TYPES, types);
+            configuration.setProperty(DingoDBClient.DINGO_TABLE, tableName);
+            configuration.setProperty(LABEL,
+                engine + "-r" + replica + "-ttl" + ttl + "-" + types.replace(',', '_'));
+            configurations.add(configuration);
+          }
+        }
+      }
+    }
+    return configurations;
+  }
+
+  private List<String> values(String sweepProperty, String property, String defaultValue, String separator) {
+    List<String> values = new ArrayList<>();
+    for (String value : props.getProperty(sweepProperty, props.getProperty(property, defaultValue)).split(separator)) {
+      if (!value.trim().isEmpty()) {
+        values.add(value.trim());
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Benchmark every configuration, dropping the table after each one even if it failed.
+   *
+   * @return true if every configuration completed.
+   */
+  boolean run() throws IOException {
+    if (!outDir.isDirectory() && !outDir.mkdirs()) {
+      throw new IOException("Can not create " + outDir);
+    }
+    List<String> summary = new ArrayList<>();
+    boolean allDone = true;
+    for (Properties configuration : configurations()) {
+      String label = configuration.getProperty(LABEL);
+      System.out.println("==================== " + label + " ====================");
+      String outcome;
+      try {
+        outcome = runConfiguration(configuration, label) ? "done" : "FAILED";
+      } catch (Exception e) {
+        System.err.println("Configuration " + label + " failed: " + e);
+        outcome = "FAILED";
+      } finally {
+        drop(configuration);
+      }
+      allDone &= "done".equals(outcome);
+      summary.add(label + ": " + outcome);
+    }
+    System.out.println("==================== sweep of " + tableName + " ====================");
+    for (String line : summary) {
+      System.out.println(line);
+    }
+    return allDone;
+  }
+
+  private boolean runConfiguration(Properties configuration, String label) throws Exception {
+    configuration.setProperty(DingoDBClient.DINGO_TBL_COMMAND, DingoDBClient.DINGO_TBL_COMMAND_DEFAULT);
+    DingoDBTableCommand.doCommandOnTable(configuration, tableName);
+
+    if ("client".equalsIgnoreCase(configuration.getProperty(LOAD, LOAD_DEFAULT))) {
+      if (!runClient(configuration, "-load", new File(outDir, label + "-load.txt"))) {
+        return false;
+      }
+    } else if (!new DingoDBBulkLoader(configuration, tableName).load()) {
+      return false;
+    }
+    return runClient(configuration, "-t", new File(outDir, label + "-run.txt"));
+  }
+
+  private void drop(Properties configuration) {
+    configuration.setProperty(DingoDBClient.DINGO_TBL_COMMAND, DingoDBClient.DINGO_TBL_COMMAND_DROP);
+    try {
+      DingoDBTableCommand.doCommandOnTable(configuration, tableName);
+    } catch (Exception e) {
+      System.err.println("Could not drop " + tableName + ": " + e);
+    }
+  }
+
+  /**
+   * Run one phase of the YCSB client in a child JVM.
+   *
+   * @return true if the client exited successfully.
+   */
+  private boolean runClient(Properties configuration, String phase, File exportFile)
+      throws IOException, InterruptedException {
+    File propertiesFile = File.createTempFile("dingo-sweep", ".properties");
+    try {
+      Properties clientProps = new Properties();
+      clientProps.putAll(configuration);
+      clientProps.setProperty("exportfile", exportFile.getPath());
+      try (OutputStream out = new FileOutputStream(propertiesFile)) {
+        clientProps.store(out, "DingoDB sweep configuration");
+      }
+      String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+      Process client = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+          Client.class.getName(), phase, "-db", DingoDBClient.class.getName(), "-P", propertiesFile.getPath())
+          .inheritIO()
+          .start();
+      return client.waitFor() == 0;
+    } finally {
+      if (!propertiesFile.delete()) {
+        propertiesFile.deleteOnExit();
+      }
+    }
+  }
+}
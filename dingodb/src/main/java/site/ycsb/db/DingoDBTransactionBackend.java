@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2012 YCSB contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb.db;
+
+/**
+ * The DingoDB transactions run by {@link DingoDBTransferWorkload}, so they can be served by a real
+ * cluster or by an in-process store.
+ */
+interface DingoDBTransactionBackend {
+
+  /**
+   * Open the session of one client thread.
+   */
+  Session openSession();
+
+  void close();
+
+  /**
+   * Thrown by a read or write that aborted the transaction because of a conflicting transaction.
+   */
+  final class ConflictException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    ConflictException(Throwable cause) {
+      super(cause);
+    }
+  }
+
+  /**
+   * A connection running one transaction at a time over account balances.
+   */
+  interface Session {
+
+    void begin();
+
+    /**
+     * @return the balance of {@code key} as seen by the transaction, or null if it does not exist.
+     * @throws ConflictException if the transaction was aborted.
+     */
+    Long get(String key);
+
+    /**
+     * Create or replace the balance of {@code key} in the transaction.
+     *
+     * @throws ConflictException if the transaction was aborted.
+     */
+    void put(String key, long balance);
+
+    /**
+     * @return false if the transaction was aborted because of a conflicting transaction.
+     */
+    boolean commit();
+
+    void rollback();
+
+    void close();
+  }
+}
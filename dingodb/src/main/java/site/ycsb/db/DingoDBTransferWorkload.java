@@ -0,0 +1,327 @@
+/**
+ * Copyright (c) 2012 YCSB contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb.db;
+
+import site.ycsb.DB;
+import site.ycsb.Status;
+import site.ycsb.WorkloadException;
+import site.ycsb.generator.ZipfianGenerator;
+import site.ycsb.measurements.Measurements;
+import site.ycsb.workloads.CoreWorkload;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Closed economy workload running multi-key DingoDB transactions: every record is an account
+ * holding a balance, and every operation moves money from one account to the K-1 others in one
+ * transaction, so the sum of the balances never changes.
+ *
+ * Accounts are chosen like the keys of {@link CoreWorkload}, so the skew of requestdistribution
+ * sets how often transactions touch the same accounts. Transactions aborted by a conflict are
+ * retried a bounded number of times. Requests go straight to DingoDB, the DB instance of the
+ * client thread is not used. The workload reports:
+ * <ul>
+ * <li><b>TXN</b>: latency of a transfer including its retries, counted by final Status
+ * <li><b>TXN-ATTEMPT</b>: every attempt of a transfer counted by Status, CONFLICT being an abort
+ * <li><b>TXN-COMMIT</b>: latency of each commit, counted by Status
+ * <li><b>TXN-RETRIES-&lt;Status&gt;</b>: statistic of the retries of the transfers by final Status,
+ * exported with the number of transfers, the total and average of their retries
+ * <li><b>TXN-INSERT</b>: latency of the transactions creating the accounts
+ * <li><b>TXN-VERIFY</b>: whether the balances still add up at the end, when enabled
+ * </ul>
+ *
+ * Properties to control the workload:
+ * <ul>
+ * <li><b>dingo.txn.keys</b>: number of accounts in a transaction (default 2)
+ * <li><b>dingo.txn.initialbalance</b>: balance of a new account (default 1000)
+ * <li><b>dingo.txn.maxtransfer</b>: largest amount moved to one account (default 10)
+ * <li><b>dingo.txn.retries</b>: how many times an aborted transfer is retried (default 3)
+ * <li><b>dingo.txn.zipfianconstant</b>: zipfian constant of the account choice when
+ * requestdistribution is zipfian, higher means more contention (default 0.99). The most popular
+ * accounts are the first ones when it is set.
+ * <li><b>dingo.txn.verify</b>: add up all the balances when the run ends (default false)
+ * <li><b>dingo.txn.url</b>: JDBC URL of the DingoDB SQL interface
+ * <li><b>dingo.txn.user</b>, <b>dingo.txn.password</b>: credentials of the SQL interface
+ * <li><b>dingo.txn.table</b>: table holding the accounts (default ycsb_accounts)
+ * </ul>
+ */
+public class DingoDBTransferWorkload extends CoreWorkload {
+
+  public static final String KEYS_PROPERTY = "dingo.txn.keys";
+  public static final String KEYS_PROPERTY_DEFAULT = "2";
+
+  public static final String INITIAL_BALANCE_PROPERTY = "dingo.txn.initialbalance";
+  public static final String INITIAL_BALANCE_PROPERTY_DEFAULT = "1000";
+
+  public static final String MAX_TRANSFER_PROPERTY = "dingo.txn.maxtransfer";
+  public static final String MAX_TRANSFER_PROPERTY_DEFAULT = "10";
+
+  public static final String RETRIES_PROPERTY = "dingo.txn.retries";
+  public static final String RETRIES_PROPERTY_DEFAULT = "3";
+
+  public static final String ZIPFIAN_CONSTANT_PROPERTY = "dingo.txn.zipfianconstant";
+
+  public static final String VERIFY_PROPERTY = "dingo.txn.verify";
+  public static final String VERIFY_PROPERTY_DEFAULT = "false";
+
+  public static final String URL_PROPERTY = "dingo.txn.url";
+  public static final String USER_PROPERTY = "dingo.txn.user";
+  public static final String PASSWORD_PROPERTY = "dingo.txn.password";
+
+  public static final String TABLE_PROPERTY = "dingo.txn.table";
+  public static final String TABLE_PROPERTY_DEFAULT = "ycsb_accounts";
+
+  /** Status of a transaction aborted because of a conflicting transaction. */
+  public static final Status CONFLICT = new Status("CONFLICT", "The transaction was aborted by a conflict.");
+
+  private DingoDBTransactionBackend backend;
+  private final Queue<DingoDBTransactionBackend.Session> sessions = new ConcurrentLinkedQueue<>();
+  private Measurements measurements;
+  private int keysPerTransaction;
+  private long initialBalance;
+  private long maxTransfer;
+  private int retries;
+  private boolean verify;
+  private long firstKey;
+  private long keyCount;
+
+  @Override
+  public void init(Properties p) throws WorkloadException {
+    super.init(p);
+    measurements = Measurements.getMeasurements();
+    keysPerTransaction = Integer.parseInt(p.getProperty(KEYS_PROPERTY, KEYS_PROPERTY_DEFAULT));
+    initialBalance = Long.parseLong(p.getProperty(INITIAL_BALANCE_PROPERTY, INITIAL_BALANCE_PROPERTY_DEFAULT));
+    maxTransfer = Long.parseLong(p.getProperty(MAX_TRANSFER_PROPERTY, MAX_TRANSFER_PROPERTY_DEFAULT));
+    retries = Integer.parseInt(p.getProperty(RETRIES_PROPERTY, RETRIES_PROPERTY_DEFAULT));
+    verify = Boolean.parseBoolean(p.getProperty(VERIFY_PROPERTY, VERIFY_PROPERTY_DEFAULT));
+
+    firstKey = Long.parseLong(p.getProperty(INSERT_START_PROPERTY, INSERT_START_PROPERTY_DEFAULT));
+    keyCount = Long.parseLong(p.getProperty(INSERT_COUNT_PROPERTY, String.valueOf(recordcount - firstKey)));
+    if (keysPerTransaction < 2 || keysPerTransaction > keyCount) {
+      throw new WorkloadException(KEYS_PROPERTY + " must be between 2 and the number of accounts");
+    }
+    if (maxTransfer < 1) {
+      throw new WorkloadException(MAX_TRANSFER_PROPERTY + " must be at least 1");
+    }
+
+    String zipfianConstant = p.getProperty(ZIPFIAN_CONSTANT_PROPERTY);
+    if (zipfianConstant != null && "zipfian".equals(
+        p.getProperty(REQUEST_DISTRIBUTION_PROPERTY, REQUEST_DISTRIBUTION_PROPERTY_DEFAULT))) {
+      keychooser = new ZipfianGenerator(firstKey, firstKey + keyCount - 1, Double.parseDouble(zipfianConstant));
+    }
+
+    String backendName = p.getProperty(DingoDBClient.DINGO_BACKEND, DingoDBClient.DINGO_BACKEND_DEFAULT);
+    if (DingoDBClient.DINGO_BACKEND_MEMORY.equalsIgnoreCase(backendName)) {
+      backend = new DingoDBMemoryTransactionBackend(
+          Long.parseLong(p.getProperty(
+              DingoDBClient.DINGO_MEMORY_LATENCY_US, DingoDBClient.DINGO_MEMORY_LATENCY_US_DEFAULT)),
+          Double.parseDouble(p.getProperty(
+              DingoDBClient.DINGO_MEMORY_ERROR_RATE, DingoDBClient.DINGO_MEMORY_ERROR_RATE_DEFAULT)));
+    } else {
+      String url = p.getProperty(URL_PROPERTY);
+      if (url == null) {
+        throw new WorkloadException(URL_PROPERTY + " is required to run transactions on DingoDB");
+      }
+      backend = new DingoDBSqlTransactionBackend(url, p.getProperty(USER_PROPERTY, ""),
+          p.getProperty(PASSWORD_PROPERTY, ""), p.getProperty(TABLE_PROPERTY, TABLE_PROPERTY_DEFAULT));
+    }
+  }
+
+  @Override
+  public Object initThread(Properties p, int mythreadid, int threadcount) throws WorkloadException {
+    try {
+      DingoDBTransactionBackend.Session session = backend.openSession();
+      sessions.add(session);
+      return session;
+    } catch (RuntimeException e) {
+      throw new WorkloadException(e);
+    }
+  }
+
+  @Override
+  public void cleanup() throws WorkloadException {
+    if (backend == null) {
+      return;
+    }
+    try {
+      if (verify) {
+        verifyBalances();
+      }
+    } finally {
+      DingoDBTransactionBackend.Session session;
+      while ((session = sessions.poll()) != null) {
+        session.close();
+      }
+      backend.close();
+    }
+  }
+
+  private String keyName(long keynum) {
+    return CoreWorkload.buildKeyName(keynum, zeropadding, orderedinserts);
+  }
+
+  @Override
+  public boolean doInsert(DB db, Object threadstate) {
+    DingoDBTransactionBackend.Session session = (DingoDBTransactionBackend.Session) threadstate;
+    String key = keyName(keysequence.nextValue().longValue());
+    long start = System.nanoTime();
+    Status status;
+    try {
+      session.begin();
+      session.put(key, initialBalance);
+      status = session.commit() ? Status.OK : CONFLICT;
+    } catch (RuntimeException e) {
+      session.rollback();
+      status = Status.ERROR;
+    }
+    report("TXN-INSERT", status, start);
+    return status.isOk();
+  }
+
+  @Override
+  public boolean doTransaction(DB db, Object threadstate) {
+    DingoDBTransactionBackend.Session session = (DingoDBTransactionBackend.Session) threadstate;
+    String[] keys = chooseKeys();
+    long[] amounts = new long[keys.length];
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    for (int i = 1; i < amounts.length; i++) {
+      amounts[i] = 1 + random.nextLong(maxTransfer);
+    }
+
+    long start = System.nanoTime();
+    Status status = CONFLICT;
+    int attempt = 0;
+    while (status == CONFLICT && attempt <= retries) {
+      status = transfer(session, keys, amounts);
+      measurements.reportStatus("TXN-ATTEMPT", status);
+      attempt++;
+    }
+    measurements.getStatistic("TXN-RETRIES-" + status.getName()).add(attempt - 1);
+    report("TXN", status, start);
+    return true;
+  }
+
+  /**
+   * @return keysPerTransaction distinct account keys, the account paying first.
+   */
+  private String[] chooseKeys() {
+    List<Long> keynums = new ArrayList<>(keysPerTransaction);
+    while (keynums.size() < keysPerTransaction) {
+      long keynum = nextKeynum();
+      if (!keynums.contains(keynum)) {
+        keynums.add(keynum);
+      }
+    }
+    String[] keys = new String[keysPerTransaction];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = keyName(keynums.get(i));
+    }
+    return keys;
+  }
+
+  /**
+   * Run one attempt of a transfer from {@code keys[0]} to the other accounts. An account is never
+   * overdrawn: the amounts are cut to what the paying account holds.
+   */
+  private Status transfer(DingoDBTransactionBackend.Session session, String[] keys, long[] amounts) {
+    // accounts are read and written in key order so concurrent transactions lock them in the same order
+    Integer[] order = new Integer[keys.length];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, (a, b) -> keys[a].compareTo(keys[b]));
+    try {
+      session.begin();
+      long[] balances = new long[keys.length];
+      for (int i : order) {
+        Long balance = session.get(keys[i]);
+        if (balance == null) {
+          session.rollback();
+          return Status.NOT_FOUND;
+        }
+        balances[i] = balance;
+      }
+      for (int i = 1; i < keys.length; i++) {
+        long amount = Math.min(amounts[i], balances[0]);
+        balances[0] -= amount;
+        balances[i] += amount;
+      }
+      for (int i : order) {
+        session.put(keys[i], balances[i]);
+      }
+
+      long commitStart = System.nanoTime();
+      Status status = session.commit() ? Status.OK : CONFLICT;
+      report("TXN-COMMIT", status, commitStart);
+      return status;
+    } catch (DingoDBTransactionBackend.ConflictException e) {
+      session.rollback();
+      return CONFLICT;
+    } catch (RuntimeException e) {
+      session.rollback();
+      return Status.ERROR;
+    }
+  }
+
+  /**
+   * Check that the balances of all the accounts add up to what they were created with.
+   *
+   * @return true if they do.
+   */
+  boolean verifyBalances() {
+    DingoDBTransactionBackend.Session session = backend.openSession();
+    long start = System.nanoTime();
+    Status status;
+    try {
+      session.begin();
+      long accounts = 0;
+      long total = 0;
+      for (long keynum = firstKey; keynum < firstKey + keyCount; keynum++) {
+        Long balance = session.get(keyName(keynum));
+        if (balance != null) {
+          accounts++;
+          total += balance;
+        }
+      }
+      session.commit();
+      status = total == accounts * initialBalance ? Status.OK : Status.UNEXPECTED_STATE;
+      System.out.println("Balances of " + accounts + " accounts add up to " + total + ", expected "
+          + accounts * initialBalance);
+    } catch (RuntimeException e) {
+      session.rollback();
+      System.err.println("Could not verify balances: " + e.toString());
+      status = Status.ERROR;
+    } finally {
+      session.close();
+    }
+    report("TXN-VERIFY", status, start);
+    return status.isOk();
+  }
+
+  private void report(String operation, Status status, long startNanos) {
+    long latency = (System.nanoTime() - startNanos) / 1000;
+    measurements.measure(status.isOk() ? operation : operation + "-FAILED", (int) latency);
+    measurements.reportStatus(operation, status);
+  }
+}
@@ -0,0 +1,43 @@
+/**
+ * Copyright (c) 2012 YCSB contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb.db;
+
+import java.util.List;
+
+/**
+ * The DingoDB vector index calls made by {@link DingoDBVectorWorkload}, so they can be served by a
+ * real cluster or by an in-process brute force index.
+ */
+interface DingoDBVectorBackend {
+
+  /**
+   * Add or replace the vectors with the given ids.
+   *
+   * @return true if all the vectors were written.
+   */
+  boolean upsert(long[] ids, float[][] vectors);
+
+  /**
+   * @return the ids of the {@code topK} vectors closest to {@code query}, closest first.
+   */
+  List<Long> search(float[] query, int topK);
+
+  boolean delete(long id);
+
+  void close();
+}
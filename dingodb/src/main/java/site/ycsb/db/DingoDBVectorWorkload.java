@@ -0,0 +1,380 @@
+/**
+ * Copyright (c) 2012 YCSB contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb.db;
+
+import site.ycsb.Client;
+import site.ycsb.DB;
+import site.ycsb.DBException;
+import site.ycsb.Status;
+import site.ycsb.Workload;
+import site.ycsb.WorkloadException;
+import site.ycsb.generator.CounterGenerator;
+import site.ycsb.generator.DiscreteGenerator;
+import site.ycsb.generator.HotspotIntegerGenerator;
+import site.ycsb.generator.NumberGenerator;
+import site.ycsb.generator.ScrambledZipfianGenerator;
+import site.ycsb.generator.SequentialGenerator;
+import site.ycsb.generator.SkewedLatestGenerator;
+import site.ycsb.generator.UniformLongGenerator;
+import site.ycsb.measurements.Measurements;
+import site.ycsb.measurements.Statistic;
+import site.ycsb.workloads.CoreWorkload;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Workload loading float vectors into a DingoDB vector index, then running a mix of top-K
+ * similarity searches, upserts and deletes.
+ *
+ * The vector of an id is generated from the id, so every client builds the same data set and can
+ * compute the exact neighbours of a query by brute force. Requests go straight to the index, the
+ * DB instance of the client thread is not used. Latencies are reported as VECTOR-INSERT,
+ * VECTOR-SEARCH, VECTOR-UPSERT and VECTOR-DELETE.
+ *
+ * For the recall, a set of queries and their exact neighbours are computed in init(), before the
+ * run is timed. A sample of the searches uses one of these queries. The recall of such a search,
+ * the fraction of the exact neighbours not deleted since that it returns, is added to the
+ * statistic VECTOR-RECALL@K.
+ *
+ * Properties to control the workload:
+ * <ul>
+ * <li><b>dingo.vector.dimension</b>: number of floats of a vector (default 128)
+ * <li><b>dingo.vector.topk</b>: number of neighbours returned by a search (default 10)
+ * <li><b>dingo.vector.schema</b>: schema of the vector index (default dingo)
+ * <li><b>dingo.vector.index</b>: name of the vector index (default ycsb_vector)
+ * <li><b>dingo.vector.searchproportion</b>: proportion of searches (default 0.9)
+ * <li><b>dingo.vector.upsertproportion</b>: proportion of upserts (default 0.05)
+ * <li><b>dingo.vector.deleteproportion</b>: proportion of deletes (default 0.05)
+ * <li><b>dingo.vector.querynoise</b>: standard deviation of the noise added to the vector a query
+ * is built from (default 0.05)
+ * <li><b>dingo.vector.recallsample</b>: fraction of the searches whose recall is computed, 0
+ * disables the recall (default 0.01)
+ * <li><b>dingo.vector.recallqueries</b>: number of queries whose exact neighbours are computed in
+ * init(), each one scanning all the vectors on the client (default 100)
+ * <li><b>requestdistribution</b>: how the id of an operation is chosen, uniform, zipfian, latest,
+ * sequential or hotspot (default uniform)
+ * </ul>
+ */
+public class DingoDBVectorWorkload extends Workload {
+
+  public static final String DIMENSION_PROPERTY = "dingo.vector.dimension";
+  public static final String DIMENSION_PROPERTY_DEFAULT = "128";
+
+  public static final String TOP_K_PROPERTY = "dingo.vector.topk";
+  public static final String TOP_K_PROPERTY_DEFAULT = "10";
+
+  public static final String SCHEMA_PROPERTY = "dingo.vector.schema";
+  public static final String SCHEMA_PROPERTY_DEFAULT = "dingo";
+
+  public static final String INDEX_PROPERTY = "dingo.vector.index";
+  public static final String INDEX_PROPERTY_DEFAULT = "ycsb_vector";
+
+  public static final String SEARCH_PROPORTION_PROPERTY = "dingo.vector.searchproportion";
+  public static final String SEARCH_PROPORTION_PROPERTY_DEFAULT = "0.9";
+
+  public static final String UPSERT_PROPORTION_PROPERTY = "dingo.vector.upsertproportion";
+  public static final String UPSERT_PROPORTION_PROPERTY_DEFAULT = "0.05";
+
+  public static final String DELETE_PROPORTION_PROPERTY = "dingo.vector.deleteproportion";
+  public static final String DELETE_PROPORTION_PROPERTY_DEFAULT = "0.05";
+
+  public static final String QUERY_NOISE_PROPERTY = "dingo.vector.querynoise";
+  public static final String QUERY_NOISE_PROPERTY_DEFAULT = "0.05";
+
+  public static final String RECALL_SAMPLE_PROPERTY = "dingo.vector.recallsample";
+  public static final String RECALL_SAMPLE_PROPERTY_DEFAULT = "0.01";
+
+  public static final String RECALL_QUERIES_PROPERTY = "dingo.vector.recallqueries";
+  public static final String RECALL_QUERIES_PROPERTY_DEFAULT = "100";
+
+  private static final long SEED = 0x5DEECE66DL;
+
+  private DingoDBVectorBackend backend;
+  private Measurements measurements;
+  private int dimension;
+  private int topK;
+  private double queryNoise;
+  private double recallSample;
+  private long firstId;
+  private long idCount;
+  private Statistic recall;
+  private List<float[]> recallQueries;
+  private List<Set<Long>> recallNeighbours;
+  private NumberGenerator idSequence;
+  private NumberGenerator idChooser;
+  private DiscreteGenerator operationChooser;
+  private final Set<Long> deletedIds = ConcurrentHashMap.newKeySet();
+
+  @Override
+  public void init(Properties p) throws WorkloadException {
+    dimension = Integer.parseInt(p.getProperty(DIMENSION_PROPERTY, DIMENSION_PROPERTY_DEFAULT));
+    topK = Integer.parseInt(p.getProperty(TOP_K_PROPERTY, TOP_K_PROPERTY_DEFAULT));
+    queryNoise = Double.parseDouble(p.getProperty(QUERY_NOISE_PROPERTY, QUERY_NOISE_PROPERTY_DEFAULT));
+    recallSample = Double.parseDouble(p.getProperty(RECALL_SAMPLE_PROPERTY, RECALL_SAMPLE_PROPERTY_DEFAULT));
+    measurements = Measurements.getMeasurements();
+
+    long recordCount = Long.parseLong(p.getProperty(Client.RECORD_COUNT_PROPERTY, Client.DEFAULT_RECORD_COUNT));
+    firstId = Long.parseLong(p.getProperty(INSERT_START_PROPERTY, INSERT_START_PROPERTY_DEFAULT));
+    idCount = Long.parseLong(p.getProperty(INSERT_COUNT_PROPERTY, String.valueOf(recordCount - firstId)));
+    if (idCount <= 0) {
+      throw new WorkloadException("Invalid combination of insertstart, insertcount and recordcount.");
+    }
+    idSequence = new CounterGenerator(firstId);
+    idChooser = createIdChooser(p);
+
+    operationChooser = new DiscreteGenerator();
+    operationChooser.addValue(Double.parseDouble(
+        p.getProperty(SEARCH_PROPORTION_PROPERTY, SEARCH_PROPORTION_PROPERTY_DEFAULT)), "SEARCH");
+    operationChooser.addValue(Double.parseDouble(
+        p.getProperty(UPSERT_PROPORTION_PROPERTY, UPSERT_PROPORTION_PROPERTY_DEFAULT)), "UPSERT");
+    operationChooser.addValue(Double.parseDouble(
+        p.getProperty(DELETE_PROPORTION_PROPERTY, DELETE_PROPORTION_PROPERTY_DEFAULT)), "DELETE");
+
+    String backendName = p.getProperty(DingoDBClient.DINGO_BACKEND, DingoDBClient.DINGO_BACKEND_DEFAULT);
+    if (DingoDBClient.DINGO_BACKEND_MEMORY.equalsIgnoreCase(backendName)) {
+      backend = new DingoDBMemoryVectorBackend();
+    } else {
+      try {
+        backend = new DingoDBNativeVectorBackend(
+            p.getProperty(DingoDBClient.COORDINATOR_HOST),
+            p.getProperty(SCHEMA_PROPERTY, SCHEMA_PROPERTY_DEFAULT),
+            p.getProperty(INDEX_PROPERTY, INDEX_PROPERTY_DEFAULT),
+            dimension);
+      } catch (DBException e) {
+        throw new WorkloadException(e);
+      }
+    }
+
+    int recallQueryCount = Integer.parseInt(
+        p.getProperty(RECALL_QUERIES_PROPERTY, RECALL_QUERIES_PROPERTY_DEFAULT));
+    if (recallSample > 0 && recallQueryCount > 0
+        && Boolean.parseBoolean(p.getProperty(Client.DO_TRANSACTIONS_PROPERTY, String.valueOf(true)))) {
+      prepareRecall(recallQueryCount);
+    }
+  }
+
+  /**
+   * Build the queries of the recall and compute their exact neighbours, in parallel as each one
+   * scans all the vectors.
+   */
+  private void prepareRecall(int queryCount) {
+    Random random = new Random(SEED);
+    recallQueries = new ArrayList<>(queryCount);
+    for (int i = 0; i < queryCount; i++) {
+      float[] query = vectorOf(firstId + (long) (random.nextDouble() * idCount));
+      for (int j = 0; j < query.length; j++) {
+        query[j] += (float) (random.nextGaussian() * queryNoise);
+      }
+      recallQueries.add(query);
+    }
+    recallNeighbours = IntStream.range(0, queryCount).parallel()
+        .mapToObj(i -> exactNeighbours(recallQueries.get(i)))
+        .collect(Collectors.toList());
+    recall = measurements.getStatistic("VECTOR-RECALL@" + topK);
+  }
+
+  private NumberGenerator createIdChooser(Properties p) throws WorkloadException {
+    long lastId = firstId + idCount - 1;
+    String distribution = p.getProperty(
+        CoreWorkload.REQUEST_DISTRIBUTION_PROPERTY, CoreWorkload.REQUEST_DISTRIBUTION_PROPERTY_DEFAULT);
+    switch (distribution) {
+    case "uniform":
+      return new UniformLongGenerator(firstId, lastId);
+    case "zipfian":
+      return new ScrambledZipfianGenerator(firstId, lastId);
+    case "latest":
+      return new SkewedLatestGenerator(new CounterGenerator(lastId + 1));
+    case "sequential":
+      return new SequentialGenerator(firstId, lastId);
+    case "hotspot":
+      return new HotspotIntegerGenerator(firstId, lastId,
+          Double.parseDouble(p.getProperty(
+              CoreWorkload.HOTSPOT_DATA_FRACTION, CoreWorkload.HOTSPOT_DATA_FRACTION_DEFAULT)),
+          Double.parseDouble(p.getProperty(
+              CoreWorkload.HOTSPOT_OPN_FRACTION, CoreWorkload.HOTSPOT_OPN_FRACTION_DEFAULT)));
+    default:
+      throw new WorkloadException("Unknown request distribution \"" + distribution + "\"");
+    }
+  }
+
+  @Override
+  public void cleanup() throws WorkloadException {
+    if (backend != null) {
+      backend.close();
+    }
+  }
+
+  /**
+   * @return the vector of {@code id}, the same on every client.
+   */
+  float[] vectorOf(long id) {
+    SplittableRandom random = new SplittableRandom(SEED ^ (id * 0x9E3779B97F4A7C15L));
+    float[] vector = new float[dimension];
+    for (int i = 0; i < dimension; i++) {
+      vector[i] = (float) (random.nextDouble() * 2 - 1);
+    }
+    return vector;
+  }
+
+  static double squaredDistance(float[] a, float[] b) {
+    double sum = 0;
+    for (int i = 0; i < a.length; i++) {
+      double diff = a[i] - b[i];
+      sum += diff * diff;
+    }
+    return sum;
+  }
+
+  @Override
+  public boolean doInsert(DB db, Object threadstate) {
+    long id = idSequence.nextValue().longValue();
+    Status status = upsert("VECTOR-INSERT", id);
+    return status.isOk();
+  }
+
+  @Override
+  public boolean doTransaction(DB db, Object threadstate) {
+    String operation = operationChooser.nextValue();
+    if (operation == null) {
+      return false;
+    }
+    long id = idChooser.nextValue().longValue();
+    switch (operation) {
+    case "UPSERT":
+      upsert("VECTOR-UPSERT", id);
+      deletedIds.remove(id);
+      break;
+    case "DELETE":
+      doDelete(id);
+      break;
+    default:
+      doSearch(id);
+      break;
+    }
+    return true;
+  }
+
+  private Status upsert(String measurementName, long id) {
+    long start = System.nanoTime();
+    Status status;
+    try {
+      status = backend.upsert(new long[]{id}, new float[][]{vectorOf(id)}) ? Status.OK : Status.ERROR;
+    } catch (RuntimeException e) {
+      status = Status.ERROR;
+    }
+    report(measurementName, status, start);
+    return status;
+  }
+
+  private void doDelete(long id) {
+    long start = System.nanoTime();
+    Status status;
+    try {
+      status = backend.delete(id) ? Status.OK : Status.ERROR;
+    } catch (RuntimeException e) {
+      status = Status.ERROR;
+    }
+    if (status.isOk()) {
+      deletedIds.add(id);
+    }
+    report("VECTOR-DELETE", status, start);
+  }
+
+  private void doSearch(long id) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int recallQuery = -1;
+    float[] query;
+    if (recallQueries != null && random.nextDouble() < recallSample) {
+      recallQuery = random.nextInt(recallQueries.size());
+      query = recallQueries.get(recallQuery);
+    } else {
+      query = vectorOf(id);
+      for (int i = 0; i < query.length; i++) {
+        query[i] += (float) (random.nextGaussian() * queryNoise);
+      }
+    }
+
+    long start = System.nanoTime();
+    List<Long> neighbours = null;
+    Status status;
+    try {
+      neighbours = backend.search(query, topK);
+      status = Status.OK;
+    } catch (RuntimeException e) {
+      status = Status.ERROR;
+    }
+    report("VECTOR-SEARCH", status, start);
+
+    if (neighbours != null && recallQuery >= 0) {
+      addRecall(neighbours, recallNeighbours.get(recallQuery));
+    }
+  }
+
+  /**
+   * Add the fraction of the exact neighbours of a query, but the ones deleted since they were
+   * computed, that a search returned.
+   */
+  private void addRecall(List<Long> neighbours, Set<Long> exact) {
+    int expected = 0;
+    for (Long id : exact) {
+      if (!deletedIds.contains(id)) {
+        expected++;
+      }
+    }
+    if (expected == 0) {
+      return;
+    }
+    int found = 0;
+    for (Long neighbour : neighbours) {
+      if (exact.contains(neighbour) && !deletedIds.contains(neighbour)) {
+        found++;
+      }
+    }
+    recall.add((double) found / expected);
+  }
+
+  /**
+   * @return the ids of the {@code topK} vectors closest to {@code query}, computed by brute force
+   * over the vectors that have not been deleted.
+   */
+  Set<Long> exactNeighbours(float[] query) {
+    DingoDBMemoryVectorBackend.Nearest nearest = new DingoDBMemoryVectorBackend.Nearest(topK);
+    for (long id = firstId; id < firstId + idCount; id++) {
+      if (!deletedIds.contains(id)) {
+        nearest.offer(id, squaredDistance(query, vectorOf(id)));
+      }
+    }
+    return new HashSet<>(nearest.ids());
+  }
+
+  private void report(String operation, Status status, long startNanos) {
+    long latency = (System.nanoTime() - startNanos) / 1000;
+    measurements.measure(status.isOk() ? operation : operation + "-FAILED", (int) latency);
+    measurements.reportStatus(operation, status);
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2023 YCSB contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb.db;
+
+import io.dingodb.client.common.Record;
+import site.ycsb.Client;
+import site.ycsb.workloads.CoreWorkload;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs DingoDBBulkLoader against the in-memory backend.
+ */
+public class DingoDBBulkLoaderTest {
+
+  private static final String TABLE = "usertable";
+
+  @Test
+  public void loadsEveryRecordOfTheWorkload() throws Exception {
+    Properties props = new Properties();
+    props.setProperty(Client.RECORD_COUNT_PROPERTY, "1000");
+    props.setProperty(DingoDBClient.FIELD_COUNT_PROPERTY, "3");
+    props.setProperty(CoreWorkload.FIELD_LENGTH_PROPERTY, "20");
+    props.setProperty(DingoDBClient.DINGO_PARTITIONS, "4");
+    props.setProperty(DingoDBBulkLoader.THREADS, "3");
+    props.setProperty(DingoDBBulkLoader.BATCH_SIZE, "50");
+
+    DingoDBSchema schema = new DingoDBSchema(DingoDBTableCommand.buildTableDefinition(props, TABLE, null));
+    DingoDBMemoryBackend backend = new DingoDBMemoryBackend(schema, 0, 0);
+    DingoDBBackend[] backends = new DingoDBBackend[3];
+    Arrays.fill(backends, backend);
+
+    DingoDBBulkLoader loader = new DingoDBBulkLoader(props, TABLE);
+    assertTrue(loader.load(backends));
+    assertEquals(1000, loader.getRowsWritten());
+
+    for (long keynum = 0; keynum < 1000; keynum++) {
+      Record record = backend.get(TABLE, CoreWorkload.buildKeyName(keynum, 1, false));
+      assertNotNull(record);
+      assertEquals(20, record.getValue("FIELD2").toString().length());
+    }
+  }
+}
@@ -0,0 +1,373 @@
+/*
+ * Copyright (c) 2023 YCSB contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb.db;
+
+import io.dingodb.client.common.Record;
+import site.ycsb.ByteIterator;
+import site.ycsb.Client;
+import site.ycsb.ClientThread;
+import site.ycsb.Status;
+import site.ycsb.StringByteIterator;
+import site.ycsb.measurements.Measurements;
+import site.ycsb.measurements.exporter.TextMeasurementsExporter;
+import site.ycsb.workloads.CoreWorkload;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.Vector;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Runs DingoDBClient against the in-memory backend.
+ */
+public class DingoDBClientTest {
+
+  private static final String MOCK_TABLE = "usertable";
+  private static final int NUM_FIELDS = 3;
+  private static final String FIELD_PREFIX = CoreWorkload.FIELD_NAME_PREFIX_DEFAULT;
+
+  private DingoDBClient instance;
+
+  private DingoDBClient newClient(Properties extra) throws Exception {
+    Properties properties = new Properties();
+    properties.setProperty(DingoDBClient.DINGO_BACKEND, DingoDBClient.DINGO_BACKEND_MEMORY);
+    properties.setProperty(DingoDBClient.FIELD_COUNT_PROPERTY, String.valueOf(NUM_FIELDS));
+    properties.putAll(extra);
+    DingoDBClient client = new DingoDBClient();
+    client.setProperties(properties);
+    client.init();
+    return client;
+  }
+
+  private static Map<String, ByteIterator> values(String prefix) {
+    Map<String, ByteIterator> values = new HashMap<>();
+    for (int i = 0; i < NUM_FIELDS; i++) {
+      values.put(FIELD_PREFIX + i, new StringByteIterator(prefix + i));
+    }
+    return values;
+  }
+
+  private Map<String, String> read(String key) {
+    Map<String, ByteIterator> result = new HashMap<>();
+    assertEquals(Status.OK, instance.read(MOCK_TABLE, key, null, result));
+    return StringByteIterator.getStringMap(result);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    if (instance != null) {
+      instance.cleanup();
+      instance = null;
+    }
+  }
+
+  @Test
+  public void insertAndRead() throws Exception {
+    instance = newClient(new Properties());
+    assertEquals(Status.OK, instance.insert(MOCK_TABLE, "user1", values("value")));
+
+    Map<String, String> row = read("user1");
+    assertEquals("user1", row.get(DingoDBClient.PRIMARY_KEY.toLowerCase()));
+    for (int i = 0; i < NUM_FIELDS; i++) {
+      assertEquals("value" + i, row.get(FIELD_PREFIX + i));
+    }
+
+    Map<String, ByteIterator> projected = new HashMap<>();
+    Set<String> fields = Collections.singleton(FIELD_PREFIX + 1);
+    assertEquals(Status.OK, instance.read(MOCK_TABLE, "user1", fields, projected));
+    assertEquals(fields, projected.keySet());
+
+    assertEquals(Status.NOT_FOUND, instance.read(MOCK_TABLE, "user2", null, new HashMap<>()));
+  }
+
+  /**
+   * Backend remembering the columns the last read asked for.
+   */
+  private static final class ProjectionRecorder implements DingoDBBackend {
+    private final DingoDBBackend backend;
+    private List<String> lastColumns;
+
+    ProjectionRecorder(DingoDBBackend backend) {
+      this.backend = backend;
+    }
+
+    @Override
+    public Record get(String table, String key) {
+      lastColumns = null;
+      return backend.get(table, key);
+    }
+
+    @Override
+    public Record get(String table, String key, List<String> columns) {
+      lastColumns = columns;
+      return backend.get(table, key, columns);
+    }
+
+    @Override
+    public boolean upsert(String table, Record record) {
+      return backend.upsert(table, record);
+    }
+
+    @Override
+    public List<Boolean> upsert(String table, List<Record> records) {
+      return backend.upsert(table, records);
+    }
+
+    @Override
+    public boolean delete(String table, String key) {
+      return backend.delete(table, key);
+    }
+
+    @Override
+    public Iterator<Record> scan(String table, String startKey, String endKey, int limit) {
+      return backend.scan(table, startKey, endKey, limit);
+    }
+
+    @Override
+    public List<String> splitKeys(String table) {
+      return backend.splitKeys(table);
+    }
+
+    @Override
+    public void close() {
+      backend.close();
+    }
+  }
+
+  @Test
+  public void readFetchesOnlyTheRequestedColumns() throws Exception {
+    instance = newClient(new Properties());
+    Properties props = new Properties();
+    props.setProperty(DingoDBClient.FIELD_COUNT_PROPERTY, String.valueOf(NUM_FIELDS));
+    DingoDBSchema schema = new DingoDBSchema(DingoDBTableCommand.buildTableDefinition(props, MOCK_TABLE, null));
+    ProjectionRecorder backend = new ProjectionRecorder(new DingoDBMemoryBackend(schema, 0, 0));
+    Object[] row = schema.newRow("user1");
+    for (int i = 0; i < row.length; i++) {
+      if (i != schema.getPrimaryKeyIndex()) {
+        row[i] = "value" + i;
+      }
+    }
+    backend.upsert(MOCK_TABLE, new Record(schema.getColumns(), Arrays.asList(row)));
+
+    Map<String, ByteIterator> result = new HashMap<>();
+    Set<String> fields = Collections.singleton(FIELD_PREFIX + 1);
+    assertEquals(Status.OK, DingoDBClient.readRecord(backend, "user1", fields, result));
+    assertEquals(Collections.singletonList(DingoDBClient.COLUMN_PREFIX + 1), backend.lastColumns);
+    assertEquals(fields, result.keySet());
+    assertEquals("value" + schema.indexOf(FIELD_PREFIX + 1), result.get(FIELD_PREFIX + 1).toString());
+
+    result.clear();
+    assertEquals(Status.OK, DingoDBClient.readRecord(backend, "user1", null, result));
+    assertNull(backend.lastColumns);
+    assertEquals(NUM_FIELDS + 1, result.size());
+
+    assertEquals(Status.NOT_FOUND, DingoDBClient.readRecord(backend, "user2", fields, new HashMap<>()));
+  }
+
+  @Test
+  public void updateReadModifyWrite() throws Exception {
+    instance = newClient(new Properties());
+    instance.insert(MOCK_TABLE, "user1", values("value"));
+
+    Map<String, ByteIterator> update = new HashMap<>();
+    update.put(FIELD_PREFIX + 2, new StringByteIterator("updated"));
+    assertEquals(Status.OK, instance.update(MOCK_TABLE, "user1", update));
+    assertEquals("updated", read("user1").get(FIELD_PREFIX + 2));
+    assertEquals("value1", read("user1").get(FIELD_PREFIX + 1));
+
+    assertEquals(Status.NOT_FOUND, instance.update(MOCK_TABLE, "user2", update));
+  }
+
+  @Test
+  public void delete() throws Exception {
+    instance = newClient(new Properties());
+    instance.insert(MOCK_TABLE, "user1", values("value"));
+    assertEquals(Status.OK, instance.delete(MOCK_TABLE, "user1"));
+    assertEquals(Status.NOT_FOUND, instance.read(MOCK_TABLE, "user1", null, new HashMap<>()));
+  }
+
+  @Test
+  public void scanInKeyOrder() throws Exception {
+    instance = newClient(new Properties());
+    for (int i = 9; i >= 0; i--) {
+      instance.insert(MOCK_TABLE, "user" + i, values("value"));
+    }
+
+    Vector<HashMap<String, ByteIterator>> result = new Vector<>();
+    Set<String> fields = Collections.singleton(DingoDBClient.PRIMARY_KEY.toLowerCase());
+    assertEquals(Status.OK, instance.scan(MOCK_TABLE, "user3", 4, fields, result));
+    assertEquals(4, result.size());
+    for (int i = 0; i < result.size(); i++) {
+      assertEquals(1, result.get(i).size());
+      assertEquals("user" + (i + 3), result.get(i).get(DingoDBClient.PRIMARY_KEY.toLowerCase()).toString());
+    }
+
+    result.clear();
+    assertEquals(Status.OK, instance.scan(MOCK_TABLE, "user8", 10, null, result));
+    assertEquals(2, result.size());
+  }
+
+  @Test
+  public void batchedInsertsAreSentWhenFull() throws Exception {
+    Properties props = new Properties();
+    props.setProperty(DingoDBClient.DINGO_BATCH_SIZE, "3");
+    instance = newClient(props);
+
+    assertEquals(Status.BATCHED_OK, instance.insert(MOCK_TABLE, "user1", values("value")));
+    assertEquals(Status.BATCHED_OK, instance.insert(MOCK_TABLE, "user2", values("value")));
+    assertEquals(Status.NOT_FOUND, instance.read(MOCK_TABLE, "user1", null, new HashMap<>()));
+    assertEquals(Status.OK, instance.insert(MOCK_TABLE, "user3", values("value")));
+    assertEquals("value0", read("user1").get(FIELD_PREFIX + 0));
+    assertEquals("value0", read("user3").get(FIELD_PREFIX + 0));
+  }
+
+  @Test
+  public void injectedErrorsAreReported() throws Exception {
+    Properties props = new Properties();
+    props.setProperty(DingoDBClient.DINGO_MEMORY_ERROR_RATE, "1");
+    instance = newClient(props);
+
+    assertEquals(Status.ERROR, instance.insert(MOCK_TABLE, "user1", values("value")));
+    assertEquals(Status.ERROR, instance.read(MOCK_TABLE, "user1", null, new HashMap<>()));
+    assertEquals(Status.ERROR, instance.update(MOCK_TABLE, "user1", values("value")));
+    assertEquals(Status.ERROR, instance.delete(MOCK_TABLE, "user1"));
+    assertFalse(instance.scan(MOCK_TABLE, "user1", 1, null, new Vector<>()).isOk());
+  }
+
+  @Test
+  public void asyncRequestsComplete() throws Exception {
+    Properties props = new Properties();
+    props.setProperty(ClientThread.OUTSTANDING_OPS_PROPERTY, "4");
+    props.setProperty(DingoDBClient.DINGO_MEMORY_LATENCY_US, "100");
+    instance = newClient(props);
+
+    List<CompletableFuture<Status>> inserts = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      inserts.add(instance.insertAsync(MOCK_TABLE, "user" + i, values("value")));
+    }
+    for (CompletableFuture<Status> insert : inserts) {
+      assertEquals(Status.OK, insert.get());
+    }
+
+    List<Map<String, ByteIterator>> results = new ArrayList<>();
+    List<CompletableFuture<Status>> reads = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      results.add(new HashMap<>());
+      reads.add(instance.readAsync(MOCK_TABLE, "user" + i, null, results.get(i)));
+    }
+    for (int i = 0; i < 20; i++) {
+      assertEquals(Status.OK, reads.get(i).get());
+      assertEquals("value0", results.get(i).get(FIELD_PREFIX + 0).toString());
+    }
+  }
+
+  @Test
+  public void regionStatsFollowTheSplitKeys() throws Exception {
+    Properties props = new Properties();
+    props.setProperty(DingoDBClient.DINGO_REGION_STATS, "true");
+    props.setProperty(DingoDBClient.DINGO_PARTITIONS, "4");
+    props.setProperty(Client.RECORD_COUNT_PROPERTY, "100");
+    Measurements.setProperties(props);
+    instance = newClient(props);
+    for (int i = 0; i < 10; i++) {
+      assertEquals(Status.OK, instance.insert(MOCK_TABLE, "user" + i, values("value")));
+    }
+    assertEquals("value0", read("user5").get(FIELD_PREFIX + 0));
+
+    DingoDBRegionStatsBackend regions = new DingoDBRegionStatsBackend(null, Arrays.asList("user5", "user2"));
+    assertEquals(3, regions.regionCount());
+    assertEquals(0, regions.regionOf("user1"));
+    assertEquals(1, regions.regionOf("user2"));
+    assertEquals(1, regions.regionOf("user4"));
+    assertEquals(2, regions.regionOf("user5"));
+    assertEquals(2, regions.regionOf("user9"));
+  }
+
+  @Test
+  public void regionScansAreMeasuredOnceRead() throws Exception {
+    Properties props = new Properties();
+    props.setProperty(DingoDBClient.FIELD_COUNT_PROPERTY, String.valueOf(NUM_FIELDS));
+    DingoDBSchema schema = new DingoDBSchema(DingoDBTableCommand.buildTableDefinition(props, MOCK_TABLE, null));
+    DingoDBRegionStatsBackend regions =
+        new DingoDBRegionStatsBackend(new DingoDBMemoryBackend(schema, 0, 0), Collections.emptyList());
+    for (int i = 0; i < 3; i++) {
+      regions.upsert(MOCK_TABLE, new Record(schema.getColumns(), Arrays.asList(schema.newRow("user" + i))));
+    }
+
+    long before = regionOperations();
+    Iterator<Record> rows = regions.scan(MOCK_TABLE, "user0", "user9", 2);
+    assertEquals(before, regionOperations());
+    assertEquals("user0", rows.next().getDingoColumnValuesInOrder()[schema.getPrimaryKeyIndex()]);
+    assertEquals("user1", rows.next().getDingoColumnValuesInOrder()[schema.getPrimaryKeyIndex()]);
+    assertEquals(before, regionOperations());
+    assertFalse(rows.hasNext());
+    assertEquals(before + 1, regionOperations());
+  }
+
+  private static long regionOperations() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    TextMeasurementsExporter exporter = new TextMeasurementsExporter(out);
+    Measurements.getMeasurements().exportMeasurements(exporter);
+    exporter.close();
+    Matcher operations = Pattern.compile("\\[DINGO-REGION-0\\], Operations, (\\d+)").matcher(out.toString("UTF-8"));
+    return operations.find() ? Long.parseLong(operations.group(1)) : 0;
+  }
+
+  @Test
+  public void fieldTypesAreConverted() throws Exception {
+    Properties props = new Properties();
+    props.setProperty(DingoDBClient.DINGO_FIELD_TYPES, "varchar,bigint,binary");
+    instance = newClient(props);
+    assertEquals(Status.OK, instance.insert(MOCK_TABLE, "user1", values("value")));
+
+    Map<String, ByteIterator> result = new HashMap<>();
+    assertEquals(Status.OK, instance.read(MOCK_TABLE, "user1", null, result));
+    assertEquals("value0", result.get(FIELD_PREFIX + 0).toString());
+    Long.parseLong(result.get(FIELD_PREFIX + 1).toString());
+    assertEquals("value2", result.get(FIELD_PREFIX + 2).toString());
+  }
+
+  @Test
+  public void sweepCoversEveryConfiguration() {
+    Properties props = new Properties();
+    props.setProperty(DingoDBTableSweep.ENGINES, "LSM,BTREE");
+    props.setProperty(DingoDBTableSweep.REPLICAS, "1,3");
+    props.setProperty(DingoDBTableSweep.FIELD_TYPES, "varchar;integer,double");
+    List<Properties> configurations = new DingoDBTableSweep(props, MOCK_TABLE).configurations();
+    assertEquals(8, configurations.size());
+    assertEquals("LSM-r1-ttl0-varchar", configurations.get(0).getProperty(DingoDBTableSweep.LABEL));
+    assertEquals("integer,double", configurations.get(1).getProperty(DingoDBClient.DINGO_FIELD_TYPES));
+    assertEquals("BTREE", configurations.get(7).getProperty(DingoDBClient.DINGO_ENGINE));
+  }
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2023 YCSB contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb.db;
+
+import site.ycsb.Client;
+import site.ycsb.measurements.Measurements;
+import site.ycsb.measurements.Statistic;
+import site.ycsb.workloads.CoreWorkload;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs DingoDBTransferWorkload against the in-memory transactions.
+ */
+public class DingoDBTransferWorkloadTest {
+
+  private static final int ACCOUNTS = 20;
+
+  private static DingoDBTransferWorkload newWorkload(String keys) throws Exception {
+    Properties props = new Properties();
+    props.setProperty(DingoDBClient.DINGO_BACKEND, DingoDBClient.DINGO_BACKEND_MEMORY);
+    props.setProperty(DingoDBClient.DINGO_MEMORY_LATENCY_US, "20");
+    props.setProperty(Client.RECORD_COUNT_PROPERTY, String.valueOf(ACCOUNTS));
+    props.setProperty(Client.OPERATION_COUNT_PROPERTY, "1000");
+    props.setProperty(CoreWorkload.REQUEST_DISTRIBUTION_PROPERTY, "zipfian");
+    props.setProperty(DingoDBTransferWorkload.ZIPFIAN_CONSTANT_PROPERTY, "1.5");
+    props.setProperty(DingoDBTransferWorkload.KEYS_PROPERTY, keys);
+    props.setProperty(DingoDBTransferWorkload.MAX_TRANSFER_PROPERTY, "500");
+    Measurements.setProperties(props);
+    DingoDBTransferWorkload workload = new DingoDBTransferWorkload();
+    workload.init(props);
+    return workload;
+  }
+
+  private static void runTransfers(DingoDBTransferWorkload workload, int threads, int transfers)
+      throws Exception {
+    Object loader = workload.initThread(new Properties(), 0, 1);
+    for (int i = 0; i < ACCOUNTS; i++) {
+      assertTrue(workload.doInsert(null, loader));
+    }
+    List<Thread> clients = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      final Object state = workload.initThread(new Properties(), t, threads);
+      clients.add(new Thread(() -> {
+        for (int i = 0; i < transfers; i++) {
+          workload.doTransaction(null, state);
+        }
+      }));
+    }
+    for (Thread client : clients) {
+      client.start();
+    }
+    for (Thread client : clients) {
+      client.join();
+    }
+  }
+
+  @Test
+  public void transfersKeepTheTotalBalance() throws Exception {
+    DingoDBTransferWorkload workload = newWorkload("2");
+    Statistic retries = Measurements.getMeasurements().getStatistic("TXN-RETRIES-OK");
+    long committed = retries.getCount();
+    runTransfers(workload, 4, 200);
+    assertTrue(workload.verifyBalances());
+    assertTrue(retries.getCount() > committed);
+    workload.cleanup();
+  }
+
+  @Test
+  public void transfersBetweenSeveralAccountsKeepTheTotalBalance() throws Exception {
+    DingoDBTransferWorkload workload = newWorkload("5");
+    runTransfers(workload, 4, 100);
+    assertTrue(workload.verifyBalances());
+    workload.cleanup();
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2023 YCSB contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+
+package site.ycsb.db;
+
+import site.ycsb.Client;
+import site.ycsb.measurements.Measurements;
+import site.ycsb.measurements.Statistic;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs DingoDBVectorWorkload against the in-memory vector index.
+ */
+public class DingoDBVectorWorkloadTest {
+
+  private static DingoDBVectorWorkload newWorkload(int recordCount) throws Exception {
+    Properties props = new Properties();
+    props.setProperty(DingoDBClient.DINGO_BACKEND, DingoDBClient.DINGO_BACKEND_MEMORY);
+    props.setProperty(Client.RECORD_COUNT_PROPERTY, String.valueOf(recordCount));
+    props.setProperty(DingoDBVectorWorkload.DIMENSION_PROPERTY, "8");
+    props.setProperty(DingoDBVectorWorkload.TOP_K_PROPERTY, "5");
+    props.setProperty(DingoDBVectorWorkload.QUERY_NOISE_PROPERTY, "0");
+    props.setProperty(DingoDBVectorWorkload.RECALL_SAMPLE_PROPERTY, "0.5");
+    props.setProperty(DingoDBVectorWorkload.RECALL_QUERIES_PROPERTY, "10");
+    Measurements.setProperties(props);
+    DingoDBVectorWorkload workload = new DingoDBVectorWorkload();
+    workload.init(props);
+    return workload;
+  }
+
+  @Test
+  public void vectorsAreTheSameOnEveryClient() throws Exception {
+    assertArrayEquals(newWorkload(10).vectorOf(7), newWorkload(10).vectorOf(7), 0f);
+  }
+
+  @Test
+  public void searchFindsTheLoadedVectors() throws Exception {
+    DingoDBVectorWorkload workload = newWorkload(200);
+    for (int i = 0; i < 200; i++) {
+      assertTrue(workload.doInsert(null, null));
+    }
+    for (int i = 0; i < 50; i++) {
+      assertTrue(workload.doTransaction(null, null));
+    }
+
+    DingoDBMemoryVectorBackend index = new DingoDBMemoryVectorBackend();
+    for (long id = 0; id < 200; id++) {
+      index.upsert(new long[]{id}, new float[][]{workload.vectorOf(id)});
+    }
+    List<Long> nearest = index.search(workload.vectorOf(42), 5);
+    assertEquals(5, nearest.size());
+    assertEquals(Long.valueOf(42), nearest.get(0));
+    workload.cleanup();
+
+    // nothing has been deleted from a fresh workload, so its exact neighbours are the ones of the full index
+    DingoDBVectorWorkload fresh = newWorkload(200);
+    assertEquals(5, fresh.exactNeighbours(fresh.vectorOf(42)).size());
+    assertTrue(fresh.exactNeighbours(fresh.vectorOf(42)).containsAll(nearest));
+    fresh.cleanup();
+  }
+
+  @Test
+  public void recallIsComputedBeforeTheRun() throws Exception {
+    DingoDBVectorWorkload workload = newWorkload(200);
+    for (int i = 0; i < 200; i++) {
+      assertTrue(workload.doInsert(null, null));
+    }
+    Statistic recall = Measurements.getMeasurements().getStatistic("VECTOR-RECALL@5");
+    long samples = recall.getCount();
+    double total = recall.getTotal();
+    for (int i = 0; i < 200; i++) {
+      assertTrue(workload.doTransaction(null, null));
+    }
+    workload.cleanup();
+
+    // the in-memory index is exact, deletes included
+    assertTrue(recall.getCount() > samples);
+    assertEquals(recall.getCount() - samples, recall.getTotal() - total, 1e-9);
+  }
+
+  @Test
+  public void nearestKeepsTheClosest() {
+    DingoDBMemoryVectorBackend.Nearest nearest = new DingoDBMemoryVectorBackend.Nearest(2);
+    nearest.offer(1, 3.0);
+    nearest.offer(2, 1.0);
+    nearest.offer(3, 2.0);
+    nearest.offer(4, 5.0);
+    assertEquals(Arrays.asList(2L, 3L), nearest.ids());
+  }
+}
@@ -67,6 +67,12 @@ public class JdbcDBClient extends DB {
 
   public static final String JDBC_BATCH_UPDATES = "jdbc.batchupdateapi";
 
+  /**
+   * Send batched inserts as one multi-row INSERT statement instead of a JDBC batch. Defaults to
+   * true for the database flavors whose drivers cannot rewrite batches themselves.
+   */
+  public static final String JDBC_MULTI_ROW_INSERT = "jdbc.multirowinsert";
+
   /** The name of the property for the number of fields in a record. */
   public static final String FIELD_COUNT_PROPERTY = "fieldcount";
 
@@ -94,11 +100,14 @@ public class JdbcDBClient extends DB {
   private int batchSize;
   private boolean autoCommit;
   private boolean batchUpdates;
+  private boolean multiRowInserts;
+  /** Rows waiting for a multi-row INSERT, by the statement type of their single-row insert. */
+  private Map<StatementType, List<String[]>> pendingRows;
   private static final String DEFAULT_PROP = "";
   private ConcurrentMap<StatementType, PreparedStatement> cachedStatements;
   private long numRowsInBatch = 0;
   /** DB flavor defines DB-specific syntax and behavior for the
-   * particular database. Current database flavors are: {default, phoenix} */
+   * particular database. Current database flavors are: {default, phoenix, dingodb} */
   private DBFlavor dbFlavor;
 
   /**
@@ -240,6 +249,9 @@ public class JdbcDBClient extends DB {
       cachedStatements = new ConcurrentHashMap<StatementType, PreparedStatement>();
 
       this.dbFlavor = DBFlavor.fromJdbcUrl(urlArr[0]);
+      this.multiRowInserts = batchUpdates && batchSize > 1
+          && getBoolProperty(props, JDBC_MULTI_ROW_INSERT, dbFlavor.prefersMultiRowInsert());
+      this.pendingRows = new HashMap<StatementType, List<String[]>>();
     } catch (ClassNotFoundException e) {
       System.err.println("Error in initializing the JDBS driver: " + e);
       throw new DBException(e);
@@ -256,6 +268,23 @@ public class JdbcDBClient extends DB {
 
   @Override
   public void cleanup() throws DBException {
+    if (multiRowInserts) {
+      try {
+        // send the rows of un-finished multi-row inserts
+        for (Map.Entry<StatementType, List<String[]>> entry : pendingRows.entrySet()) {
+          int rows = entry.getValue().size();
+          if (rows > 0 && !executeMultiRowInsert(entry.getKey(), entry.getValue()).isOk()) {
+            String message = "Fewer than the " + rows + " pending rows inserted into table "
+                + entry.getKey().getTableName() + " at cleanup.";
+            System.err.println("Error in cleanup execution. " + message);
+            throw new DBException(message);
+          }
+        }
+      } catch (SQLException e) {
+        System.err.println("Error in cleanup execution. " + e);
+        throw new DBException(e);
+      }
+    }
     if (batchSize > 0) {
       try {
         // commit un-finished batches
@@ -289,6 +318,17 @@ public class JdbcDBClient extends DB {
     return stmt;
   }
 
+  private PreparedStatement createAndCacheMultiRowInsertStatement(StatementType multiInsertType, int rows,
+      String key) throws SQLException {
+    String insert = dbFlavor.createMultiRowInsertStatement(multiInsertType, rows);
+    PreparedStatement insertStatement = getShardConnectionByKey(key).prepareStatement(insert);
+    PreparedStatement stmt = cachedStatements.putIfAbsent(multiInsertType, insertStatement);
+    if (stmt == null) {
+      return insertStatement;
+    }
+    return stmt;
+  }
+
   private PreparedStatement createAndCacheReadStatement(StatementType readType, String key)
       throws SQLException {
     String read = dbFlavor.createReadStatement(readType, key);
@@ -435,6 +475,9 @@ public class JdbcDBClient extends DB {
       OrderedFieldInfo fieldInfo = getFieldInfo(values);
       StatementType type = new StatementType(StatementType.Type.INSERT, tableName,
           numFields, fieldInfo.getFieldKeys(), getShardIndexByKey(key));
+      if (multiRowInserts) {
+        return addToMultiRowInsert(type, key, fieldInfo.getFieldValues());
+      }
       PreparedStatement insertStatement = cachedStatements.get(type);
       if (insertStatement == null) {
         insertStatement = createAndCacheInsertStatement(type, key);
@@ -496,6 +539,68 @@ public class JdbcDBClient extends DB {
     }
   }
 
+  /**
+   * Queue a row for a multi-row insert, sending all the rows of its statement type once there
+   * are batchSize of them.
+   */
+  private Status addToMultiRowInsert(StatementType type, String key, List<String> fieldValues)
+      throws SQLException {
+    List<String[]> rows = pendingRows.get(type);
+    if (rows == null) {
+      rows = new ArrayList<String[]>(batchSize);
+      pendingRows.put(type, rows);
+    }
+    String[] row = new String[fieldValues.size() + 1];
+    row[0] = key;
+    for (int i = 0; i < fieldValues.size(); i++) {
+      row[i + 1] = fieldValues.get(i);
+    }
+    rows.add(row);
+    if (rows.size() < batchSize) {
+      return Status.BATCHED_OK;
+    }
+    return executeMultiRowInsert(type, rows);
+  }
+
+  /**
+   * Insert the given rows with one statement and clear them. Full batches use a cached statement,
+   * the partial batch left at cleanup is prepared for its own size.
+   */
+  private Status executeMultiRowInsert(StatementType type, List<String[]> rows) throws SQLException {
+    String key = rows.get(0)[0];
+    StatementType multiInsertType = new StatementType(StatementType.Type.MULTI_INSERT, type.getTableName(),
+        type.getNumFields(), type.getFieldString(), getShardIndexByKey(key));
+    boolean fullBatch = rows.size() == batchSize;
+    PreparedStatement insertStatement;
+    if (fullBatch) {
+      insertStatement = cachedStatements.get(multiInsertType);
+      if (insertStatement == null) {
+        insertStatement = createAndCacheMultiRowInsertStatement(multiInsertType, batchSize, key);
+      }
+    } else {
+      insertStatement = getShardConnectionByKey(key).prepareStatement(
+          dbFlavor.createMultiRowInsertStatement(multiInsertType, rows.size()));
+    }
+    try {
+      int index = 1;
+      for (String[] row : rows) {
+        for (String value : row) {
+          insertStatement.setString(index++, value);
+        }
+      }
+      int result = insertStatement.executeUpdate();
+      if (!autoCommit) {
+        getShardConnectionByKey(key).commit();
+      }
+      return result == rows.size() ? Status.OK : Status.UNEXPECTED_STATE;
+    } finally {
+      rows.clear();
+      if (!fullBatch) {
+        insertStatement.close();
+      }
+    }
+  }
+
   @Override
   public Status delete(String tableName, String key) {
     try {
@@ -26,7 +26,8 @@ public abstract class DBFlavor {
 
   enum DBName {
     DEFAULT,
-    PHOENIX
+    PHOENIX,
+    DINGODB
   }
 
   private final DBName dbName;
@@ -39,6 +40,9 @@ public abstract class DBFlavor {
     if (url.startsWith("jdbc:phoenix")) {
       return new PhoenixDBFlavor();
     }
+    if (url.startsWith("jdbc:dingo")) {
+      return new DingoDBFlavor();
+    }
     return new DefaultDBFlavor();
   }
 
@@ -47,6 +51,19 @@ public abstract class DBFlavor {
    */
   public abstract String createInsertStatement(StatementType insertType, String key);
 
+  /**
+   * Create and return a SQL statement inserting {@code rows} rows at once.
+   */
+  public abstract String createMultiRowInsertStatement(StatementType insertType, int rows);
+
+  /**
+   * Whether batched inserts should be sent as one multi-row INSERT by default, for drivers that
+   * cannot rewrite a JDBC batch themselves.
+   */
+  public boolean prefersMultiRowInsert() {
+    return false;
+  }
+
   /**
    * Create and return a SQL statement for reading data.
    */
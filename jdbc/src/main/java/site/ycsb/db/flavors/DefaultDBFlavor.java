@@ -43,6 +43,25 @@ public class DefaultDBFlavor extends DBFlavor {
     return insert.toString();
   }
 
+  @Override
+  public String createMultiRowInsertStatement(StatementType insertType, int rows) {
+    StringBuilder insert = new StringBuilder("INSERT INTO ");
+    insert.append(insertType.getTableName());
+    insert.append(" (" + JdbcDBClient.PRIMARY_KEY + "," + insertType.getFieldString() + ")");
+    insert.append(" VALUES");
+    for (int row = 0; row < rows; row++) {
+      if (row > 0) {
+        insert.append(",");
+      }
+      insert.append("(?");
+      for (int i = 0; i < insertType.getNumFields(); i++) {
+        insert.append(",?");
+      }
+      insert.append(")");
+    }
+    return insert.toString();
+  }
+
   @Override
   public String createReadStatement(StatementType readType, String key) {
     StringBuilder read = new StringBuilder("SELECT * FROM ");
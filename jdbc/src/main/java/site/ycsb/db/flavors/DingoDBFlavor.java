@@ -0,0 +1,35 @@
+/**
+ * Copyright (c) 2016 YCSB contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied. See the License for the specific language governing
+ * permissions and limitations under the License. See accompanying
+ * LICENSE file.
+ */
+package site.ycsb.db.flavors;
+
+/**
+ * Database flavor for the DingoDB SQL interface.
+ *
+ * DingoDB accepts the default SQL syntax, including {@code LIMIT} range scans on the primary key.
+ * Its JDBC driver sends every statement of a JDBC batch separately, so batched inserts are
+ * rewritten into multi-row INSERT statements by default.
+ */
+public class DingoDBFlavor extends DefaultDBFlavor {
+  public DingoDBFlavor() {
+    super(DBName.DINGODB);
+  }
+
+  @Override
+  public boolean prefersMultiRowInsert() {
+    return true;
+  }
+}
@@ -52,6 +52,10 @@ public class JdbcDBClientTest {
     }
 
     public static void setupWithBatch(int batchSize, boolean autoCommit) {
+      setupWithBatch(batchSize, autoCommit, false);
+    }
+
+    public static void setupWithBatch(int batchSize, boolean autoCommit, boolean multiRowInsert) {
       try {
         jdbcConnection = DriverManager.getConnection(TEST_DB_URL);
         jdbcDBClient = new JdbcDBClient();
@@ -63,6 +67,7 @@ public class JdbcDBClientTest {
         p.setProperty(JdbcDBClient.DB_BATCH_SIZE, Integer.toString(batchSize));
         p.setProperty(JdbcDBClient.JDBC_BATCH_UPDATES, "true");
         p.setProperty(JdbcDBClient.JDBC_AUTO_COMMIT, Boolean.toString(autoCommit));
+        p.setProperty(JdbcDBClient.JDBC_MULTI_ROW_INSERT, Boolean.toString(multiRowInsert));
 
         jdbcDBClient.setProperties(p);
         jdbcDBClient.init();
@@ -339,9 +344,23 @@ public class JdbcDBClientTest {
       insertBatchTest(19);
     }
 
+    @Test
+    public void insertMultiRowBatchTest() throws DBException {
+      insertBatchTest(20, true);
+    }
+
+    @Test
+    public void insertPartialMultiRowBatchTest() throws DBException {
+      insertBatchTest(19, true);
+    }
+
     public void insertBatchTest(int numRows) throws DBException {
+      insertBatchTest(numRows, false);
+    }
+
+    public void insertBatchTest(int numRows, boolean multiRowInsert) throws DBException {
       teardown();
-      setupWithBatch(10, false);
+      setupWithBatch(10, false, multiRowInsert);
       try {
         String insertKey = "user0";
         HashMap<String, ByteIterator> insertMap = insertRow(insertKey);